@@ -26,6 +26,37 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// JMH benchmarks, which reuse the entities of the tests
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// Runs the benchmarks with allocation profiling and saves the results as JSON.
+// Pass -Pjmh.include=<regex> to run only some of them.
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks and saves the results to build/results/jmh/results.json."
+
+    val results = layout.buildDirectory.file("results/jmh/results.json")
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+
+    args("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.absolutePath)
+    providers.gradleProperty("jmh.include").orNull?.let { args(it) }
+
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
+}
+
 publishing {
     publications {
         create<MavenPublication>("mavenJava") {
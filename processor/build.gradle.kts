@@ -0,0 +1,37 @@
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+group = "com.sammwy"
+version = "1.1.1"
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+    withSourcesJar()
+    withJavadocJar()
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    // Test
+    testImplementation(project(":"))
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.0")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+publishing {
+    publications {
+        create<MavenPublication>("mavenJava") {
+            artifactId = "class-serializer-processor"
+            from(components["java"])
+        }
+    }
+}
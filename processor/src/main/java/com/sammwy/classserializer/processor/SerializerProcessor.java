@@ -0,0 +1,558 @@
+package com.sammwy.classserializer.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that generates reflection-free serializers for classes
+ * annotated with {@code @GenerateSerializer}.
+ * <p>
+ * For every annotated class a {@code Serializer} implementation with direct
+ * field access is generated next to it. Every package with annotated classes
+ * also gets a {@code SerializerRegistry}, listed as a service so that
+ * {@code ClassSerializer} picks it up automatically. Fields and record
+ * components annotated with {@code @Ignore} are skipped, and those annotated
+ * with {@code @SerialName} are serialized under that name.
+ */
+public class SerializerProcessor extends AbstractProcessor {
+    private static final String ANNOTATION = "com.sammwy.classserializer.GenerateSerializer";
+    private static final String REGISTRY = "com.sammwy.classserializer.SerializerRegistry";
+    private static final String REGISTRY_NAME = "GeneratedSerializerRegistry";
+    private static final String SERIAL_NAME = "com.sammwy.classserializer.SerialName";
+    private static final String IGNORE = "com.sammwy.classserializer.Ignore";
+
+    private final List<String> registries = new ArrayList<>();
+    private int round = 0;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+        if (annotation == null) {
+            return false;
+        }
+
+        // Generated serializers, grouped by package: target class -> serializer class
+        Map<String, Map<String, String>> packages = new LinkedHashMap<>();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+                error(element, "@GenerateSerializer can only be applied to classes and records");
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            String serializerName = generateSerializer(type);
+            if (serializerName != null) {
+                String packageName = packageOf(type).getQualifiedName().toString();
+                packages.computeIfAbsent(packageName, key -> new LinkedHashMap<>())
+                        .put(erasure(type.asType()), serializerName);
+            }
+        }
+
+        for (Map.Entry<String, Map<String, String>> entry : packages.entrySet()) {
+            writeRegistry(entry.getKey(), entry.getValue());
+        }
+
+        round++;
+        return true;
+    }
+
+    /**
+     * Generates the serializer of a class.
+     *
+     * @param type The annotated class.
+     * @return The simple name of the generated serializer, or null if the class
+     *         isn't supported.
+     */
+    private String generateSerializer(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "@GenerateSerializer classes must not be abstract");
+            return null;
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)
+                && type.getKind() != ElementKind.RECORD) {
+            error(type, "@GenerateSerializer nested classes must be static");
+            return null;
+        }
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            error(type, "@GenerateSerializer can't be applied to local or anonymous classes");
+            return null;
+        }
+        if (isPrivate(type)) {
+            error(type, "@GenerateSerializer classes must not be private");
+            return null;
+        }
+
+        boolean isRecord = type.getKind() == ElementKind.RECORD;
+        List<Property> properties = isRecord ? recordProperties(type) : fieldProperties(type);
+        if (properties == null) {
+            return null;
+        }
+        if (!isRecord && !hasNoArgsConstructor(type)) {
+            error(type, "@GenerateSerializer classes need a non-private no-args constructor");
+            return null;
+        }
+
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String typeName = type.asType().toString();
+        String serializerName = serializerName(type);
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import java.util.HashMap;\n");
+        source.append("import java.util.Map;\n\n");
+        source.append("import com.sammwy.classserializer.ClassSerializer;\n");
+        source.append("import com.sammwy.classserializer.SerializationException;\n");
+        source.append("import com.sammwy.classserializer.Serializer;\n\n");
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        source.append("public final class ").append(serializerName)
+                .append(" implements Serializer<").append(erasure(type.asType())).append("> {\n");
+        source.append("    private final ClassSerializer owner;\n\n");
+        source.append("    public ").append(serializerName).append("(ClassSerializer owner) {\n");
+        source.append("        this.owner = owner;\n");
+        source.append("    }\n\n");
+
+        // Serialization
+        source.append("    @Override\n");
+        source.append("    public Object serialize(").append(erasure(type.asType())).append(" object) {\n");
+        source.append("        boolean skipNull = owner.getSkipNull().mustSkipSerialize();\n");
+        source.append("        Map<String, Object> result = new HashMap<>();\n");
+        Map<String, List<Property>> keys = new LinkedHashMap<>();
+        for (Property property : properties) {
+            if (property.key != null) {
+                keys.computeIfAbsent(property.key, key -> new ArrayList<>()).add(property);
+            }
+        }
+        for (Map.Entry<String, List<Property>> entry : keys.entrySet()) {
+            writeProperty(source, entry.getKey(), entry.getValue());
+        }
+        source.append("        return result;\n");
+        source.append("    }\n\n");
+
+        // Deserialization
+        source.append("    @Override\n");
+        source.append("    @SuppressWarnings(\"unchecked\")\n");
+        source.append("    public ").append(erasure(type.asType())).append(" deserialize(Object serialized) {\n");
+        source.append("        if (!(serialized instanceof Map)) {\n");
+        source.append("            throw new SerializationException(\"Expected a Map for ").append(typeName)
+                .append("\");\n");
+        source.append("        }\n\n");
+        source.append("        Map<?, ?> map = (Map<?, ?>) serialized;\n");
+        if (isRecord) {
+            List<String> arguments = new ArrayList<>();
+            for (Property property : properties) {
+                String local = "_" + property.name;
+                arguments.add(local);
+                source.append("        ").append(erasure(property.type)).append(" ").append(local).append(" = ")
+                        .append(defaultValue(property.type)).append(";\n");
+                if (property.key == null) {
+                    continue;
+                }
+                source.append("        if (map.containsKey(").append(literal(property.key)).append(")) {\n");
+                source.append("            ").append(local).append(" = ").append(readValue(property))
+                        .append(";\n");
+                source.append("        }\n");
+            }
+            source.append("        return new ").append(erasure(type.asType())).append("(")
+                    .append(String.join(", ", arguments)).append(");\n");
+        } else {
+            source.append("        ").append(erasure(type.asType())).append(" object = new ")
+                    .append(erasure(type.asType())).append("();\n");
+            // Every field sharing a key gets its value, like reflective reads
+            for (Map.Entry<String, List<Property>> entry : keys.entrySet()) {
+                source.append("        if (map.containsKey(").append(literal(entry.getKey())).append(")) {\n");
+                for (Property property : entry.getValue()) {
+                    source.append("            ").append(property.access).append(" = ")
+                            .append(readValue(property)).append(";\n");
+                }
+                source.append("        }\n");
+            }
+            source.append("        return object;\n");
+        }
+        source.append("    }\n");
+        source.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? serializerName : packageName + "." + serializerName;
+        if (!writeSource(qualifiedName, source.toString(), type)) {
+            return null;
+        }
+        return serializerName;
+    }
+
+    /**
+     * Helper method to write the statements that serialize the properties
+     * sharing a key. Reflective writes put them in field order, so the last
+     * one that isn't skipped as null ends up in the map, and that's the only
+     * one put here.
+     */
+    private void writeProperty(StringBuilder source, String key, List<Property> properties) {
+        String indent = "        ";
+        for (int i = properties.size() - 1; i >= 0; i--) {
+            Property property = properties.get(i);
+            // Basic values go through the owner too, which honors serializers registered for them
+            String put = "result.put(" + literal(key) + ", owner.serializeValue(" + property.access + "));\n";
+            boolean last = i == properties.size() - 1;
+            if (property.type.getKind().isPrimitive()) {
+                if (last) {
+                    source.append(indent).append(put);
+                } else {
+                    source.append(" else {\n").append(indent).append("    ").append(put).append(indent).append("}");
+                }
+                break;
+            }
+
+            if (last) {
+                source.append(indent).append("if (").append(property.access).append(" != null || !skipNull) {\n");
+            } else {
+                source.append(" else if (").append(property.access).append(" != null) {\n");
+            }
+            source.append(indent).append("    ").append(put).append(indent).append("}");
+        }
+
+        if (!properties.get(properties.size() - 1).type.getKind().isPrimitive()) {
+            source.append("\n");
+        }
+    }
+
+    /**
+     * Helper method to collect the serialized fields of a class and its
+     * superclasses
+     */
+    private List<Property> fieldProperties(TypeElement type) {
+        List<Property> properties = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        boolean valid = true;
+        TypeElement current = type;
+
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || annotation(field, IGNORE) != null) {
+                    continue;
+                }
+
+                // Fields hidden by a subclass field of the same name are reached through their own class
+                String name = field.getSimpleName().toString();
+                boolean hidden = !names.add(name);
+                if (modifiers.contains(Modifier.PRIVATE)) {
+                    error(field, "@GenerateSerializer fields must not be private");
+                    valid = false;
+                } else if (modifiers.contains(Modifier.FINAL)) {
+                    error(field, "@GenerateSerializer fields must not be final");
+                    valid = false;
+                } else if (!isAccessible(field, type) || (hidden && !isAccessible(current, type))) {
+                    // The generated serializer isn't a subclass, so protected doesn't reach it
+                    error(field, "@GenerateSerializer fields must be public or in the package of "
+                            + type.getQualifiedName());
+                    valid = false;
+                }
+                String access = hidden ? "((" + erasure(current.asType()) + ") object)." + name : "object." + name;
+                properties.add(new Property(name, serialName(field, name), access, field.asType()));
+            }
+
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement()
+                    : null;
+        }
+
+        return valid ? properties : null;
+    }
+
+    /**
+     * Helper method to check if a field or class can be accessed from the
+     * serializer generated next to a class
+     */
+    private boolean isAccessible(Element element, TypeElement type) {
+        return element.getModifiers().contains(Modifier.PUBLIC) || packageOf(element).equals(packageOf(type));
+    }
+
+    /**
+     * Helper method to collect the components of a record
+     */
+    private List<Property> recordProperties(TypeElement type) {
+        List<Property> properties = new ArrayList<>();
+        for (RecordComponentElement component : type.getRecordComponents()) {
+            String name = component.getSimpleName().toString();
+            // Ignored components are still passed to the constructor, with their default value
+            String key = annotation(component, IGNORE) != null ? null : serialName(component, name);
+            properties.add(new Property(name, key, "object." + name + "()", component.asType()));
+        }
+        return properties;
+    }
+
+    /**
+     * Helper method to get the serialized name of a field or record component,
+     * which is its own name unless it's annotated with {@code @SerialName}
+     */
+    private String serialName(Element element, String name) {
+        AnnotationMirror serialName = annotation(element, SERIAL_NAME);
+        if (serialName == null) {
+            return name;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : serialName
+                .getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return (String) entry.getValue().getValue();
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Helper method to find an annotation of an element by its qualified name,
+     * since the processor doesn't depend on the annotation classes
+     */
+    private static AnnotationMirror annotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to check if a class has a usable no-args constructor
+     */
+    private boolean hasNoArgsConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to build the expression that deserializes a property
+     */
+    private String readValue(Property property) {
+        StringBuilder expression = new StringBuilder();
+        expression.append("(").append(erasure(property.type)).append(") owner.deserializeValue(map.get(")
+                .append(literal(property.key)).append("), ").append(erasure(property.type)).append(".class");
+
+        if (property.type.getKind() == TypeKind.DECLARED) {
+            for (TypeMirror argument : ((DeclaredType) property.type).getTypeArguments()) {
+                expression.append(", ").append(typeArgumentClass(argument)).append(".class");
+            }
+        }
+
+        return expression.append(")").toString();
+    }
+
+    /**
+     * Helper method to resolve a type argument to a class, the same way
+     * reflection does: only plain classes are resolved, anything else is Object
+     */
+    private String typeArgumentClass(TypeMirror argument) {
+        if (argument.getKind() == TypeKind.DECLARED && ((DeclaredType) argument).getTypeArguments().isEmpty()) {
+            return erasure(argument);
+        }
+        return "java.lang.Object";
+    }
+
+    /**
+     * Helper method to get the default value literal of a type
+     */
+    private static String defaultValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+                return "'\\0'";
+            case BYTE:
+                return "(byte) 0";
+            case SHORT:
+                return "(short) 0";
+            case INT:
+                return "0";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0f";
+            case DOUBLE:
+                return "0d";
+            default:
+                return "null";
+        }
+    }
+
+    /**
+     * Helper method to write the registry of a package
+     */
+    private void writeRegistry(String packageName, Map<String, String> serializers) {
+        String registryName = round == 0 ? REGISTRY_NAME : REGISTRY_NAME + round;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import java.util.HashMap;\n");
+        source.append("import java.util.Map;\n\n");
+        source.append("import com.sammwy.classserializer.ClassSerializer;\n");
+        source.append("import com.sammwy.classserializer.Serializer;\n\n");
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        source.append("public final class ").append(registryName).append(" implements ").append(REGISTRY)
+                .append(" {\n");
+        source.append("    @Override\n");
+        source.append("    public Map<Class<?>, Serializer<?>> create(ClassSerializer serializer) {\n");
+        source.append("        Map<Class<?>, Serializer<?>> serializers = new HashMap<>();\n");
+        for (Map.Entry<String, String> entry : serializers.entrySet()) {
+            source.append("        serializers.put(").append(entry.getKey()).append(".class, new ")
+                    .append(entry.getValue()).append("(serializer));\n");
+        }
+        source.append("        return serializers;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? registryName : packageName + "." + registryName;
+        if (writeSource(qualifiedName, source.toString(), null)) {
+            registries.add(qualifiedName);
+        }
+    }
+
+    /**
+     * Helper method to list all generated registries as services
+     */
+    private void writeServiceFile() {
+        if (registries.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + REGISTRY);
+            try (Writer writer = file.openWriter()) {
+                for (String registry : registries) {
+                    writer.write(registry);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            error(null, "Can't write the serializer registry service file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to write a generated source file
+     */
+    private boolean writeSource(String qualifiedName, String source, Element origin) {
+        try {
+            Element[] origins = origin != null ? new Element[] { origin } : new Element[0];
+            try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, origins).openWriter()) {
+                writer.write(source);
+            }
+            return true;
+        } catch (IOException e) {
+            error(origin, "Can't write " + qualifiedName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Helper method to get the name of the serializer generated for a class,
+     * e.g. Outer_Inner_Serializer
+     */
+    private static String serializerName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append("_Serializer").toString();
+    }
+
+    private PackageElement packageOf(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element);
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static boolean isPrivate(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+            current = current.getEnclosingElement();
+        }
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * A serialized property of an annotated class.
+     */
+    private static final class Property {
+        private final String name;
+        // The serialized name, or null if the property is ignored
+        private final String key;
+        // The expression that reads the property from the object
+        private final String access;
+        private final TypeMirror type;
+
+        private Property(String name, String key, String access, TypeMirror type) {
+            this.name = name;
+            this.key = key;
+            this.access = access;
+            this.type = type;
+        }
+    }
+}
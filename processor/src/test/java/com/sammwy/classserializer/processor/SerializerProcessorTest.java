@@ -0,0 +1,336 @@
+package com.sammwy.classserializer.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.Serializer;
+import com.sammwy.classserializer.SerializerRegistry;
+
+@Nested
+@DisplayName("Serializer Processor")
+public class SerializerProcessorTest {
+    private static final String PREFERENCES = String.join("\n",
+            "package sample;",
+            "",
+            "@com.sammwy.classserializer.GenerateSerializer",
+            "public class Preferences {",
+            "    public String theme = \"default\";",
+            "    public boolean notifications = true;",
+            "    public java.util.List<String> tags = new java.util.ArrayList<>();",
+            "    public Settings settings = new Settings();",
+            "    transient String session = \"session\";",
+            "",
+            "    public static class Settings {",
+            "        public int fontSize = 14;",
+            "    }",
+            "}");
+
+    private static final String POINT = String.join("\n",
+            "package sample;",
+            "",
+            "@com.sammwy.classserializer.GenerateSerializer",
+            "public record Point(int x, int y) {",
+            "}");
+
+    private static final String ACCOUNT = String.join("\n",
+            "package sample;",
+            "",
+            "import com.sammwy.classserializer.Ignore;",
+            "import com.sammwy.classserializer.SerialName;",
+            "",
+            "@com.sammwy.classserializer.GenerateSerializer",
+            "public class Account {",
+            "    @SerialName(\"user-name\")",
+            "    public String name = \"alice\";",
+            "    @Ignore",
+            "    private String password = \"secret\";",
+            "    public int level = 1;",
+            "}");
+
+    private static final String LABEL = String.join("\n",
+            "package sample;",
+            "",
+            "import com.sammwy.classserializer.Ignore;",
+            "import com.sammwy.classserializer.SerialName;",
+            "",
+            "@com.sammwy.classserializer.GenerateSerializer",
+            "public record Label(@SerialName(\"\\\"text\\\"\") String text, @Ignore int cached) {",
+            "}");
+
+    private static final String BASE = String.join("\n",
+            "package sample;",
+            "",
+            "public class Base {",
+            "    public String name = \"base\";",
+            "}");
+
+    private static final String DERIVED = String.join("\n",
+            "package sample;",
+            "",
+            "@com.sammwy.classserializer.GenerateSerializer",
+            "public class Derived extends Base {",
+            "    public String name = \"derived\";",
+            "    public int level = 2;",
+            "}");
+
+    private static final String FOREIGN_BASE = String.join("\n",
+            "package other;",
+            "",
+            "public class ForeignBase {",
+            "    protected String secret = \"secret\";",
+            "}");
+
+    private static final String FOREIGN_DERIVED = String.join("\n",
+            "package sample;",
+            "",
+            "@com.sammwy.classserializer.GenerateSerializer",
+            "public class ForeignDerived extends other.ForeignBase {",
+            "}");
+
+    @TempDir
+    Path directory;
+
+    private ClassLoader compile(String... sources) throws IOException {
+        assertEquals(0, run(new ByteArrayOutputStream(), sources), "Generated sources must compile");
+        return new URLClassLoader(new URL[] { directory.resolve("out").toUri().toURL() }, getClass().getClassLoader());
+    }
+
+    /**
+     * Helper method to run the compiler with the processor over named sources,
+     * writing the diagnostics to a stream
+     */
+    private int run(OutputStream errors, String... sources) throws IOException {
+        Path sourceDir = Files.createDirectories(directory.resolve("src/sample"));
+        Path outputDir = Files.createDirectories(directory.resolve("out"));
+
+        String[] arguments = new String[sources.length / 2 + 6];
+        arguments[0] = "-processor";
+        arguments[1] = SerializerProcessor.class.getName();
+        arguments[2] = "-classpath";
+        arguments[3] = System.getProperty("java.class.path");
+        arguments[4] = "-d";
+        arguments[5] = outputDir.toString();
+        for (int i = 0; i < sources.length; i += 2) {
+            Path file = sourceDir.resolve(sources[i] + ".java");
+            Files.writeString(file, sources[i + 1]);
+            arguments[6 + i / 2] = file.toString();
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        return compiler.run(null, null, errors, arguments);
+    }
+
+    private Serializer<Object> serializerFor(ClassLoader loader, Class<?> type) throws Exception {
+        return serializerFor(loader, type, new ClassSerializer());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Serializer<Object> serializerFor(ClassLoader loader, Class<?> type, ClassSerializer owner)
+            throws Exception {
+        SerializerRegistry registry = (SerializerRegistry) loader.loadClass("sample.GeneratedSerializerRegistry")
+                .getDeclaredConstructor().newInstance();
+        Map<Class<?>, Serializer<?>> serializers = registry.create(owner);
+        return (Serializer<Object>) serializers.get(type);
+    }
+
+    /**
+     * Helper method to load the library and the compiled sources apart from
+     * the tests, so that the registries listed as services are only seen by
+     * the serializers created through the returned loader
+     */
+    private ClassLoader isolate() throws IOException {
+        URL library = ClassSerializer.class.getProtectionDomain().getCodeSource().getLocation();
+        URL output = directory.resolve("out").toUri().toURL();
+        return new URLClassLoader(new URL[] { library, output }, ClassLoader.getPlatformClassLoader());
+    }
+
+    /**
+     * Helper method to create a serializer of an isolated loader that skips
+     * every field it serializes through reflection
+     */
+    private Object isolatedSerializer(ClassLoader loader) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            Class<?> type = loader.loadClass(ClassSerializer.class.getName());
+            Object serializer = type.getConstructor().newInstance();
+            Function<Field, String> filter = field -> null;
+            return type.getMethod("fieldFilter", Function.class).invoke(serializer, filter);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    @Test
+    @DisplayName("Generate serializers for annotated classes")
+    public void generateSerializersForClasses() throws Exception {
+        ClassLoader loader = compile("Preferences", PREFERENCES);
+        Class<?> type = loader.loadClass("sample.Preferences");
+        Serializer<Object> serializer = serializerFor(loader, type);
+
+        Object preferences = type.getDeclaredConstructor().newInstance();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> serialized = (Map<String, Object>) serializer.serialize(preferences);
+
+        assertEquals("default", serialized.get("theme"));
+        assertEquals(true, serialized.get("notifications"));
+        assertTrue(serialized.get("settings") instanceof Map);
+        assertEquals("session", serialized.get("session"));
+
+        Map<String, Object> input = new HashMap<>(serialized);
+        input.put("theme", "dark");
+        input.put("tags", Arrays.asList("a", "b"));
+
+        Object deserialized = serializer.deserialize(input);
+
+        assertEquals("dark", type.getField("theme").get(deserialized));
+        assertEquals(List.of("a", "b"), type.getField("tags").get(deserialized));
+    }
+
+    @Test
+    @DisplayName("Generate serializers for records")
+    public void generateSerializersForRecords() throws Exception {
+        ClassLoader loader = compile("Point", POINT);
+        Class<?> type = loader.loadClass("sample.Point");
+        Serializer<Object> serializer = serializerFor(loader, type);
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("x", 3);
+        input.put("y", 4L);
+
+        Object point = serializer.deserialize(input);
+        Field x = type.getDeclaredField("x");
+        x.setAccessible(true);
+
+        assertEquals(3, x.get(point));
+        assertEquals(Map.of("x", 3, "y", 4), serializer.serialize(point));
+    }
+
+    @Test
+    @DisplayName("Apply serial names and skip ignored fields")
+    public void applySerialNamesAndIgnore() throws Exception {
+        ClassLoader loader = compile("Account", ACCOUNT, "Label", LABEL);
+        Class<?> account = loader.loadClass("sample.Account");
+        Serializer<Object> accountSerializer = serializerFor(loader, account);
+
+        assertEquals(Map.of("user-name", "alice", "level", 1),
+                accountSerializer.serialize(account.getDeclaredConstructor().newInstance()));
+        Object deserialized = accountSerializer.deserialize(Map.of("user-name", "bob", "name", "eve"));
+        assertEquals("bob", account.getField("name").get(deserialized));
+
+        Class<?> label = loader.loadClass("sample.Label");
+        Serializer<Object> labelSerializer = serializerFor(loader, label);
+        Object record = labelSerializer.deserialize(Map.of("\"text\"", "hello", "cached", 7));
+
+        assertEquals(Map.of("\"text\"", "hello"), labelSerializer.serialize(record));
+        assertEquals(0, label.getMethod("cached").invoke(record));
+    }
+
+    @Test
+    @DisplayName("Honor serializers of primitive types in both directions")
+    public void honorPrimitiveSerializers() throws Exception {
+        ClassLoader loader = compile("Point", POINT);
+        Class<?> type = loader.loadClass("sample.Point");
+        ClassSerializer owner = new ClassSerializer().addSerializer(int.class, new Serializer<Integer>() {
+            @Override
+            public Object serialize(Integer object) {
+                return "#" + object;
+            }
+
+            @Override
+            public Integer deserialize(Object serialized) {
+                return Integer.parseInt(((String) serialized).substring(1));
+            }
+        });
+        Serializer<Object> serializer = serializerFor(loader, type, owner);
+
+        Object point = serializer.deserialize(Map.of("x", "#3", "y", "#4"));
+
+        assertEquals(3, type.getMethod("x").invoke(point));
+        assertEquals(Map.of("x", "#3", "y", "#4"), serializer.serialize(point));
+    }
+
+    @Test
+    @DisplayName("Pick up generated serializers from registries")
+    public void pickUpGeneratedSerializers() throws Exception {
+        compile("Account", ACCOUNT);
+        ClassLoader loader = isolate();
+        Object serializer = isolatedSerializer(loader);
+        Object account = loader.loadClass("sample.Account").getDeclaredConstructor().newInstance();
+
+        // The field filter skips everything, so only the generated serializer writes fields
+        Object serialized = serializer.getClass().getMethod("serialize", Object.class).invoke(serializer, account);
+        Object nested = serializer.getClass().getMethod("serializeValue", Object.class).invoke(serializer,
+                Map.of("account", account));
+
+        assertEquals(Map.of("user-name", "alice", "level", 1), serialized);
+        assertEquals(Map.of("account", Map.of("user-name", "alice", "level", 1)), nested);
+    }
+
+    @Test
+    @DisplayName("Write hidden fields like reflection and read into all of them")
+    public void handleHiddenFields() throws Exception {
+        ClassLoader loader = compile("Base", BASE, "Derived", DERIVED);
+        Class<?> type = loader.loadClass("sample.Derived");
+        Class<?> base = loader.loadClass("sample.Base");
+        Serializer<Object> serializer = serializerFor(loader, type);
+        Object derived = type.getDeclaredConstructor().newInstance();
+
+        assertEquals(new ClassSerializer().serialize(derived), serializer.serialize(derived));
+        assertEquals(Map.of("name", "base", "level", 2), serializer.serialize(derived));
+
+        Object deserialized = serializer.deserialize(Map.of("name", "other"));
+
+        assertEquals("other", type.getField("name").get(deserialized));
+        assertEquals("other", base.getField("name").get(deserialized));
+    }
+
+    @Test
+    @DisplayName("Reject protected fields inherited from other packages")
+    public void rejectForeignProtectedFields() throws Exception {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = run(errors, "ForeignBase", FOREIGN_BASE, "ForeignDerived", FOREIGN_DERIVED);
+
+        assertEquals(1, result);
+        assertTrue(errors.toString().contains("@GenerateSerializer fields must be public or in the package of"));
+        assertFalse(errors.toString().contains("has protected access"));
+    }
+
+    @Test
+    @DisplayName("List generated registries as services")
+    public void listRegistriesAsServices() throws Exception {
+        compile("Point", POINT);
+
+        Path services = directory.resolve("out/META-INF/services/" + SerializerRegistry.class.getName());
+
+        assertTrue(Files.exists(services));
+        assertEquals("sample.GeneratedSerializerRegistry", Files.readString(services).trim());
+        assertTrue(new File(directory.resolve("out/sample").toFile(), "Point_Serializer.class").exists());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sammwy.classserializer.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.Serializer;
+import com.sammwy.classserializer.tests.entity.UserWithCustomData;
+
+/**
+ * Dispatches values to custom serializers registered for their exact class
+ * and for one of their interfaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomSerializerBenchmark {
+    private ClassSerializer serializer;
+    private UserWithCustomData user;
+    private Map<String, Object> userMap;
+    private StringBuilder text;
+
+    @Setup
+    public void setUp() {
+        serializer = Serializers.create()
+                .addSerializer(CharSequence.class, new Serializer<CharSequence>() {
+                    @Override
+                    public Object serialize(CharSequence object) {
+                        return object.toString();
+                    }
+
+                    @Override
+                    public CharSequence deserialize(Object serialized) {
+                        return new StringBuilder(serialized.toString());
+                    }
+                });
+
+        user = new UserWithCustomData();
+        userMap = serializer.serialize(user);
+        text = new StringBuilder("benchmark");
+    }
+
+    @Benchmark
+    public Map<String, Object> serializeExactMatch() {
+        return serializer.serialize(user);
+    }
+
+    @Benchmark
+    public UserWithCustomData deserializeExactMatch() {
+        return serializer.deserialize(UserWithCustomData.class, userMap);
+    }
+
+    @Benchmark
+    public Object serializeInterfaceMatch() {
+        return serializer.serializeValue(text);
+    }
+}
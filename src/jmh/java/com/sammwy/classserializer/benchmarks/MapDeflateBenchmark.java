@@ -0,0 +1,81 @@
+package com.sammwy.classserializer.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sammwy.classserializer.MapDeflate;
+
+/**
+ * Deflates and inflates wide maps, with many entries on few levels, and deep
+ * maps, with few entries on many levels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapDeflateBenchmark {
+    private static final int WIDTH = 500;
+    private static final int DEPTH = 32;
+
+    private Map<String, Object> wide;
+    private Map<String, Object> deep;
+    private Map<String, Object> wideFlat;
+    private Map<String, Object> deepFlat;
+
+    @Setup
+    public void setUp() {
+        wide = new HashMap<>();
+        for (int i = 0; i < WIDTH; i++) {
+            Map<String, Object> child = new HashMap<>();
+            child.put("id", i);
+            child.put("name", "entry" + i);
+            wide.put("key" + i, i % 2 == 0 ? child : "value" + i);
+        }
+
+        deep = new HashMap<>();
+        Map<String, Object> level = deep;
+        for (int i = 0; i < DEPTH; i++) {
+            Map<String, Object> child = new HashMap<>();
+            level.put("value", i);
+            level.put("level" + i, child);
+            level = child;
+        }
+
+        wideFlat = MapDeflate.deflate(wide);
+        deepFlat = MapDeflate.deflate(deep);
+    }
+
+    @Benchmark
+    public Map<String, Object> deflateWide() {
+        return MapDeflate.deflate(wide);
+    }
+
+    @Benchmark
+    public Map<String, Object> deflateDeep() {
+        return MapDeflate.deflate(deep);
+    }
+
+    @Benchmark
+    public Map<String, Object> inflateWide() {
+        return MapDeflate.inflate(wideFlat);
+    }
+
+    @Benchmark
+    public Map<String, Object> inflateDeep() {
+        return MapDeflate.inflate(deepFlat);
+    }
+}
@@ -0,0 +1,105 @@
+package com.sammwy.classserializer.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.ClassSerializer.Engine;
+import com.sammwy.classserializer.tests.entity.PrimitiveTypes;
+import com.sammwy.classserializer.tests.entity.TestUser;
+import com.sammwy.classserializer.tests.entity.WithLists;
+import com.sammwy.classserializer.tests.entity.WithMaps;
+
+/**
+ * Serializes and deserializes small, nested and collection-heavy entities
+ * with both engines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+    @Param({ "REFLECTIVE", "GENERATED" })
+    public Engine engine;
+
+    private ClassSerializer serializer;
+
+    private PrimitiveTypes primitiveTypes;
+    private TestUser testUser;
+    private WithLists withLists;
+    private WithMaps withMaps;
+
+    private Map<String, Object> primitiveTypesMap;
+    private Map<String, Object> testUserMap;
+    private Map<String, Object> withListsMap;
+    private Map<String, Object> withMapsMap;
+
+    @Setup
+    public void setUp() {
+        serializer = Serializers.create().withEngine(engine);
+
+        primitiveTypes = new PrimitiveTypes();
+        testUser = new TestUser();
+        withLists = new WithLists();
+        withMaps = new WithMaps();
+
+        primitiveTypesMap = serializer.serialize(primitiveTypes);
+        testUserMap = serializer.serialize(testUser);
+        withListsMap = serializer.serialize(withLists);
+        withMapsMap = serializer.serialize(withMaps);
+    }
+
+    @Benchmark
+    public Map<String, Object> serializePrimitiveTypes() {
+        return serializer.serialize(primitiveTypes);
+    }
+
+    @Benchmark
+    public Map<String, Object> serializeTestUser() {
+        return serializer.serialize(testUser);
+    }
+
+    @Benchmark
+    public Map<String, Object> serializeWithLists() {
+        return serializer.serialize(withLists);
+    }
+
+    @Benchmark
+    public Map<String, Object> serializeWithMaps() {
+        return serializer.serialize(withMaps);
+    }
+
+    @Benchmark
+    public PrimitiveTypes deserializePrimitiveTypes() {
+        return serializer.deserialize(PrimitiveTypes.class, primitiveTypesMap);
+    }
+
+    @Benchmark
+    public TestUser deserializeTestUser() {
+        return serializer.deserialize(TestUser.class, testUserMap);
+    }
+
+    @Benchmark
+    public WithLists deserializeWithLists() {
+        return serializer.deserialize(WithLists.class, withListsMap);
+    }
+
+    @Benchmark
+    public WithMaps deserializeWithMaps() {
+        return serializer.deserialize(WithMaps.class, withMapsMap);
+    }
+}
@@ -0,0 +1,32 @@
+package com.sammwy.classserializer.benchmarks;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.customs.CustomData;
+import com.sammwy.classserializer.tests.customs.CustomDataSerializer;
+
+/**
+ * The serializer configuration shared by the benchmarks, the same one the
+ * tests use.
+ */
+final class Serializers {
+    private Serializers() {
+    }
+
+    /**
+     * @return A serializer for the entities of the tests.
+     */
+    static ClassSerializer create() {
+        return new ClassSerializer()
+                .fieldFilter(field -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                })
+                .addSerializer(CustomData.class, new CustomDataSerializer());
+    }
+}
@@ -0,0 +1,34 @@
+package com.sammwy.classserializer;
+
+/**
+ * Exception thrown when an element of a batch fails to serialize or
+ * deserialize.
+ */
+public class BatchSerializationException extends SerializationException {
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    /**
+     * Constructs a new BatchSerializationException for the element at the
+     * specified index.
+     *
+     * @param message The detail message.
+     * @param index   The index of the failing element in the batch.
+     * @param cause   The cause of the exception.
+     */
+    public BatchSerializationException(String message, int index, Throwable cause) {
+        super(message, cause);
+        this.index = index;
+    }
+
+    /**
+     * Gets the index of the failing element. When several elements fail, this
+     * is the lowest of their indices.
+     *
+     * @return The index of the failing element in the batch.
+     */
+    public int getIndex() {
+        return index;
+    }
+}
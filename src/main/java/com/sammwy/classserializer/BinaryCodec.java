@@ -0,0 +1,387 @@
+package com.sammwy.classserializer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.sammwy.classserializer.BinaryLayout.Kind;
+
+/**
+ * Compact binary encoding of objects, driven by the layout of their classes.
+ * <p>
+ * Fields are written in declaration order and identified by their ordinal
+ * instead of their name. Every object starts with two bitmaps, one with the
+ * fields that were written and one with the fields that are null, followed by
+ * the values of the non-null fields:
+ * <ul>
+ * <li>Integers as zigzag varints, so small values take one byte.</li>
+ * <li>Floats and doubles as 4 and 8 bytes, booleans and bytes as one
+ * byte.</li>
+ * <li>Strings as their UTF-8 length followed by their UTF-8 bytes.</li>
+ * <li>Nested objects of the declared type with their own layout.</li>
+ * <li>Lists, maps and values of registered serializers with a type tag in
+ * front of every value, and names for the entries of maps.</li>
+ * </ul>
+ * The field predicate, the null handling mode and the registered serializers
+ * of the {@link ClassSerializer} are applied as usual. Since the data doesn't
+ * describe its own layout, the reading side must use the same classes and an
+ * equally configured serializer.
+ */
+public final class BinaryCodec {
+    private static final byte TAGGED = 0;
+    private static final byte SCHEMA = 1;
+
+    private final ClassSerializer serializer;
+
+    /**
+     * Creates a binary codec.
+     *
+     * @param serializer The serializer whose configuration applies.
+     */
+    public BinaryCodec(ClassSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Encodes an object to bytes.
+     *
+     * @param object The object to encode.
+     * @return The encoded bytes.
+     */
+    public byte[] encode(Object object) {
+        BinaryWriter out = new BinaryWriter(256);
+        encode(object, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes an object into a buffer, starting at its current position.
+     *
+     * @param object The object to encode.
+     * @param buffer The buffer to write to.
+     * @throws java.nio.BufferOverflowException If the buffer is too small.
+     */
+    public void encode(Object object, ByteBuffer buffer) {
+        encode(object, new BinaryWriter(buffer));
+    }
+
+    /**
+     * Decodes an object from bytes.
+     *
+     * @param <T>   The type of the object to decode.
+     * @param clazz The class of the encoded object.
+     * @param bytes The encoded bytes.
+     * @return The decoded object.
+     */
+    public <T> T decode(Class<T> clazz, byte[] bytes) {
+        return decode(clazz, ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes an object from a buffer, starting at its current position. The
+     * position is left after the end of the object.
+     *
+     * @param <T>    The type of the object to decode.
+     * @param clazz  The class of the encoded object.
+     * @param buffer The buffer to read from.
+     * @return The decoded object.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T decode(Class<T> clazz, ByteBuffer buffer) {
+        BinaryReader in = new BinaryReader(buffer);
+        try {
+            if (in.readByte() == SCHEMA) {
+                return (T) readObject(clazz, in);
+            }
+            return serializer.deserialize(clazz, in);
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Unexpected end of binary data for class: " + clazz.getName(), e);
+        }
+    }
+
+    /**
+     * Helper method to encode the root object
+     */
+    private void encode(Object object, BinaryWriter out) {
+        if (object != null && serializer.isStreamable(object.getClass())
+                && serializer.canSerialize(object.getClass())) {
+            out.writeByte(SCHEMA);
+            writeObject(object, BinaryLayout.of(object.getClass()), out);
+        } else {
+            // Plain values and objects of registered serializers have no layout
+            out.writeByte(TAGGED);
+            serializer.serialize(object, out);
+        }
+    }
+
+    /**
+     * Helper method to write the bitmaps and field values of an object
+     */
+    private void writeObject(Object object, BinaryLayout layout, BinaryWriter out) {
+        List<FieldModel> fields = layout.model().fields();
+        int present = out.reserve(layout.bitmapSize() * 2);
+        int nulls = present + layout.bitmapSize();
+        boolean skipNull = serializer.skipNull().mustSkipSerialize();
+
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            if (serializer.fieldName(field, object) == null) {
+                continue;
+            }
+
+            Kind kind = effectiveKind(layout, i);
+            if (field.primitiveType() != null && kind != Kind.DYNAMIC) {
+                out.setBit(present, i);
+                writePrimitive(field, kind, object, out);
+                continue;
+            }
+
+            Object value = field.get(object);
+            if (value == null) {
+                if (!skipNull) {
+                    out.setBit(present, i);
+                    out.setBit(nulls, i);
+                }
+                continue;
+            }
+
+            out.setBit(present, i);
+            writeValue(field, kind, value, out);
+        }
+    }
+
+    /**
+     * Helper method to write a primitive field without boxing
+     */
+    private void writePrimitive(FieldModel field, Kind kind, Object object, BinaryWriter out) {
+        FieldAccessor accessor = field.accessor();
+        switch (kind) {
+            case BOOLEAN:
+                out.writeByte(accessor.getBoolean(object) ? 1 : 0);
+                break;
+            case BYTE:
+                out.writeByte(accessor.getByte(object));
+                break;
+            case SHORT:
+                out.writeZigzag(accessor.getShort(object));
+                break;
+            case CHAR:
+                out.writeVarint(accessor.getChar(object));
+                break;
+            case INT:
+                out.writeZigzag(accessor.getInt(object));
+                break;
+            case LONG:
+                out.writeZigzag(accessor.getLong(object));
+                break;
+            case FLOAT:
+                out.writeFixed(Float.floatToRawIntBits(accessor.getFloat(object)), 4);
+                break;
+            case DOUBLE:
+                out.writeFixed(Double.doubleToRawLongBits(accessor.getDouble(object)), 8);
+                break;
+            default:
+                throw new SerializationException("Not a primitive field: " + field.name());
+        }
+    }
+
+    /**
+     * Helper method to write a non-null field value
+     */
+    private void writeValue(FieldModel field, Kind kind, Object value, BinaryWriter out) {
+        switch (kind) {
+            case BOOLEAN:
+                out.writeByte((Boolean) value ? 1 : 0);
+                break;
+            case BYTE:
+                out.writeByte((Byte) value);
+                break;
+            case SHORT:
+                out.writeZigzag((Short) value);
+                break;
+            case CHAR:
+                out.writeVarint((Character) value);
+                break;
+            case INT:
+                out.writeZigzag((Integer) value);
+                break;
+            case LONG:
+                out.writeZigzag((Long) value);
+                break;
+            case FLOAT:
+                out.writeFixed(Float.floatToRawIntBits((Float) value), 4);
+                break;
+            case DOUBLE:
+                out.writeFixed(Double.doubleToRawLongBits((Double) value), 8);
+                break;
+            case STRING:
+                out.writeString0((String) value);
+                break;
+            case OBJECT:
+                Class<?> type = field.type();
+                if (value.getClass() == type && serializer.canSerialize(type)) {
+                    out.writeByte(SCHEMA);
+                    writeObject(value, BinaryLayout.of(type), out);
+                } else {
+                    // Subclasses don't match the layout of the declared type
+                    out.writeByte(TAGGED);
+                    serializer.writeValue(out, value);
+                }
+                break;
+            default:
+                serializer.writeValue(out, value);
+                break;
+        }
+    }
+
+    /**
+     * Helper method to read the bitmaps and field values of an object
+     */
+    private Object readObject(Class<?> type, BinaryReader in) {
+        BinaryLayout layout = BinaryLayout.of(type);
+        List<FieldModel> fields = layout.model().fields();
+        int present = in.skip(layout.bitmapSize() * 2);
+        int nulls = present + layout.bitmapSize();
+
+        InstanceFactory factory = serializer.instanceFactory(type);
+        List<FieldModel> parameters = factory.parameters();
+
+        if (parameters.isEmpty()) {
+            Object instance = factory.create();
+            for (int i = 0; i < fields.size(); i++) {
+                if (!in.bit(present, i)) {
+                    continue;
+                }
+
+                FieldModel field = fields.get(i);
+                Kind kind = effectiveKind(layout, i);
+                boolean isNull = in.bit(nulls, i);
+
+                if (serializer.fieldName(field, instance) == null) {
+                    if (!isNull) {
+                        readValue(field, kind, in);
+                    }
+                } else if (isNull) {
+                    field.set(instance, ClassUtils.getDefaultValue(field.type()));
+                } else if (field.primitiveType() != null && kind != Kind.DYNAMIC) {
+                    readPrimitive(field, kind, instance, in);
+                } else {
+                    field.set(instance, readValue(field, kind, in));
+                }
+            }
+            return instance;
+        }
+
+        // Constructor parameters are needed before the instance exists
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            if (in.bit(present, i) && !in.bit(nulls, i)) {
+                values[i] = readValue(fields.get(i), effectiveKind(layout, i), in);
+            }
+        }
+
+        Object[] arguments = factory.defaultArguments();
+        for (int i = 0; i < arguments.length; i++) {
+            FieldModel parameter = parameters.get(i);
+            int ordinal = parameter != null ? fields.indexOf(parameter) : -1;
+            if (ordinal >= 0 && in.bit(present, ordinal) && serializer.fieldName(parameter, null) != null) {
+                arguments[i] = in.bit(nulls, ordinal) ? ClassUtils.getDefaultValue(parameter.type()) : values[ordinal];
+            }
+        }
+
+        Object instance = factory.create(arguments);
+        for (FieldModel field : factory.remainingFields(layout.model())) {
+            int ordinal = fields.indexOf(field);
+            if (in.bit(present, ordinal) && serializer.fieldName(field, instance) != null) {
+                field.set(instance, in.bit(nulls, ordinal) ? ClassUtils.getDefaultValue(field.type()) : values[ordinal]);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Helper method to read a primitive field without boxing
+     */
+    private void readPrimitive(FieldModel field, Kind kind, Object instance, BinaryReader in) {
+        FieldAccessor accessor = field.accessor();
+        switch (kind) {
+            case BOOLEAN:
+                accessor.setBoolean(instance, in.readByte() != 0);
+                break;
+            case BYTE:
+                accessor.setByte(instance, in.readByte());
+                break;
+            case SHORT:
+                accessor.setShort(instance, (short) in.readZigzag());
+                break;
+            case CHAR:
+                accessor.setChar(instance, (char) in.readVarint());
+                break;
+            case INT:
+                accessor.setInt(instance, (int) in.readZigzag());
+                break;
+            case LONG:
+                accessor.setLong(instance, in.readZigzag());
+                break;
+            case FLOAT:
+                accessor.setFloat(instance, Float.intBitsToFloat((int) in.readFixed(4)));
+                break;
+            case DOUBLE:
+                accessor.setDouble(instance, Double.longBitsToDouble(in.readFixed(8)));
+                break;
+            default:
+                throw new SerializationException("Not a primitive field: " + field.name());
+        }
+    }
+
+    /**
+     * Helper method to read a non-null field value
+     */
+    private Object readValue(FieldModel field, Kind kind, BinaryReader in) {
+        switch (kind) {
+            case BOOLEAN:
+                return in.readByte() != 0;
+            case BYTE:
+                return in.readByte();
+            case SHORT:
+                return (short) in.readZigzag();
+            case CHAR:
+                return (char) in.readVarint();
+            case INT:
+                return (int) in.readZigzag();
+            case LONG:
+                return in.readZigzag();
+            case FLOAT:
+                return Float.intBitsToFloat((int) in.readFixed(4));
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readFixed(8));
+            case STRING:
+                return in.readString();
+            case OBJECT:
+                if (in.readByte() == SCHEMA) {
+                    return readObject(field.type(), in);
+                }
+                return serializer.readValue(in, field);
+            default:
+                return serializer.readValue(in, field);
+        }
+    }
+
+    /**
+     * Helper method to fall back to tagged values when a registered serializer
+     * owns the type of a field
+     */
+    private Kind effectiveKind(BinaryLayout layout, int ordinal) {
+        Kind kind = layout.kind(ordinal);
+        switch (kind) {
+            case DYNAMIC:
+                return kind;
+            case STRING:
+                return serializer.hasSerializer(String.class) ? Kind.DYNAMIC : kind;
+            case OBJECT:
+                return serializer.hasSerializer(layout.model().fields().get(ordinal).type()) ? Kind.DYNAMIC : kind;
+            default:
+                return serializer.hasPrimitiveFastPath() ? kind : Kind.DYNAMIC;
+        }
+    }
+}
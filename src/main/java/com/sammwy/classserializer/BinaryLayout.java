@@ -0,0 +1,121 @@
+package com.sammwy.classserializer;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The binary layout of a class, computed once per class.
+ * <p>
+ * Fields are identified by their ordinal in {@link ClassModel#fields()}, and
+ * each one gets a fixed encoding from its declared type, so values can be
+ * written without names or type tags.
+ */
+final class BinaryLayout {
+    /**
+     * How the value of a field is encoded.
+     */
+    enum Kind {
+        BOOLEAN,
+        BYTE,
+        SHORT,
+        CHAR,
+        INT,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        STRING,
+        /**
+         * A nested object of the declared type, written with its own layout.
+         */
+        OBJECT,
+        /**
+         * Any other value, written with type tags.
+         */
+        DYNAMIC
+    }
+
+    private static final ClassValue<BinaryLayout> LAYOUTS = new ClassValue<BinaryLayout>() {
+        @Override
+        protected BinaryLayout computeValue(Class<?> type) {
+            return new BinaryLayout(ClassModel.of(type));
+        }
+    };
+
+    private final ClassModel model;
+    private final Kind[] kinds;
+    private final int bitmapSize;
+
+    private BinaryLayout(ClassModel model) {
+        this.model = model;
+
+        List<FieldModel> fields = model.fields();
+        this.kinds = new Kind[fields.size()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = kindOf(fields.get(i).type());
+        }
+        this.bitmapSize = (kinds.length + 7) / 8;
+    }
+
+    /**
+     * Gets the cached layout of a class, computing it on first use.
+     *
+     * @param type The class to get the layout for.
+     * @return The layout of the class.
+     */
+    static BinaryLayout of(Class<?> type) {
+        return LAYOUTS.get(type);
+    }
+
+    /**
+     * Helper method to pick the encoding of a declared type
+     */
+    private static Kind kindOf(Class<?> type) {
+        if (type == boolean.class || type == Boolean.class) {
+            return Kind.BOOLEAN;
+        } else if (type == byte.class || type == Byte.class) {
+            return Kind.BYTE;
+        } else if (type == short.class || type == Short.class) {
+            return Kind.SHORT;
+        } else if (type == char.class || type == Character.class) {
+            return Kind.CHAR;
+        } else if (type == int.class || type == Integer.class) {
+            return Kind.INT;
+        } else if (type == long.class || type == Long.class) {
+            return Kind.LONG;
+        } else if (type == float.class || type == Float.class) {
+            return Kind.FLOAT;
+        } else if (type == double.class || type == Double.class) {
+            return Kind.DOUBLE;
+        } else if (type == String.class) {
+            return Kind.STRING;
+        } else if (type == Object.class || type.isInterface() || type.isArray() || type.isEnum()
+                || Modifier.isAbstract(type.getModifiers()) || List.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type) || type == Lazy.class) {
+            return Kind.DYNAMIC;
+        }
+        return Kind.OBJECT;
+    }
+
+    /**
+     * @return The model of the class.
+     */
+    ClassModel model() {
+        return model;
+    }
+
+    /**
+     * @param ordinal The ordinal of the field.
+     * @return The encoding of the field.
+     */
+    Kind kind(int ordinal) {
+        return kinds[ordinal];
+    }
+
+    /**
+     * @return The number of bytes of each field bitmap.
+     */
+    int bitmapSize() {
+        return bitmapSize;
+    }
+}
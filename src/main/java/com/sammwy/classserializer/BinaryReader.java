@@ -0,0 +1,353 @@
+package com.sammwy.classserializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reads the binary format written by {@link BinaryWriter}.
+ * <p>
+ * Schema-driven objects are read with the raw reads, while tagged values are
+ * read through the {@link SerializationReader} methods.
+ */
+final class BinaryReader implements SerializationReader {
+    private final Deque<Boolean> scopes = new ArrayDeque<>();
+    private final ByteBuffer buffer;
+    private Token peeked;
+    private byte tag;
+    private String name;
+    private boolean nameRead;
+
+    /**
+     * Creates a reader over a buffer, starting at its current position.
+     *
+     * @param buffer The buffer to read from.
+     */
+    BinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public Token peek() {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        if (!scopes.isEmpty() && scopes.peek() && !nameRead) {
+            int length = (int) readVarint();
+            if (length == 0) {
+                peeked = Token.END_OBJECT;
+            } else {
+                name = readUtf8(length - 1);
+                peeked = Token.NAME;
+            }
+        } else if (scopes.isEmpty() && !buffer.hasRemaining()) {
+            peeked = Token.END_DOCUMENT;
+        } else {
+            tag = buffer.get();
+            switch (tag) {
+                case BinaryWriter.NULL:
+                    peeked = Token.NULL;
+                    break;
+                case BinaryWriter.OBJECT:
+                    peeked = Token.BEGIN_OBJECT;
+                    break;
+                case BinaryWriter.ARRAY:
+                    peeked = Token.BEGIN_ARRAY;
+                    break;
+                case BinaryWriter.END:
+                    peeked = Token.END_ARRAY;
+                    break;
+                default:
+                    peeked = Token.VALUE;
+                    break;
+            }
+        }
+        return peeked;
+    }
+
+    @Override
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    @Override
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        scopes.push(Boolean.TRUE);
+        peeked = null;
+        nameRead = false;
+    }
+
+    @Override
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        scopes.pop();
+        valueRead();
+    }
+
+    @Override
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        scopes.push(Boolean.FALSE);
+        peeked = null;
+    }
+
+    @Override
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        scopes.pop();
+        valueRead();
+    }
+
+    @Override
+    public String nextName() {
+        expect(Token.NAME);
+        peeked = null;
+        nameRead = true;
+        return name;
+    }
+
+    @Override
+    public void nextNull() {
+        expect(Token.NULL);
+        valueRead();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        expect(Token.VALUE);
+        if (tag == BinaryWriter.TRUE || tag == BinaryWriter.FALSE) {
+            valueRead();
+            return tag == BinaryWriter.TRUE;
+        }
+        return PrimitiveType.toBoolean(nextValue());
+    }
+
+    @Override
+    public int nextInt() {
+        expect(Token.VALUE);
+        if (tag == BinaryWriter.INT) {
+            valueRead();
+            return (int) readZigzag();
+        }
+        return PrimitiveType.toInt(nextValue());
+    }
+
+    @Override
+    public long nextLong() {
+        expect(Token.VALUE);
+        if (tag == BinaryWriter.INT || tag == BinaryWriter.LONG) {
+            valueRead();
+            return readZigzag();
+        }
+        return PrimitiveType.toLong(nextValue());
+    }
+
+    @Override
+    public double nextDouble() {
+        expect(Token.VALUE);
+        if (tag == BinaryWriter.DOUBLE) {
+            valueRead();
+            return Double.longBitsToDouble(readFixed(8));
+        }
+        return PrimitiveType.toDouble(nextValue());
+    }
+
+    @Override
+    public String nextString() {
+        expect(Token.VALUE);
+        if (tag == BinaryWriter.STRING) {
+            valueRead();
+            return readString();
+        }
+        return nextValue().toString();
+    }
+
+    @Override
+    public Object nextValue() {
+        expect(Token.VALUE);
+        valueRead();
+        switch (tag) {
+            case BinaryWriter.FALSE:
+                return Boolean.FALSE;
+            case BinaryWriter.TRUE:
+                return Boolean.TRUE;
+            case BinaryWriter.INT:
+                return (int) readZigzag();
+            case BinaryWriter.LONG:
+                return readZigzag();
+            case BinaryWriter.FLOAT:
+                return Float.intBitsToFloat((int) readFixed(4));
+            case BinaryWriter.DOUBLE:
+                return Double.longBitsToDouble(readFixed(8));
+            case BinaryWriter.STRING:
+                return readString();
+            case BinaryWriter.SHORT:
+                return (short) readZigzag();
+            case BinaryWriter.BYTE:
+                return buffer.get();
+            case BinaryWriter.CHAR:
+                return (char) readVarint();
+            default:
+                throw new SerializationException("Unknown binary tag: " + tag);
+        }
+    }
+
+    @Override
+    public void skipValue() {
+        if (peek() == Token.NAME) {
+            nextName();
+        } else if (!hasNext()) {
+            throw new SerializationException("Expected a value but got: " + peek());
+        }
+
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case NULL:
+                    nextNull();
+                    break;
+                case VALUE:
+                    if (tag == BinaryWriter.STRING) {
+                        valueRead();
+                        int length = (int) readVarint();
+                        buffer.position(buffer.position() + length);
+                    } else {
+                        nextValue();
+                    }
+                    break;
+                default:
+                    throw new SerializationException("Expected a value but got: " + peek());
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * @return The next byte.
+     */
+    byte readByte() {
+        return buffer.get();
+    }
+
+    /**
+     * @return The next unsigned variable-length integer.
+     */
+    long readVarint() {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * @return The next zigzag varint.
+     */
+    long readZigzag() {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @param bytes The number of bytes to read.
+     * @return The next fixed-width value, most significant byte first.
+     */
+    long readFixed(int bytes) {
+        long bits = 0;
+        for (int i = 0; i < bytes; i++) {
+            bits = (bits << 8) | (buffer.get() & 0xFF);
+        }
+        return bits;
+    }
+
+    /**
+     * @return The next length-prefixed UTF-8 string.
+     */
+    String readString() {
+        return readUtf8((int) readVarint());
+    }
+
+    /**
+     * Skips bytes that are read later with {@link #bit(int, int)}.
+     *
+     * @param bytes The number of bytes to skip.
+     * @return The position of the first skipped byte.
+     */
+    int skip(int bytes) {
+        int position = buffer.position();
+        buffer.position(position + bytes);
+        return position;
+    }
+
+    /**
+     * Checks a bit of a bitmap skipped with {@link #skip(int)}.
+     *
+     * @param start The position of the bitmap.
+     * @param index The index of the bit.
+     * @return Whether the bit is set.
+     */
+    boolean bit(int start, int index) {
+        return (buffer.get(start + (index >>> 3)) & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * Helper method to decode UTF-8 bytes without copying heap buffers
+     */
+    private String readUtf8(int length) {
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to mark the current value as consumed
+     */
+    private void valueRead() {
+        peeked = null;
+        nameRead = false;
+    }
+
+    /**
+     * Helper method to check the kind of the next token
+     */
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) {
+            throw new SerializationException("Expected " + expected + " but got: " + token);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.sammwy.classserializer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Writes the binary format of {@link BinaryCodec} to a byte buffer.
+ * <p>
+ * Besides the raw writes used for schema-driven objects, this is also the
+ * {@link SerializationWriter} for values without a fixed layout, which are
+ * written with a type tag in front of every value. Inside such objects, every
+ * entry starts with its name length plus one, and a zero length ends the
+ * object.
+ */
+final class BinaryWriter implements SerializationWriter {
+    static final byte NULL = 0;
+    static final byte FALSE = 1;
+    static final byte TRUE = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte FLOAT = 5;
+    static final byte DOUBLE = 6;
+    static final byte STRING = 7;
+    static final byte SHORT = 8;
+    static final byte BYTE = 9;
+    static final byte CHAR = 10;
+    static final byte OBJECT = 11;
+    static final byte ARRAY = 12;
+    static final byte END = 13;
+
+    private final Deque<Boolean> scopes = new ArrayDeque<>();
+    private final boolean growable;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a writer that grows its own buffer as needed.
+     *
+     * @param capacity The initial capacity.
+     */
+    BinaryWriter(int capacity) {
+        this.buffer = ByteBuffer.allocate(capacity);
+        this.growable = true;
+    }
+
+    /**
+     * Creates a writer over a buffer owned by the caller, which fails with a
+     * {@link java.nio.BufferOverflowException} once the buffer is full.
+     *
+     * @param buffer The buffer to write to, from its current position.
+     */
+    BinaryWriter(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.growable = false;
+    }
+
+    /**
+     * @return A copy of the bytes written so far.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @Override
+    public void beginObject() {
+        writeByte(OBJECT);
+        scopes.push(Boolean.TRUE);
+    }
+
+    @Override
+    public void beginArray() {
+        writeByte(ARRAY);
+        scopes.push(Boolean.FALSE);
+    }
+
+    @Override
+    public void end() {
+        if (scopes.pop()) {
+            writeVarint(0);
+        } else {
+            writeByte(END);
+        }
+    }
+
+    @Override
+    public void name(String name) {
+        writeVarint(utf8Length(name) + 1);
+        writeUtf8Bytes(name);
+    }
+
+    @Override
+    public void writeNull() {
+        writeByte(NULL);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        writeByte(value ? TRUE : FALSE);
+    }
+
+    @Override
+    public void writeInt(int value) {
+        writeByte(INT);
+        writeZigzag(value);
+    }
+
+    @Override
+    public void writeLong(long value) {
+        writeByte(LONG);
+        writeZigzag(value);
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        writeByte(FLOAT);
+        writeFixed(Float.floatToRawIntBits(value), 4);
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        writeByte(DOUBLE);
+        writeFixed(Double.doubleToRawLongBits(value), 8);
+    }
+
+    @Override
+    public void writeString(String value) {
+        writeByte(STRING);
+        writeString0(value);
+    }
+
+    @Override
+    public void writeValue(Object value) {
+        if (value instanceof Short) {
+            writeByte(SHORT);
+            writeZigzag((Short) value);
+        } else if (value instanceof Byte) {
+            writeByte(BYTE);
+            writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            writeByte(CHAR);
+            writeVarint((Character) value);
+        } else {
+            throw new SerializationException("Can't encode value of type: " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value The byte to write.
+     */
+    void writeByte(int value) {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes an unsigned variable-length integer, 7 bits per byte.
+     *
+     * @param value The value to write.
+     */
+    void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a signed integer as a zigzag varint, so small negative numbers stay
+     * short.
+     *
+     * @param value The value to write.
+     */
+    void writeZigzag(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes the low bytes of a value, most significant first.
+     *
+     * @param bits  The bits to write.
+     * @param bytes The number of bytes to write.
+     */
+    void writeFixed(long bits, int bytes) {
+        ensure(bytes);
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            buffer.put((byte) (bits >>> shift));
+        }
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param value The string to write.
+     */
+    void writeString0(String value) {
+        writeVarint(utf8Length(value));
+        writeUtf8Bytes(value);
+    }
+
+    /**
+     * Reserves zeroed bytes to be filled later with {@link #setBit(int, int)}.
+     *
+     * @param bytes The number of bytes to reserve.
+     * @return The position of the first reserved byte.
+     */
+    int reserve(int bytes) {
+        ensure(bytes);
+        int position = buffer.position();
+        for (int i = 0; i < bytes; i++) {
+            buffer.put((byte) 0);
+        }
+        return position;
+    }
+
+    /**
+     * Sets a bit of a bitmap written with {@link #reserve(int)}.
+     *
+     * @param start The position of the bitmap.
+     * @param index The index of the bit.
+     */
+    void setBit(int start, int index) {
+        int position = start + (index >>> 3);
+        buffer.put(position, (byte) (buffer.get(position) | (1 << (index & 7))));
+    }
+
+    /**
+     * Helper method to encode the chars of a string as UTF-8
+     */
+    private void writeUtf8Bytes(String value) {
+        ensure(utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Helper method to count the UTF-8 bytes of a string
+     */
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Helper method to grow the buffer, if it's owned by this writer
+     */
+    private void ensure(int bytes) {
+        if (!growable || buffer.remaining() >= bytes) {
+            return;
+        }
+
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
@@ -0,0 +1,74 @@
+package com.sammwy.classserializer;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable reflection metadata of a class, resolved once per class and cached.
+ * <p>
+ * Holds every declared field of the class and its superclasses, already made
+ * accessible and with its generic type information resolved, so serialization
+ * doesn't have to walk the hierarchy on every call.
+ */
+final class ClassModel {
+    private static final ClassValue<ClassModel> MODELS = new ClassValue<ClassModel>() {
+        @Override
+        protected ClassModel computeValue(Class<?> type) {
+            return new ClassModel(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final List<FieldModel> fields;
+    private final ObjectCodec codec;
+
+    private ClassModel(Class<?> type) {
+        this.type = type;
+
+        List<FieldModel> fields = new ArrayList<>();
+        Class<?> currentClass = type;
+
+        while (currentClass != null && currentClass != Object.class) {
+            for (Field field : currentClass.getDeclaredFields()) {
+                fields.add(new FieldModel(field, type, fields.size()));
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+
+        this.fields = Collections.unmodifiableList(fields);
+        this.codec = new ModelCodec(this);
+    }
+
+    /**
+     * Gets the cached model of a class, building it on first use.
+     *
+     * @param type The class to get the model for.
+     * @return The model of the class.
+     */
+    static ClassModel of(Class<?> type) {
+        return MODELS.get(type);
+    }
+
+    /**
+     * @return The class described by this model.
+     */
+    Class<?> type() {
+        return type;
+    }
+
+    /**
+     * @return All fields of the class and its superclasses, in declaration order.
+     */
+    List<FieldModel> fields() {
+        return fields;
+    }
+
+    /**
+     * @return The shared reflective codec of the class.
+     */
+    ObjectCodec codec() {
+        return codec;
+    }
+}
@@ -1,51 +1,110 @@
 package com.sammwy.classserializer;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.sammwy.classserializer.SerializationReader.Token;
+
 /**
  * A flexible class serializer that converts Java objects to maps and vice
  * versa.
  * Supports custom serializers, field filtering, and flat/deflate serialization
  * modes.
+ * <p>
+ * A serializer created with {@link #builder()} is frozen: its configuration
+ * can't change, so a single instance can be shared by all threads. Serializers
+ * and instantiators can still be added at any time, since registrations are
+ * kept in immutable snapshots that are replaced as a whole.
  */
 public class ClassSerializer {
     /**
-     * A predicate function that determines if a field should be serialized and
-     * provides its serialization name.
-     * If the function returns null, the field will not be serialized.
+     * Marks a field without any entry in a flat map, which keeps its default.
+     */
+    static final Object ABSENT = new Object();
+
+    /**
+     * The value of a delta entry whose field became null or whose map entry was
+     * removed.
+     *
+     * @see #diff(Object, Object)
      */
-    private BiFunction<Field, Object, String> fieldPredicate = (field, obj) -> field.getName();
+    public static final String DELTA_REMOVED = "\u0000removed";
 
     /**
-     * A map of custom serializers for specific types.
+     * The key of a list delta that holds the new size of the list.
+     *
+     * @see #diff(Object, Object)
      */
-    private final Map<Class<?>, Serializer<?>> serializers = new HashMap<>();
+    public static final String DELTA_SIZE = "size";
 
     /**
-     * A predicate that determines if a class can be serialized recursively.
+     * The field filter of new serializers, which serializes every field under
+     * its own name.
+     */
+    /**
+     * The serialized names of fields, given once per field by the field filter
+     * or for every object by the field predicate. Replaced whenever either of
+     * them changes, together with the names resolved so far. The default names
+     * are shared by all serializers.
      */
-    private Predicate<Class<?>> classPredicate = cls -> true;
+    private volatile FieldNames fieldNames = FieldNames.DEFAULT;
+
+    /**
+     * The custom serializers, custom instantiators and class predicate, with the
+     * handlers resolved from them. Replaced on every registration.
+     */
+    private volatile Registrations registrations;
 
     /**
      * The separator used for keys in deflate mode.
      */
-    private String deflateSeparator = null;
+    private volatile String deflateSeparator = null;
+
+    /**
+     * The root of the flattened keys in deflate mode, or null if it's disabled.
+     * Replaced whenever the separator or the field names change, so the keys
+     * built under it belong to this serializer only.
+     */
+    private volatile DeflatePath deflateRoot = null;
+
+    /**
+     * The keys shared by the maps of each class, replaced together with the
+     * root of the flattened keys. Kept by the field names, so serializers with
+     * the same names and separator share them.
+     */
+    private volatile KeySchemas keySchemas = FieldNames.DEFAULT.keySchemas(null);
 
     /**
      * Skip null values when serializing or deserializing
      */
-    private SkipNull skipNullValues = SkipNull.BOTH;
+    private volatile SkipNull skipNullValues = SkipNull.BOTH;
+
+    /**
+     * The engine used to serialize and deserialize object fields.
+     */
+    private volatile Engine engine = Engine.REFLECTIVE;
+
+    /**
+     * The pool that runs batch operations, or null for the common pool.
+     */
+    private volatile ForkJoinPool pool = null;
+
+    /**
+     * Whether the configuration can no longer change.
+     */
+    private volatile boolean frozen = false;
 
     public enum SkipNull {
         BOTH,
@@ -62,39 +121,140 @@ public class ClassSerializer {
         }
     }
 
+    public enum Engine {
+        /**
+         * Walks the cached fields of every class with one shared codec.
+         */
+        REFLECTIVE,
+
+        /**
+         * Runs every serialized type through its own codec class, defined at
+         * runtime with one step per field that reads and writes the fields
+         * directly.
+         */
+        GENERATED
+    }
+
     /**
      * Initializes a new ClassSerializer instance.
      */
     public ClassSerializer() {
+        // Serializers generated at compile time, discovered through
+        // SerializerRegistry services
+        Map<Class<?>, Serializer<?>> generatedSerializers = new HashMap<>();
+        for (SerializerRegistry registry : GeneratedRegistries.REGISTRIES) {
+            generatedSerializers.putAll(registry.create(this));
+        }
+        this.registrations = new Registrations(Collections.unmodifiableMap(generatedSerializers));
     }
 
     /**
-     * Sets the field predicate function.
+     * Creates a builder for a frozen serializer that can be shared by all
+     * threads.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Lazily discovered registries of generated serializers.
+     */
+    private static final class GeneratedRegistries {
+        private static final List<SerializerRegistry> REGISTRIES = load();
+
+        private static List<SerializerRegistry> load() {
+            List<SerializerRegistry> registries = new ArrayList<>();
+            try {
+                for (SerializerRegistry registry : ServiceLoader.load(SerializerRegistry.class)) {
+                    registries.add(registry);
+                }
+            } catch (ServiceConfigurationError e) {
+                // A broken registry falls back to reflection for its classes
+            }
+            return registries;
+        }
+    }
+
+    /**
+     * Sets the field filter function, which replaces any field predicate.
+     * <p>
+     * The filter is called once per field and its outcome is cached, so it
+     * should only depend on the field it receives, such as its annotations.
+     * Fields annotated with {@link Ignore} are always skipped and fields
+     * annotated with {@link SerialName} always use that name.
+     *
+     * @param filter A function that takes a Field and returns the name to use
+     *               for serialization, or null if the field should not be
+     *               serialized. Null restores the default filter, which
+     *               serializes every field under its own name.
+     * @return This serializer instance for chaining.
+     */
+    public ClassSerializer fieldFilter(Function<Field, String> filter) {
+        checkNotFrozen();
+        this.fieldNames = filter != null ? new FieldNames(filter, null) : FieldNames.DEFAULT;
+        resetKeys();
+        return this;
+    }
+
+    /**
+     * Sets the field predicate function, which replaces the field filter.
+     * <p>
+     * Unlike {@link #fieldFilter(Function)}, the predicate is called for every
+     * field of every object in both directions, so it can depend on the
+     * object. Only use it when the outcome really changes between objects.
+     * {@link Ignore} and {@link SerialName} still apply.
      *
      * @param predicate A function that takes a Field and returns the name to
      *                  use for serialization,
      *                  or null if the field should not be serialized.
+     *                  The object is null for fields passed to a record or
+     *                  all-args constructor, since they are read before the
+     *                  instance exists. Null switches back to the field
+     *                  filter.
      * @return This serializer instance for chaining.
      */
     public ClassSerializer fieldPredicate(BiFunction<Field, Object, String> predicate) {
-        this.fieldPredicate = predicate;
+        checkNotFrozen();
+        FieldNames current = fieldNames;
+        this.fieldNames = predicate == null && current.filter() == FieldNames.DEFAULT.filter() ? FieldNames.DEFAULT
+                : new FieldNames(current.filter(), predicate);
+        resetKeys();
         return this;
     }
 
     /**
      * Adds a predicate that determines if a class can be serialized recursively.
-     * 
+     * <p>
+     * The outcome is cached per class, so the predicate should only depend on
+     * the class it receives.
+     *
      * @param predicate A predicate that takes a Class and returns true if the
      *                  class should be serialized recursively, false otherwise.
      * @return This serializer instance for chaining.
      */
     public ClassSerializer addClassPredicate(Predicate<Class<?>> predicate) {
-        this.classPredicate = predicate;
+        checkNotFrozen();
+        synchronized (this) {
+            registrations = registrations.withClassPredicate(predicate);
+        }
         return this;
     }
 
     /**
      * Adds a custom serializer for a specific type.
+     * <p>
+     * A serializer registered for a superclass or interface also handles its
+     * subtypes, unless one is registered for a closer type. Primitive, wrapper
+     * and string types only use serializers registered for their exact class,
+     * and a serializer registered for a primitive type or its wrapper handles
+     * both of them.
+     * <p>
+     * This is allowed on frozen serializers too. Calls running on other threads
+     * at the same time may or may not see the new serializer yet. Every class
+     * that was already used resolves its handling again the next time it's
+     * used, so serializers are best registered before serializing.
      *
      * @param clazz      The class to register the serializer for.
      * @param serializer The serializer implementation.
@@ -102,7 +262,27 @@ public class ClassSerializer {
      * @return This serializer instance for chaining.
      */
     public <T> ClassSerializer addSerializer(Class<T> clazz, Serializer<T> serializer) {
-        serializers.put(clazz, serializer);
+        synchronized (this) {
+            registrations = registrations.withSerializer(clazz, serializer);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a custom instantiator for a specific type, used instead of its
+     * constructors when deserializing. This is allowed on frozen serializers
+     * too.
+     *
+     * @param clazz        The class to register the instantiator for.
+     * @param instantiator The instantiator implementation.
+     * @param <T>          The type of objects the instantiator creates.
+     * @return This serializer instance for chaining.
+     */
+    public <T> ClassSerializer addInstantiator(Class<T> clazz, Instantiator<T> instantiator) {
+        InstanceFactory factory = InstanceFactory.of(clazz, instantiator);
+        synchronized (this) {
+            registrations = registrations.withInstantiator(clazz, factory);
+        }
         return this;
     }
 
@@ -113,10 +293,22 @@ public class ClassSerializer {
      * @return This serializer instance for chaining.
      */
     public ClassSerializer withDeflate(String separator) {
+        checkNotFrozen();
         this.deflateSeparator = separator;
+        resetKeys();
         return this;
     }
 
+    /**
+     * Helper method to drop the keys built for the previous field names or
+     * separator
+     */
+    private void resetKeys() {
+        String separator = deflateSeparator;
+        this.deflateRoot = separator != null ? DeflatePath.root(separator) : null;
+        this.keySchemas = fieldNames.keySchemas(separator);
+    }
+
     /**
      * Sets the skip null values mode.
      * 
@@ -124,75 +316,187 @@ public class ClassSerializer {
      * @return This serializer instance for chaining.
      */
     public ClassSerializer withSkipNull(SkipNull mode) {
+        checkNotFrozen();
         this.skipNullValues = mode;
         return this;
     }
 
+    /**
+     * Sets the pool that runs {@link #serializeAll(List)} and
+     * {@link #deserializeAll(Class, List)}.
+     *
+     * @param pool The pool to use, or null to use the common pool.
+     * @return This serializer instance for chaining.
+     */
+    public ClassSerializer withPool(ForkJoinPool pool) {
+        checkNotFrozen();
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Gets the skip null values mode.
+     *
+     * @return The current mode.
+     */
+    public SkipNull getSkipNull() {
+        return skipNullValues;
+    }
+
+    /**
+     * Checks if the configuration of this serializer can no longer change.
+     *
+     * @return True if the serializer was created by a {@link Builder}.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Sets the engine used to serialize and deserialize object fields.
+     * Both engines produce the same output.
+     *
+     * @param engine The engine to use.
+     * @return This serializer instance for chaining.
+     */
+    public ClassSerializer withEngine(Engine engine) {
+        checkNotFrozen();
+        this.engine = engine;
+        return this;
+    }
+
     /**
      * Serializes an object to a map.
      *
      * @param object The object to serialize.
      * @return A map representation of the object.
      */
+    @SuppressWarnings("unchecked")
     public Map<String, Object> serialize(Object object) {
         if (object == null) {
             return null;
         }
 
-        Map<String, Object> result = new HashMap<>();
-        Class<?> clazz = object.getClass();
+        MapWriter writer = new MapWriter();
+        serialize(object, writer);
+        return (Map<String, Object>) writer.result();
+    }
 
-        // Check if there's a custom serializer for this class
-        Serializer<?> customSerializer = serializers.get(clazz);
-        if (customSerializer != null) {
-            Object serialized = serializeWithCustomSerializer(object, customSerializer);
-            if (serialized instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> map = (Map<String, Object>) serialized;
-                result.putAll(map);
-            } else {
-                result.put("value", serialized);
-            }
-        } else if (isPrimitiveOrWrapper(clazz) || isCollection(clazz) || Map.class.isAssignableFrom(clazz)) {
-            // This is more for consistency, but normally you'd return the primitive
-            // directly
-            result.put("value", serializePrimitiveOrCollection(object));
-        } else if (classPredicate.test(clazz)) {
-            // Serialize recursively - process all fields
-            for (Field field : getAllFields(clazz)) {
-                String name = fieldPredicate.apply(field, object);
-                if (name == null) {
-                    continue;
-                }
+    /**
+     * Serializes an object into a map owned by the caller, instead of a new one.
+     * <p>
+     * The map is refilled with the entries of the object: entries that are
+     * written again are replaced, and the others are removed. The maps and
+     * lists nested in it are reused the same way, so serializing objects of the
+     * same shape over and over doesn't allocate new maps. Only nested maps and
+     * lists built by a serializer are reused, and any other ones are replaced.
+     *
+     * @param object The object to serialize.
+     * @param target The map to fill.
+     * @return The filled map.
+     */
+    public Map<String, Object> serializeInto(Object object, Map<String, Object> target) {
+        if (object == null) {
+            target.clear();
+            return target;
+        }
 
-                field.setAccessible(true);
-                try {
-                    Object value = field.get(object);
+        MapWriter writer = MapWriter.refilling(target);
+        try {
+            serialize(object, writer);
+        } finally {
+            writer.release();
+        }
+        return target;
+    }
 
-                    if (skipNullValues.mustSkipSerialize() && value == null) {
-                        continue;
-                    }
+    /**
+     * Serializes an object as a stream of events, without building a map.
+     * <p>
+     * The events describe the same structure that {@link #serialize(Object)}
+     * returns, including the flattened keys of deflate mode.
+     *
+     * @param object The object to serialize.
+     * @param writer The writer to emit the events to.
+     */
+    public void serialize(Object object, SerializationWriter writer) {
+        if (object == null) {
+            writer.writeNull();
+            return;
+        }
 
-                    result.put(name, serializeValue(value));
-                } catch (IllegalAccessException e) {
-                    throw new SerializationException("Error accessing field: " + field.getName(), e);
+        Class<?> clazz = object.getClass();
+        ValueHandler handler = handlerOf(clazz);
+
+        switch (handler.kind()) {
+            case SERIALIZER:
+                Object serialized = serializeWithCustomSerializer(object, handler.serializer());
+                writer.beginObject();
+                if (serialized instanceof Map) {
+                    writeEntries(writer, (Map<?, ?>) serialized);
+                } else {
+                    writer.name("value");
+                    writeSerialized(writer, serialized);
                 }
-            }
-        } else {
+                writer.end();
+                return;
+            case LAZY:
+                serialize(((Lazy<?>) object).get(), writer);
+                return;
+            case SCALAR:
+            case LIST:
+            case MAP:
+                // This is more for consistency, but normally you'd return the primitive
+                // directly
+                writer.beginObject();
+                writeField(writer, deflateRoot, "value", object);
+                writer.end();
+                return;
+            case COLLECTION:
+                writer.beginObject();
+                writer.name(deflateRoot != null ? deflateRoot.keyOf("value") : "value");
+                writeCollection(writer, (Collection<?>) object);
+                writer.end();
+                return;
+            default:
+                break;
+        }
+
+        if (!handler.allowed()) {
             throw new SerializationException("Can't serialize class: " + clazz.getName() +
                     ". No serializer registered and class doesn't satisfy classPredicate.");
+        } else if (handler.kind() == ValueHandler.Kind.GENERATED) {
+            // Generated at compile time, no reflection needed
+            beginObject(writer, clazz);
+            writeEntries(writer, (Map<?, ?>) serializeWithCustomSerializer(object, handler.serializer()));
+            writer.end();
+        } else {
+            // Serialize recursively - process all fields
+            beginObject(writer, clazz);
+            codecFor(clazz).writeFields(this, object, writer, deflateRoot);
+            writer.end();
         }
+    }
 
-        // Apply deflation if configured
-        if (deflateSeparator != null) {
-            return MapDeflate.deflate(result, deflateSeparator);
+    /**
+     * Helper method to begin the object of a class, letting map writers share
+     * the keys of the class between its maps
+     */
+    private void beginObject(SerializationWriter writer, Class<?> clazz) {
+        if (writer instanceof MapWriter) {
+            ((MapWriter) writer).beginObject(clazz, keySchemas);
+        } else {
+            writer.beginObject();
         }
-
-        return result;
     }
 
     /**
      * Deserializes a map back to an object of the specified class.
+     * <p>
+     * In deflate mode, the fields of the object and of its nested objects are
+     * looked up by their flattened keys, so the map is never inflated into a
+     * tree of nested maps. Only fields of map types and fields with custom
+     * serializers get the entries under their key inflated.
      *
      * @param <T>   The type of the object to deserialize.
      * @param clazz The target class.
@@ -205,185 +509,759 @@ public class ClassSerializer {
             return null;
         }
 
-        // Apply inflation if configured
-        Map<String, Object> workingMap = map;
-        if (deflateSeparator != null) {
-            workingMap = MapDeflate.inflate(map, deflateSeparator);
+        DeflatePath root = deflateRoot;
+        if (root != null) {
+            ValueHandler handler = handlerOf(clazz);
+            if (handler.kind() == ValueHandler.Kind.OBJECT) {
+                // Look every field up by its flattened key instead of inflating
+                return (T) codecFor(clazz).readFlat(this, new FlatEntries(map), root, null);
+            }
+            return deserializeObject(clazz, MapDeflate.inflate(map, root.separator()));
         }
 
-        // Check if there's a custom serializer for this class
-        Serializer<T> customSerializer = (Serializer<T>) serializers.get(clazz);
-        if (customSerializer != null) {
-            if (workingMap.size() == 1 && workingMap.containsKey("value")) {
-                return customSerializer.deserialize(workingMap.get("value"));
-            }
-            return customSerializer.deserialize(workingMap);
+        return deserializeObject(clazz, map);
+    }
+
+    /**
+     * Deserializes a map into an existing object, instead of creating a new one.
+     * <p>
+     * The objects nested in the fields of the object are updated in place as
+     * well, and fields without an entry in the map keep their value, so
+     * updating the same objects over and over doesn't allocate new ones.
+     *
+     * @param <T>      The type of the object.
+     * @param existing The object to update.
+     * @param map      The map containing serialized data.
+     * @return The updated object.
+     * @throws SerializationException If the object isn't read field by field,
+     *                                such as records and objects with a custom
+     *                                serializer.
+     */
+    public <T> T deserializeInto(T existing, Map<String, Object> map) {
+        if (existing == null) {
+            throw new IllegalArgumentException("The object to deserialize into can't be null");
+        } else if (!canUpdate(existing)) {
+            throw new SerializationException(
+                    "Can't deserialize into an existing instance of class: " + existing.getClass().getName());
+        } else if (map == null) {
+            return existing;
         }
 
-        if (isPrimitiveOrWrapper(clazz)) {
-            Object value = workingMap.get("value");
-            if (value == null) {
-                return (T) ClassUtils.getDefaultValue(clazz);
-            }
-            return convertToPrimitiveType(value, clazz);
+        ObjectCodec codec = codecFor(existing.getClass());
+        DeflatePath root = deflateRoot;
+        if (root != null) {
+            codec.readFlat(this, new FlatEntries(map), root, existing);
+        } else {
+            codec.readInto(this, new MapReader(map), existing);
         }
+        return existing;
+    }
 
-        if (Map.class.isAssignableFrom(clazz)) {
-            return (T) workingMap;
+    /**
+     * Creates a projection that deserializes only some fields of a class,
+     * skipping every other entry of the maps it reads.
+     *
+     * @param <T>   The type of the projected objects.
+     * @param clazz The class to project.
+     * @param paths The dotted paths of the serialized names of the fields to
+     *              read, such as {@code "settings.preferences.theme"}.
+     * @return The projection, which should be reused.
+     * @throws IllegalArgumentException If a path doesn't match a field, or goes
+     *                                  through a field that isn't an object
+     *                                  serialized field by field.
+     * @throws IllegalStateException    If field names come from a field
+     *                                  predicate, since they depend on each
+     *                                  object.
+     */
+    public <T> Projection<T> projection(Class<T> clazz, String... paths) {
+        return projection(clazz, Arrays.asList(paths));
+    }
+
+    /**
+     * Creates a projection that deserializes only some fields of a class,
+     * skipping every other entry of the maps it reads.
+     *
+     * @param <T>   The type of the projected objects.
+     * @param clazz The class to project.
+     * @param paths The dotted paths of the serialized names of the fields to
+     *              read.
+     * @return The projection, which should be reused.
+     * @throws IllegalArgumentException If a path doesn't match a field, or goes
+     *                                  through a field that isn't an object
+     *                                  serialized field by field.
+     * @throws IllegalStateException    If field names come from a field
+     *                                  predicate, since they depend on each
+     *                                  object.
+     * @see #projection(Class, String...)
+     */
+    public <T> Projection<T> projection(Class<T> clazz, Collection<String> paths) {
+        return new Projection<>(this, clazz, paths);
+    }
+
+    /**
+     * Computes the changes from a baseline to the current state of an object,
+     * so only the changed fields need to be sent or stored.
+     * <p>
+     * Fields are compared one by one. Embedded objects of the same class, lists
+     * and maps are compared recursively and get a nested delta with only their
+     * changes. A list delta has the changed items under their index, plus the
+     * new size under {@link #DELTA_SIZE} if it changed. Values that became null,
+     * and map entries that were removed, get {@link #DELTA_REMOVED}, so they are
+     * kept whatever the null handling mode. Other changed values are serialized
+     * as usual. In deflate mode the delta is flattened.
+     *
+     * @param baseline The object as it was.
+     * @param current  The object as it is, of the same class.
+     * @return The changed fields, empty if nothing changed.
+     * @see #applyDelta(Object, Map)
+     */
+    public Map<String, Object> diff(Object baseline, Object current) {
+        if (baseline == null || current == null) {
+            throw new IllegalArgumentException("Can't diff null objects");
+        } else if (baseline.getClass() != current.getClass()) {
+            throw new IllegalArgumentException("Can't diff objects of different classes: "
+                    + baseline.getClass().getName() + " and " + current.getClass().getName());
+        } else if (!canUpdate(current)) {
+            throw new SerializationException("Can't diff objects of class: " + current.getClass().getName());
         }
 
-        if (List.class.isAssignableFrom(clazz)) {
+        Map<String, Object> delta = Delta.diff(this, baseline, current);
+        return deflateSeparator != null ? MapDeflate.deflate(delta, deflateSeparator) : delta;
+    }
+
+    /**
+     * Applies the changes computed by {@link #diff(Object, Object)} to an object
+     * in the state of the baseline, updating it in place. Embedded objects, lists
+     * and maps with a nested delta are updated in place as well.
+     *
+     * @param <T>    The type of the object.
+     * @param target The object to update.
+     * @param delta  The changes to apply.
+     * @return The updated object.
+     */
+    public <T> T applyDelta(T target, Map<String, Object> delta) {
+        if (target == null) {
+            throw new IllegalArgumentException("The object to apply a delta to can't be null");
+        } else if (!canUpdate(target)) {
             throw new SerializationException(
-                    "Cannot deserialize directly to List without type information. Use a custom serializer.");
+                    "Can't apply a delta to an instance of class: " + target.getClass().getName());
         }
 
-        // Create a new instance of the class
-        T instance;
-        try {
-            instance = ClassUtils.createInstance(clazz);
-        } catch (NoSuchMethodException | IllegalAccessException | InstantiationException
-                | InvocationTargetException e) {
-            throw new SerializationException("Error creating instance of class: " + clazz.getName(), e);
+        Delta.apply(this, target, deflateSeparator != null ? MapDeflate.inflate(delta, deflateSeparator) : delta);
+        return target;
+    }
+
+    /**
+     * Deserializes an object by pulling its tokens from a reader, without
+     * building a map for it first.
+     * <p>
+     * Objects handled by custom or generated serializers, and the root object in
+     * deflate mode, are still read into a map before they are converted.
+     *
+     * @param <T>    The type of the object to deserialize.
+     * @param clazz  The target class.
+     * @param reader The reader positioned at the object.
+     * @return An instance of the specified class with data from the reader.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T deserialize(Class<T> clazz, SerializationReader reader) {
+        Token token = reader.peek();
+        if (token == Token.NULL) {
+            reader.nextNull();
+            return null;
         }
 
-        // Fill in all fields
-        for (Field field : getAllFields(clazz)) {
-            String name = fieldPredicate.apply(field, instance);
-            if (name == null) {
-                continue;
+        if (deflateSeparator != null || token != Token.BEGIN_OBJECT || !isStreamable(clazz)) {
+            Object tree = readTree(reader);
+            if (!(tree instanceof Map)) {
+                throw new SerializationException("Expected an object but got: " + tree.getClass().getName());
             }
+            return deserialize(clazz, (Map<String, Object>) tree);
+        }
+
+        return (T) codecFor(clazz).read(this, reader);
+    }
+
+    /**
+     * Serializes a batch of objects in parallel on the configured pool.
+     * <p>
+     * The batch is split into chunks sized from the parallelism of the pool,
+     * and small batches are serialized on the calling thread.
+     *
+     * @param objects The objects to serialize.
+     * @return The map representations of the objects, in the same order.
+     * @throws BatchSerializationException If an object fails to serialize, with
+     *                                     the index of the failing object.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> serializeAll(List<?> objects) {
+        Object[] items = objects.toArray();
+        Object[] results = ParallelBatch.run(batchPool(), items.length, i -> serialize(items[i]), "serialize");
+
+        List<Map<String, Object>> serialized = new ArrayList<>(results.length);
+        for (Object result : results) {
+            serialized.add((Map<String, Object>) result);
+        }
+        return serialized;
+    }
 
-            field.setAccessible(true);
+    /**
+     * Deserializes a batch of maps in parallel on the configured pool.
+     *
+     * @param <T>   The type of the objects to deserialize.
+     * @param clazz The target class.
+     * @param maps  The maps containing serialized data.
+     * @return The deserialized objects, in the same order.
+     * @throws BatchSerializationException If a map fails to deserialize, with
+     *                                     the index of the failing map.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> deserializeAll(Class<T> clazz, List<Map<String, Object>> maps) {
+        Object[] items = maps.toArray();
+        Object[] results = ParallelBatch.run(batchPool(), items.length,
+                i -> deserialize(clazz, (Map<String, Object>) items[i]), "deserialize");
+
+        List<T> deserialized = new ArrayList<>(results.length);
+        for (Object result : results) {
+            deserialized.add((T) result);
+        }
+        return deserialized;
+    }
 
-            if (workingMap.containsKey(name)) {
-                Object value = workingMap.get(name);
-                try {
-                    field.set(instance, deserializeValue(value, field));
-                } catch (IllegalAccessException e) {
-                    throw new SerializationException("Error setting field: " + name, e);
+    /**
+     * Gets the pool that runs batch operations
+     */
+    private ForkJoinPool batchPool() {
+        ForkJoinPool configured = pool;
+        return configured != null ? configured : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Deserializes an inflated map to an object of the specified class
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T deserializeObject(Class<T> clazz, Map<String, Object> workingMap) {
+        ValueHandler handler = handlerOf(clazz);
+
+        switch (handler.kind()) {
+            case SERIALIZER:
+                Serializer<T> customSerializer = (Serializer<T>) handler.serializer();
+                if (workingMap.size() == 1 && workingMap.containsKey("value")) {
+                    return customSerializer.deserialize(workingMap.get("value"));
                 }
-            }
+                return customSerializer.deserialize(workingMap);
+            case SCALAR:
+                Object value = workingMap.get("value");
+                if (value == null) {
+                    return (T) ClassUtils.getDefaultValue(clazz);
+                }
+                return convertToPrimitiveType(value, clazz);
+            case MAP:
+                return (T) workingMap;
+            case LIST:
+                throw new SerializationException(
+                        "Cannot deserialize directly to List without type information. Use a custom serializer.");
+            case GENERATED:
+                return (T) handler.serializer().deserialize(workingMap);
+            default:
+                // Create the instance and fill in all fields
+                return (T) codecFor(clazz).read(this, new MapReader(workingMap));
         }
+    }
+
+    /**
+     * Checks if objects of a class are read field by field, rather than by a
+     * serializer or as a plain value
+     */
+    boolean isStreamable(Class<?> clazz) {
+        return handlerOf(clazz).kind() == ValueHandler.Kind.OBJECT;
+    }
 
-        return instance;
+    /**
+     * Gets the codec of a class for the configured engine
+     */
+    private ObjectCodec codecFor(Class<?> clazz) {
+        if (engine == Engine.GENERATED) {
+            return CodecGenerator.codecOf(clazz);
+        }
+        return ClassModel.of(clazz).codec();
     }
 
     /**
-     * Serializes a single value based on its type
+     * Gets the instance factory of a class, preferring custom instantiators
      */
-    private Object serializeValue(Object value) {
+    InstanceFactory instanceFactory(Class<?> clazz) {
+        InstanceFactory factory = registrations.instantiator(clazz);
+        return factory != null ? factory : InstanceFactory.of(clazz);
+    }
+
+    /**
+     * Gets the serialized name of a field, or null if it must be skipped
+     */
+    String fieldName(FieldModel field, Object object) {
+        return fieldNames.name(field, object);
+    }
+
+    /**
+     * Gets the serialized names of the fields of a class indexed like its
+     * model, or null if they come from a field predicate and depend on the
+     * object
+     */
+    String[] fieldNames(Class<?> clazz) {
+        return fieldNames.table(clazz);
+    }
+
+    /**
+     * Gets the indices of the fields of a class by their serialized name, or
+     * null if names come from a field predicate and depend on the object
+     */
+    Map<String, int[]> fieldIndex(Class<?> clazz) {
+        return fieldNames.index(clazz);
+    }
+
+    /**
+     * Checks if a class has a custom or generated serializer
+     */
+    boolean hasSerializer(Class<?> clazz) {
+        return handlerOf(clazz).hasSerializer();
+    }
+
+    /**
+     * Checks if a class satisfies the class predicate
+     */
+    boolean canSerialize(Class<?> clazz) {
+        return handlerOf(clazz).allowed();
+    }
+
+    /**
+     * Gets the resolved handler of a class
+     */
+    ValueHandler handlerOf(Class<?> clazz) {
+        return registrations.handlerOf(clazz);
+    }
+
+    /**
+     * Checks if primitive fields can be converted directly, without boxing
+     */
+    boolean hasPrimitiveFastPath() {
+        return registrations.primitiveFastPath();
+    }
+
+    /**
+     * Gets the configured null handling mode
+     */
+    SkipNull skipNull() {
+        return skipNullValues;
+    }
+
+    /**
+     * Gets the separator of deflate mode, or null if it's disabled
+     */
+    String deflateSeparator() {
+        return deflateSeparator;
+    }
+
+    /**
+     * Gets the root of the flattened keys of deflate mode, or null if it's
+     * disabled
+     */
+    DeflatePath deflateRoot() {
+        return deflateRoot;
+    }
+
+    /**
+     * Serializes a single value based on its type.
+     * Used by generated serializers to delegate nested values.
+     *
+     * @param value The value to serialize.
+     * @return The serialized representation of the value.
+     */
+    public Object serializeValue(Object value) {
         if (value == null) {
             return null;
         }
+        if (handlerOf(value.getClass()).kind() == ValueHandler.Kind.SCALAR) {
+            // Scalars are written as they are
+            return value;
+        }
 
-        Class<?> valueClass = value.getClass();
+        MapWriter writer = new MapWriter();
+        writeValue(writer, value);
+        return writer.result();
+    }
 
-        // Check if there's a custom serializer
-        Serializer<?> customSerializer = serializers.get(valueClass);
-        if (customSerializer != null) {
-            return serializeWithCustomSerializer(value, customSerializer);
+    /**
+     * Writes the name of a field, prefixed with the path of its parent in deflate
+     * mode
+     */
+    void writeName(SerializationWriter writer, DeflatePath parent, FieldModel field, String name) {
+        if (parent != null) {
+            writer.name(parent.child(field, name).key());
+        } else {
+            writeName(writer, field, name);
         }
+    }
 
-        // Handle primitives and collections
-        if (isPrimitiveOrWrapper(valueClass)) {
-            return value;
-        } else if (value instanceof List) {
-            return serializeList((List<?>) value);
-        } else if (value instanceof Map) {
-            return serializeMap((Map<?, ?>) value);
-        } else if (classPredicate.test(valueClass)) {
-            // Recursively serialize nested objects
-            return serialize(value);
+    /**
+     * Helper method to write the name of a field, which JSON writers copy from
+     * the names of the class encoded ahead of time
+     */
+    private void writeName(SerializationWriter writer, FieldModel field, String name) {
+        if (writer instanceof JsonWriter) {
+            ((JsonWriter) writer).rawName(JsonLayout.of(field.owner()).encodedName(field.index(), name));
         } else {
-            throw new SerializationException("Can't serialize value of type: " + valueClass.getName());
+            writer.name(name);
         }
     }
 
     /**
-     * Serializes a list
+     * Writes a field value, flattening nested objects in deflate mode under the
+     * cached path of the field
      */
-    private List<Object> serializeList(List<?> list) {
-        List<Object> result = new ArrayList<>();
-        for (Object item : list) {
-            result.add(serializeValue(item));
+    void writeField(SerializationWriter writer, DeflatePath parent, FieldModel field, String name, Object value) {
+        if (parent == null) {
+            writeName(writer, field, name);
+            writeValue(writer, value);
+        } else if (value == null) {
+            writer.name(parent.child(field, name).key());
+            writer.writeNull();
+        } else {
+            writeDeflated(writer, parent.child(field, name), value);
+        }
+    }
+
+    /**
+     * Writes a named value, flattening nested objects in deflate mode
+     */
+    void writeField(SerializationWriter writer, DeflatePath parent, String name, Object value) {
+        if (parent == null || value == null) {
+            writer.name(parent != null ? parent.keyOf(name) : name);
+            writeValue(writer, value);
+            return;
+        }
+
+        writeDeflated(writer, DeflatePath.detached(parent.keyOf(name), parent.separator()), value);
+    }
+
+    /**
+     * Writes a non-null value under a flattened key, flattening its nested
+     * objects under the path of the key
+     */
+    private void writeDeflated(SerializationWriter writer, DeflatePath path, Object value) {
+        String key = path.key();
+        Class<?> valueClass = value.getClass();
+        ValueHandler handler = handlerOf(valueClass);
+
+        switch (handler.kind()) {
+            case SERIALIZER:
+                writeFlattened(writer, key, serializeWithCustomSerializer(value, handler.serializer()));
+                break;
+            case LAZY:
+                Lazy<?> lazy = (Lazy<?>) value;
+                if (!lazy.isDecoded()) {
+                    writeFlattened(writer, key, lazy.serialized());
+                } else if (lazy.get() != null) {
+                    writeDeflated(writer, path, lazy.get());
+                } else {
+                    writer.name(key);
+                    writer.writeNull();
+                }
+                break;
+            case SCALAR:
+            case LIST:
+                // Lists are kept as leaves of the flattened map
+                writer.name(key);
+                writeValue(writer, value);
+                break;
+            case MAP:
+                // Entry keys are data, so they are built in one buffer instead of cached
+                StringBuilder entryKey = new StringBuilder(path.childPrefix());
+                int length = entryKey.length();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    entryKey.setLength(length);
+                    String flatKey = entryKey.append(entry.getKey()).toString();
+                    if (entry.getValue() == null) {
+                        writer.name(flatKey);
+                        writer.writeNull();
+                    } else {
+                        writeDeflated(writer, DeflatePath.detached(flatKey, path.separator()), entry.getValue());
+                    }
+                }
+                break;
+            default:
+                if (!handler.allowed()) {
+                    throw new SerializationException("Can't serialize value of type: " + valueClass.getName());
+                } else if (handler.kind() == ValueHandler.Kind.GENERATED) {
+                    writeFlattened(writer, key, serializeWithCustomSerializer(value, handler.serializer()));
+                } else if (handler.kind() == ValueHandler.Kind.COLLECTION) {
+                    writer.name(path.keyOf("value"));
+                    writeCollection(writer, (Collection<?>) value);
+                } else {
+                    codecFor(valueClass).writeFields(this, value, writer, path);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Writes a single value based on its type
+     */
+    void writeValue(SerializationWriter writer, Object value) {
+        if (value == null) {
+            writer.writeNull();
+            return;
+        }
+
+        ValueHandler handler = handlerOf(value.getClass());
+
+        switch (handler.kind()) {
+            case SERIALIZER:
+                writeSerialized(writer, serializeWithCustomSerializer(value, handler.serializer()));
+                break;
+            case LAZY:
+                // Values that were never used are written back as they were read
+                Lazy<?> lazy = (Lazy<?>) value;
+                if (lazy.isDecoded()) {
+                    writeValue(writer, lazy.get());
+                } else {
+                    writeSerialized(writer, lazy.serialized());
+                }
+                break;
+            case SCALAR:
+                writeScalar(writer, value);
+                break;
+            case LIST:
+                writer.beginArray();
+                for (Object item : (List<?>) value) {
+                    writeValue(writer, item);
+                }
+                writer.end();
+                break;
+            case MAP:
+                writer.beginObject();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    writer.name(entry.getKey().toString());
+                    writeValue(writer, entry.getValue());
+                }
+                writer.end();
+                break;
+            default:
+                if (!handler.allowed()) {
+                    throw new SerializationException("Can't serialize value of type: " + value.getClass().getName());
+                }
+                // Recursively serialize nested objects
+                serialize(value, writer);
+                break;
         }
-        return result;
     }
 
     /**
-     * Serializes a map
+     * Writes a collection that isn't a list, which maps keep as it is and
+     * other writers get as an array
      */
-    private Map<String, Object> serializeMap(Map<?, ?> map) {
-        Map<String, Object> result = new HashMap<>();
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
+    private void writeCollection(SerializationWriter writer, Collection<?> value) {
+        if (writer instanceof MapWriter) {
+            writer.writeValue(value);
+            return;
+        }
+
+        writer.beginArray();
+        for (Object item : value) {
+            writeValue(writer, item);
+        }
+        writer.end();
+    }
+
+    /**
+     * Writes the entries of an already serialized map as fields of the current
+     * object
+     */
+    private void writeEntries(SerializationWriter writer, Map<?, ?> serialized) {
+        for (Map.Entry<?, ?> entry : serialized.entrySet()) {
             String key = entry.getKey().toString();
-            result.put(key, serializeValue(entry.getValue()));
+            if (deflateSeparator != null) {
+                writeFlattened(writer, key, entry.getValue());
+            } else {
+                writer.name(key);
+                writeSerialized(writer, entry.getValue());
+            }
         }
-        return result;
+    }
+
+    /**
+     * Writes an already serialized value under a key, flattening its maps
+     */
+    private void writeFlattened(SerializationWriter writer, String key, Object serialized) {
+        if (serialized instanceof Map) {
+            writeFlattened(writer, new StringBuilder(key), serialized);
+        } else {
+            writer.name(key);
+            writeSerialized(writer, serialized);
+        }
+    }
+
+    /**
+     * Helper method to flatten an already serialized value under the key in a
+     * buffer, which is shared by every nested key and restored afterwards
+     */
+    private void writeFlattened(SerializationWriter writer, StringBuilder key, Object serialized) {
+        if (serialized instanceof Map) {
+            int length = key.length();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) serialized).entrySet()) {
+                key.append(deflateSeparator).append(entry.getKey());
+                writeFlattened(writer, key, entry.getValue());
+                key.setLength(length);
+            }
+        } else {
+            writer.name(key.toString());
+            writeSerialized(writer, serialized);
+        }
+    }
+
+    /**
+     * Writes a value that is already serialized, such as the output of a custom
+     * serializer, without converting it any further
+     */
+    private void writeSerialized(SerializationWriter writer, Object serialized) {
+        if (serialized instanceof Map) {
+            writer.beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) serialized).entrySet()) {
+                writer.name(entry.getKey().toString());
+                writeSerialized(writer, entry.getValue());
+            }
+            writer.end();
+        } else if (serialized instanceof List) {
+            writer.beginArray();
+            for (Object item : (List<?>) serialized) {
+                writeSerialized(writer, item);
+            }
+            writer.end();
+        } else if (serialized == null) {
+            writer.writeNull();
+        } else {
+            writeScalar(writer, serialized);
+        }
+    }
+
+    /**
+     * Writes a scalar value with the most specific writer method
+     */
+    private void writeScalar(SerializationWriter writer, Object value) {
+        if (value instanceof String) {
+            writer.writeString((String) value);
+        } else if (value instanceof Integer) {
+            writer.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            writer.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            writer.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            writer.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            writer.writeFloat((Float) value);
+        } else {
+            writer.writeValue(value);
+        }
+    }
+
+    /**
+     * Deserializes a single value to the given type.
+     * Used by generated serializers to delegate nested values.
+     *
+     * @param value         The serialized value.
+     * @param type          The type to deserialize to.
+     * @param typeArguments The type arguments of the type, such as the item
+     *                      type of a List or the key and value types of a Map.
+     * @return The deserialized value.
+     */
+    public Object deserializeValue(Object value, Class<?> type, Class<?>... typeArguments) {
+        Class<?> elementType = typeArguments.length >= 1 ? typeArguments[0] : Object.class;
+        Class<?> valueType = typeArguments.length >= 2 ? typeArguments[1] : Object.class;
+        return deserializeTyped(value, type, elementType, valueType);
     }
 
     /**
      * Deserializes a single value based on field type information
      */
-    @SuppressWarnings("unchecked")
-    private Object deserializeValue(Object value, Field field) {
-        if (value == null) {
-            return ClassUtils.getDefaultValue(field.getType());
+    Object deserializeValue(Object value, FieldModel field) {
+        if (field.lazyType() != null) {
+            return value != null ? lazy(value, field.lazyType(), field.elementType(), field.valueType()) : null;
         }
+        return deserializeTyped(value, field.type(), field.elementType(), field.valueType());
+    }
 
-        Class<?> fieldType = field.getType();
+    /**
+     * Reads the value of a field from the flattened keys of a deflate mode map,
+     * or returns {@link #ABSENT} if the map has no entry for it. A current
+     * nested object is updated in place.
+     */
+    Object readFlatValue(FlatEntries flat, DeflatePath parent, FieldModel field, String name, Object current) {
+        DeflatePath path = parent.child(field, name);
+        Object value = flat.get(path.key());
+        if (value != null || flat.containsKey(path.key())) {
+            return deserializeValue(value, field);
+        }
 
-        // Check if there's a custom serializer
-        Serializer<?> customSerializer = serializers.get(fieldType);
-        if (customSerializer != null) {
-            return customSerializer.deserialize(value);
+        ValueHandler handler = handlerOf(field.type());
+        switch (handler.kind()) {
+            case SCALAR:
+            case LIST:
+                // Never flattened, so there is nothing under the key
+                return ABSENT;
+            case OBJECT:
+                if (handler.allowed()) {
+                    Object nested = canUpdate(current)
+                            ? codecFor(current.getClass()).readFlat(this, flat, path, current)
+                            : codecFor(field.type()).readFlat(this, flat, path, null);
+                    return nested != null ? nested : ABSENT;
+                }
+                return readFlatEntries(flat, path, field);
+            default:
+                return readFlatEntries(flat, path, field);
         }
+    }
 
-        if (isPrimitiveOrWrapper(fieldType)) {
+    /**
+     * Helper method to read the value of a field from the inflated entries
+     * under its path, or return {@link #ABSENT} if there are none
+     */
+    private Object readFlatEntries(FlatEntries flat, DeflatePath path, FieldModel field) {
+        Map<String, Object> entries = flat.under(path.childPrefix());
+        return entries != null ? deserializeValue(MapDeflate.inflate(entries, path.separator()), field) : ABSENT;
+    }
+
+    /**
+     * Deserializes a single value based on a type and its resolved type arguments
+     */
+    @SuppressWarnings("unchecked")
+    private Object deserializeTyped(Object value, Class<?> fieldType, Class<?> itemType, Class<?> valueType) {
+        if (value == null) {
+            return ClassUtils.getDefaultValue(fieldType);
+        }
+
+        ValueHandler handler = handlerOf(fieldType);
+
+        if (handler.kind() == ValueHandler.Kind.SERIALIZER) {
+            return handler.serializer().deserialize(value);
+        } else if (handler.kind() == ValueHandler.Kind.LAZY) {
+            return lazy(value, itemType, Object.class, Object.class);
+        } else if (handler.kind() == ValueHandler.Kind.SCALAR) {
             return convertToPrimitiveType(value, fieldType);
-        } else if (List.class.isAssignableFrom(fieldType)) {
-            return deserializeList(value, field);
-        } else if (Map.class.isAssignableFrom(fieldType)) {
+        } else if (handler.kind() == ValueHandler.Kind.LIST) {
+            return deserializeList(value, itemType);
+        } else if (handler.kind() == ValueHandler.Kind.MAP) {
             if (value instanceof Map) {
                 // Handle map with key mapping
                 Map<String, Object> serializedMap = (Map<String, Object>) value;
-                Map<Object, Object> resultMap;
-
-                try {
-                    resultMap = (Map<Object, Object>) fieldType.getDeclaredConstructor().newInstance();
-                } catch (Exception e) {
-                    resultMap = new HashMap<>();
-                }
-
-                Type genericType = field.getGenericType();
-                Class<?> valueType = Object.class;
-
-                if (genericType instanceof ParameterizedType) {
-                    ParameterizedType paramType = (ParameterizedType) genericType;
-                    Type[] typeArgs = paramType.getActualTypeArguments();
-                    if (typeArgs.length >= 2) {
-                        Type valueTypeArg = typeArgs[1];
-                        if (valueTypeArg instanceof Class) {
-                            valueType = (Class<?>) valueTypeArg;
-                        }
-                    }
-                }
+                Map<Object, Object> resultMap = createMap(fieldType);
 
                 for (Map.Entry<String, Object> entry : serializedMap.entrySet()) {
-                    Object mapValue = entry.getValue();
-                    if (mapValue != null && valueType != Object.class) {
-                        if (classPredicate.test(valueType) && mapValue instanceof Map) {
-                            mapValue = deserialize(valueType, (Map<String, Object>) mapValue);
-                        } else if (serializers.containsKey(valueType)) {
-                            mapValue = serializers.get(valueType).deserialize(mapValue);
-                        }
-                    }
-                    resultMap.put(entry.getKey(), mapValue);
+                    resultMap.put(entry.getKey(), deserializeMapValue(entry.getValue(), valueType));
                 }
 
                 return resultMap;
             }
-        } else if (classPredicate.test(fieldType) && value instanceof Map) {
+        } else if (handler.allowed() && value instanceof Map) {
             return deserialize(fieldType, (Map<String, Object>) value);
         }
 
@@ -391,10 +1269,17 @@ public class ClassSerializer {
     }
 
     /**
-     * Deserializes a list with type information from the field
+     * Helper method to keep a serialized value to deserialize it on first use
+     */
+    private Lazy<Object> lazy(Object serialized, Class<?> type, Class<?> itemType, Class<?> valueType) {
+        return Lazy.serialized(serialized, raw -> deserializeTyped(raw, type, itemType, valueType));
+    }
+
+    /**
+     * Deserializes a list with its resolved item type
      */
     @SuppressWarnings("unchecked")
-    private List<Object> deserializeList(Object value, Field field) {
+    private List<Object> deserializeList(Object value, Class<?> itemType) {
         if (!(value instanceof List)) {
             throw new SerializationException("Expected a List but got: " + value.getClass().getName());
         }
@@ -402,67 +1287,187 @@ public class ClassSerializer {
         List<?> sourceList = (List<?>) value;
         List<Object> result = new ArrayList<>();
 
-        // Try to extract generic type information
-        Type genericType = field.getGenericType();
-        Class<?> itemType = Object.class;
-
-        if (genericType instanceof ParameterizedType) {
-            ParameterizedType paramType = (ParameterizedType) genericType;
-            Type[] typeArgs = paramType.getActualTypeArguments();
-            if (typeArgs.length > 0) {
-                Type itemTypeArg = typeArgs[0];
-                if (itemTypeArg instanceof Class) {
-                    itemType = (Class<?>) itemTypeArg;
-                }
-            }
+        for (Object item : sourceList) {
+            result.add(deserializeItem(item, itemType));
         }
 
-        for (Object item : sourceList) {
-            if (item == null) {
-                result.add(null);
-            } else if (itemType != Object.class) {
-                if (isPrimitiveOrWrapper(itemType)) {
-                    result.add(convertToPrimitiveType(item, itemType));
-                } else if (classPredicate.test(itemType) && item instanceof Map) {
-                    result.add(deserialize(itemType, (Map<String, Object>) item));
-                } else if (serializers.containsKey(itemType)) {
-                    result.add(serializers.get(itemType).deserialize(item));
-                } else {
-                    result.add(item);
-                }
-            } else {
-                result.add(item);
+        return result;
+    }
+
+    /**
+     * Deserializes a list item with its resolved item type
+     */
+    @SuppressWarnings("unchecked")
+    private Object deserializeItem(Object item, Class<?> itemType) {
+        if (item == null || itemType == Object.class) {
+            return item;
+        }
+
+        ValueHandler handler = handlerOf(itemType);
+        if (handler.kind() == ValueHandler.Kind.SCALAR) {
+            return convertToPrimitiveType(item, itemType);
+        } else if (handler.allowed() && item instanceof Map) {
+            return deserialize(itemType, (Map<String, Object>) item);
+        } else if (handler.kind() == ValueHandler.Kind.SERIALIZER) {
+            return handler.serializer().deserialize(item);
+        }
+        return item;
+    }
+
+    /**
+     * Deserializes a map value with its resolved value type
+     */
+    @SuppressWarnings("unchecked")
+    private Object deserializeMapValue(Object mapValue, Class<?> valueType) {
+        if (mapValue == null || valueType == Object.class) {
+            return mapValue;
+        }
+
+        ValueHandler handler = handlerOf(valueType);
+        if (handler.allowed() && mapValue instanceof Map) {
+            return deserialize(valueType, (Map<String, Object>) mapValue);
+        } else if (handler.kind() == ValueHandler.Kind.SERIALIZER) {
+            return handler.serializer().deserialize(mapValue);
+        }
+        return mapValue;
+    }
+
+    /**
+     * Creates the map instance of a map field, falling back to a HashMap
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> createMap(Class<?> fieldType) {
+        InstanceFactory factory = InstanceFactory.of(fieldType);
+        try {
+            return factory.isInstantiable() ? (Map<Object, Object>) factory.create() : new HashMap<>();
+        } catch (SerializationException e) {
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Reads the next value of a reader into a field, updating the current
+     * object of the field in place if it's read field by field
+     */
+    Object readValueInto(SerializationReader reader, FieldModel field, Object current) {
+        if (canUpdate(current) && reader.peek() == Token.BEGIN_OBJECT) {
+            codecFor(current.getClass()).readInto(this, reader, current);
+            return current;
+        }
+        return readValue(reader, field);
+    }
+
+    /**
+     * Checks if an object can be deserialized into in place, which needs it to
+     * be read field by field and to not be a record
+     */
+    boolean canUpdate(Object object) {
+        if (object == null || object.getClass().isRecord()) {
+            return false;
+        }
+        ValueHandler handler = handlerOf(object.getClass());
+        return handler.kind() == ValueHandler.Kind.OBJECT && handler.allowed();
+    }
+
+    /**
+     * Reads the next value of a reader into a field, based on its type
+     */
+    Object readValue(SerializationReader reader, FieldModel field) {
+        Class<?> fieldType = field.type();
+        Token token = reader.peek();
+        if (token == Token.NULL) {
+            reader.nextNull();
+            return ClassUtils.getDefaultValue(fieldType);
+        }
+
+        ValueHandler handler = handlerOf(fieldType);
+        ValueHandler.Kind kind = handler.kind();
+        if (kind == ValueHandler.Kind.SERIALIZER || kind == ValueHandler.Kind.SCALAR
+                || kind == ValueHandler.Kind.LAZY) {
+            return deserializeValue(readTree(reader), field);
+        } else if (kind == ValueHandler.Kind.LIST && token == Token.BEGIN_ARRAY) {
+            List<Object> result = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(readItem(reader, field.elementType()));
+            }
+            reader.endArray();
+            return result;
+        } else if (kind == ValueHandler.Kind.MAP && token == Token.BEGIN_OBJECT) {
+            Map<Object, Object> result = createMap(fieldType);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                result.put(key, readMapValue(reader, field.valueType()));
             }
+            reader.endObject();
+            return result;
+        } else if (kind != ValueHandler.Kind.LIST && kind != ValueHandler.Kind.MAP && handler.allowed()
+                && token == Token.BEGIN_OBJECT) {
+            return deserialize(fieldType, reader);
         }
 
-        return result;
+        return deserializeValue(readTree(reader), field);
     }
 
     /**
-     * Serializes a primitive or collection for direct value storage
+     * Reads a list item with its resolved item type
      */
-    private Object serializePrimitiveOrCollection(Object value) {
-        if (value instanceof List) {
-            return serializeList((List<?>) value);
-        } else if (value instanceof Map) {
-            return serializeMap((Map<?, ?>) value);
-        } else {
-            return value;
+    private Object readItem(SerializationReader reader, Class<?> itemType) {
+        if (itemType != Object.class && reader.peek() == Token.BEGIN_OBJECT) {
+            ValueHandler handler = handlerOf(itemType);
+            if (handler.kind() != ValueHandler.Kind.SCALAR && handler.allowed()) {
+                return deserialize(itemType, reader);
+            }
         }
+        return deserializeItem(readTree(reader), itemType);
     }
 
     /**
-     * Helper method to determine if a class is a primitive or wrapper
+     * Reads a map value with its resolved value type
      */
-    private boolean isPrimitiveOrWrapper(Class<?> clazz) {
-        return ClassUtils.isPrimitiveOrWrapper(clazz);
+    private Object readMapValue(SerializationReader reader, Class<?> valueType) {
+        if (valueType != Object.class && reader.peek() == Token.BEGIN_OBJECT && handlerOf(valueType).allowed()) {
+            return deserialize(valueType, reader);
+        }
+        return deserializeMapValue(readTree(reader), valueType);
     }
 
     /**
-     * Helper method to determine if a class is a collection
+     * Reads the next value of a reader as maps, lists and scalars
      */
-    private boolean isCollection(Class<?> clazz) {
-        return Collection.class.isAssignableFrom(clazz);
+    Object readTree(SerializationReader reader) {
+        if (reader instanceof MapReader) {
+            // Already in memory, no need to copy it
+            return ((MapReader) reader).nextTree();
+        }
+
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new HashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String key = reader.nextName();
+                    map.put(key, readTree(reader));
+                }
+                reader.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readTree(reader));
+                }
+                reader.endArray();
+                return list;
+            case NULL:
+                reader.nextNull();
+                return null;
+            case VALUE:
+                return reader.nextValue();
+            default:
+                throw new SerializationException("Expected a value but got: " + reader.peek());
+        }
     }
 
     /**
@@ -477,26 +1482,157 @@ public class ClassSerializer {
     }
 
     /**
-     * Helper method to get all fields from a class and its superclasses
+     * Helper method to use a custom serializer
      */
-    private List<Field> getAllFields(Class<?> clazz) {
-        List<Field> fields = new ArrayList<>();
-        Class<?> currentClass = clazz;
+    @SuppressWarnings("unchecked")
+    private <T> Object serializeWithCustomSerializer(Object value, Serializer<?> serializer) {
+        Serializer<T> typedSerializer = (Serializer<T>) serializer;
+        return typedSerializer.serialize((T) value);
+    }
 
-        while (currentClass != null && currentClass != Object.class) {
-            Collections.addAll(fields, currentClass.getDeclaredFields());
-            currentClass = currentClass.getSuperclass();
+    /**
+     * Helper method to reject configuration changes on a frozen serializer
+     */
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("The configuration of a frozen serializer can't change");
         }
-
-        return fields;
     }
 
     /**
-     * Helper method to use a custom serializer
+     * Builds frozen serializers, whose configuration is set once and can be
+     * shared by all threads.
+     * <p>
+     * Every serializer caches how it handles each class it meets in a
+     * {@link ClassValue}, and so do the field names of a serializer with its own
+     * field filter or predicate, together with the keys of its maps. These
+     * entries stay attached to every class the serializer met until the
+     * serializer itself is garbage collected, so build a serializer once per
+     * configuration and share it instead of building one per use. Serializers
+     * with the default field names share their names and keys.
      */
-    @SuppressWarnings("unchecked")
-    private <T> Object serializeWithCustomSerializer(Object value, Serializer<?> serializer) {
-        Serializer<T> typedSerializer = (Serializer<T>) serializer;
-        return typedSerializer.serialize((T) value);
+    public static final class Builder {
+        private ClassSerializer serializer = new ClassSerializer();
+
+        private Builder() {
+        }
+
+        /**
+         * @see ClassSerializer#fieldFilter(Function)
+         * @param filter The field filter.
+         * @return This builder.
+         */
+        public Builder fieldFilter(Function<Field, String> filter) {
+            target().fieldFilter(filter);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#fieldPredicate(BiFunction)
+         * @param predicate The field predicate.
+         * @return This builder for chaining.
+         */
+        public Builder fieldPredicate(BiFunction<Field, Object, String> predicate) {
+            target().fieldPredicate(predicate);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#addClassPredicate(Predicate)
+         * @param predicate The class predicate.
+         * @return This builder for chaining.
+         */
+        public Builder addClassPredicate(Predicate<Class<?>> predicate) {
+            target().addClassPredicate(predicate);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#addSerializer(Class, Serializer)
+         * @param <T>        The type of objects the serializer handles.
+         * @param clazz      The class to register the serializer for.
+         * @param serializer The serializer implementation.
+         * @return This builder for chaining.
+         */
+        public <T> Builder addSerializer(Class<T> clazz, Serializer<T> serializer) {
+            target().addSerializer(clazz, serializer);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#addInstantiator(Class, Instantiator)
+         * @param <T>          The type of objects the instantiator creates.
+         * @param clazz        The class to register the instantiator for.
+         * @param instantiator The instantiator implementation.
+         * @return This builder for chaining.
+         */
+        public <T> Builder addInstantiator(Class<T> clazz, Instantiator<T> instantiator) {
+            target().addInstantiator(clazz, instantiator);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#withDeflate(String)
+         * @param separator The separator string, or null to disable deflate mode.
+         * @return This builder for chaining.
+         */
+        public Builder withDeflate(String separator) {
+            target().withDeflate(separator);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#withSkipNull(SkipNull)
+         * @param mode The null handling mode.
+         * @return This builder for chaining.
+         */
+        public Builder withSkipNull(SkipNull mode) {
+            target().withSkipNull(mode);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#withEngine(Engine)
+         * @param engine The engine to use.
+         * @return This builder for chaining.
+         */
+        public Builder withEngine(Engine engine) {
+            target().withEngine(engine);
+            return this;
+        }
+
+        /**
+         * @see ClassSerializer#withPool(ForkJoinPool)
+         * @param pool The pool for batch operations, or null for the common pool.
+         * @return This builder for chaining.
+         */
+        public Builder withPool(ForkJoinPool pool) {
+            target().withPool(pool);
+            return this;
+        }
+
+        /**
+         * Freezes the configured serializer. The builder can't be used afterwards.
+         *
+         * @return The frozen serializer.
+         */
+        public ClassSerializer build() {
+            ClassSerializer built = target();
+            // Written last, so every setting is visible to threads that see the
+            // serializer as frozen
+            built.frozen = true;
+            serializer = null;
+            return built;
+        }
+
+        /**
+         * Helper method to get the serializer being configured
+         */
+        private ClassSerializer target() {
+            if (serializer == null) {
+                throw new IllegalStateException("The builder was already used");
+            }
+            return serializer;
+        }
     }
-}
\ No newline at end of file
+}
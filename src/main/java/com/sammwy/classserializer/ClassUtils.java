@@ -1,6 +1,5 @@
 package com.sammwy.classserializer;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
 /**
@@ -140,9 +139,10 @@ public class ClassUtils {
     /**
      * Creates an instance of the specified class, even if it doesn't have a no-args
      * constructor.
-     * For classes without no-args constructor, it will use the first available
-     * constructor
-     * and provide default values for all parameters.
+     * For classes without no-args constructor, it will use the canonical
+     * constructor of records, an all-args constructor, or the first available
+     * constructor, and provide default values for all parameters.
+     * The constructor is resolved once per class and cached.
      *
      * @param <T>   the type of class to instantiate
      * @param clazz the class to instantiate
@@ -156,22 +156,6 @@ public class ClassUtils {
     @SuppressWarnings("unchecked")
     public static <T> T createInstance(Class<T> clazz)
             throws NoSuchMethodException, IllegalAccessException, InstantiationException, InvocationTargetException {
-        try {
-            return clazz.getDeclaredConstructor().newInstance();
-        } catch (NoSuchMethodException e) {
-            // Try to find any constructor if no-args isn't available
-            Constructor<?>[] constructors = clazz.getDeclaredConstructors();
-            if (constructors.length > 0) {
-                Constructor<?> constructor = constructors[0];
-                constructor.setAccessible(true);
-                Object[] args = new Object[constructor.getParameterCount()];
-                Class<?>[] paramTypes = constructor.getParameterTypes();
-                for (int i = 0; i < paramTypes.length; i++) {
-                    args[i] = getDefaultValue(paramTypes[i]);
-                }
-                return (T) constructor.newInstance(args);
-            }
-            throw e;
-        }
+        return (T) InstanceFactory.of(clazz).newInstance();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.sammwy.classserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+/**
+ * Defines a codec class per serialized type, specialized to its fields.
+ * <p>
+ * Every type gets a copy of {@link GeneratedCodec}, defined at runtime as a
+ * hidden class through
+ * {@link MethodHandles.Lookup#defineHiddenClassWithClassData}, with the
+ * handles {@link CodecHandles} builds for the fields of the type as constants.
+ * Writing runs one step per field in a row, reading fields directly, instead
+ * of looping over the {@link ClassModel}. The steps call the same
+ * {@link ClassSerializer} methods as the reflective codec, so the output is
+ * identical; calls into registered serializers still go through those shared
+ * methods, since serializers can be registered after the codec is generated.
+ * <p>
+ * If the template can't be loaded or the handles can't be built, the
+ * reflective codec is used.
+ */
+final class CodecGenerator {
+    private static final byte[] TEMPLATE = loadTemplate();
+
+    private static final ClassValue<ObjectCodec> CODECS = new ClassValue<ObjectCodec>() {
+        @Override
+        protected ObjectCodec computeValue(Class<?> type) {
+            return generate(ClassModel.of(type));
+        }
+    };
+
+    private CodecGenerator() {
+    }
+
+    /**
+     * Gets the generated codec of a class, generating it on first use.
+     *
+     * @param type The class to get the codec for.
+     * @return The generated codec, or the reflective codec if generation failed.
+     */
+    static ObjectCodec codecOf(Class<?> type) {
+        return CODECS.get(type);
+    }
+
+    /**
+     * Helper method to define a hidden copy of the template with the handles of
+     * a class model
+     */
+    private static ObjectCodec generate(ClassModel model) {
+        if (TEMPLATE == null) {
+            return model.codec();
+        }
+
+        try {
+            List<Object> data = List.of(model, CodecHandles.writer(model), CodecHandles.reader(model));
+            Class<?> codecClass = MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE, data, true)
+                    .lookupClass();
+            return (ObjectCodec) codecClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return model.codec();
+        }
+    }
+
+    /**
+     * Helper method to read the class file of the template codec
+     */
+    private static byte[] loadTemplate() {
+        try (InputStream stream = GeneratedCodec.class.getResourceAsStream("GeneratedCodec.class")) {
+            return stream != null ? stream.readAllBytes() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.sammwy.classserializer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import com.sammwy.classserializer.SerializationReader.Token;
+
+/**
+ * Builds the method handles that the generated codec of a class runs.
+ * <p>
+ * Writing is one chain with a step per field, in field order, and every step
+ * reads its field through a getter bound to that field. Reading switches on
+ * the index of a field to a step that sets it through a setter bound to that
+ * field, with the typed reads of the reader for boolean, int, long and double
+ * fields. Held as constants by a {@link GeneratedCodec}, the handles are
+ * compiled into straight-line code for the class.
+ * <p>
+ * Static fields, final fields and fields the lookup can't reach use the steps
+ * of {@link ModelCodec} instead, through their {@link FieldModel}.
+ */
+final class CodecHandles {
+    /**
+     * The type of the chain that writes the fields of an object: the
+     * serializer, the object, the writer, the path of the object in deflate
+     * mode and the serialized names of the fields.
+     */
+    static final MethodType WRITE_TYPE = MethodType.methodType(void.class, ClassSerializer.class, Object.class,
+            SerializationWriter.class, DeflatePath.class, String[].class);
+
+    /**
+     * The type of the switch that reads a field: the index of the field, the
+     * serializer, the reader, the instance and whether the object held by the
+     * field is updated in place.
+     */
+    static final MethodType READ_TYPE = MethodType.methodType(void.class, int.class, ClassSerializer.class,
+            SerializationReader.class, Object.class, boolean.class);
+
+    // The type of the step that reads a single field
+    private static final MethodType STEP_TYPE = READ_TYPE.dropParameterTypes(0, 1);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private CodecHandles() {
+    }
+
+    /**
+     * Builds the chain that writes every field of a class.
+     *
+     * @param model The model of the class.
+     * @return A handle of type {@link #WRITE_TYPE}.
+     * @throws ReflectiveOperationException If a step can't be bound.
+     */
+    static MethodHandle writer(ClassModel model) throws ReflectiveOperationException {
+        List<FieldModel> fields = model.fields();
+        MethodHandle chain = MethodHandles.empty(WRITE_TYPE);
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            // Folding runs the step first, then the rest of the chain
+            chain = MethodHandles.foldArguments(chain, writeStep(fields.get(i)));
+        }
+        return chain;
+    }
+
+    /**
+     * Builds the switch that reads a field of a class by its index.
+     *
+     * @param model The model of the class.
+     * @return A handle of type {@link #READ_TYPE}.
+     * @throws ReflectiveOperationException If a step can't be bound.
+     */
+    static MethodHandle reader(ClassModel model) throws ReflectiveOperationException {
+        List<FieldModel> fields = model.fields();
+        MethodHandle missing = LOOKUP.findStatic(CodecHandles.class, "missingField", READ_TYPE);
+        if (fields.isEmpty()) {
+            return missing;
+        }
+
+        MethodHandle[] steps = new MethodHandle[fields.size()];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = MethodHandles.dropArguments(readStep(fields.get(i)), 0, int.class);
+        }
+        return MethodHandles.tableSwitch(missing, steps);
+    }
+
+    /**
+     * Helper method to build the step that writes a field
+     */
+    private static MethodHandle writeStep(FieldModel field) throws ReflectiveOperationException {
+        MethodHandle getter = getter(field);
+        if (getter == null) {
+            MethodHandle step = LOOKUP.findStatic(ModelCodec.class, "writeField",
+                    WRITE_TYPE.appendParameterTypes(FieldModel.class));
+            return MethodHandles.insertArguments(step, 5, field);
+        }
+
+        Class<?> valueType = isTyped(field) ? field.type() : Object.class;
+        MethodHandle step = LOOKUP.findStatic(CodecHandles.class, "write",
+                WRITE_TYPE.insertParameterTypes(0, FieldModel.class).appendParameterTypes(valueType));
+        step = MethodHandles.insertArguments(step, 0, field);
+        // The value is read from the object, which is the second argument
+        step = MethodHandles.filterArguments(step, 5, getter.asType(MethodType.methodType(valueType, Object.class)));
+        return MethodHandles.permuteArguments(step, WRITE_TYPE, 0, 1, 2, 3, 4, 1);
+    }
+
+    /**
+     * Helper method to build the step that reads a field
+     */
+    private static MethodHandle readStep(FieldModel field) throws ReflectiveOperationException {
+        MethodHandle fallback = MethodHandles.insertArguments(LOOKUP.findStatic(ModelCodec.class, "readField",
+                STEP_TYPE.insertParameterTypes(2, FieldModel.class)), 2, field);
+        MethodHandle setter = setter(field);
+        if (setter == null) {
+            return fallback;
+        } else if (field.primitiveType() == null) {
+            return readObjectStep(field, setter, fallback);
+        }
+
+        switch (field.primitiveType()) {
+            case BOOLEAN:
+                return readPrimitiveStep(field, "nextBoolean", setter, fallback);
+            case INT:
+                return readPrimitiveStep(field, "nextInt", setter, fallback);
+            case LONG:
+                return readPrimitiveStep(field, "nextLong", setter, fallback);
+            case DOUBLE:
+                return readPrimitiveStep(field, "nextDouble", setter, fallback);
+            default:
+                // Other primitives are converted from plain values
+                return fallback;
+        }
+    }
+
+    /**
+     * Helper method to build the step that reads a reference field, setting it
+     * directly unless the object it holds is updated in place
+     */
+    private static MethodHandle readObjectStep(FieldModel field, MethodHandle setter, MethodHandle fallback)
+            throws ReflectiveOperationException {
+        MethodHandle value = MethodHandles.insertArguments(LOOKUP.findStatic(CodecHandles.class, "readValue",
+                MethodType.methodType(Object.class, FieldModel.class, ClassSerializer.class,
+                        SerializationReader.class)), 0, field);
+
+        MethodHandle set = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        set = MethodHandles.catchException(set, ClassCastException.class, MethodHandles.dropArguments(
+                MethodHandles.insertArguments(LOOKUP.findStatic(CodecHandles.class, "setFailed",
+                        MethodType.methodType(void.class, FieldModel.class, ClassCastException.class)), 0, field),
+                1, set.type().parameterList()));
+
+        // (instance, serializer, reader) -> set(instance, readValue(serializer, reader))
+        MethodHandle step = MethodHandles.collectArguments(set, 1, value);
+        step = MethodHandles.permuteArguments(step, STEP_TYPE.dropParameterTypes(3, 4), 2, 0, 1);
+        step = MethodHandles.dropArguments(step, 3, boolean.class);
+
+        MethodHandle inPlace = MethodHandles.dropArguments(MethodHandles.identity(boolean.class), 0,
+                ClassSerializer.class, SerializationReader.class, Object.class);
+        return MethodHandles.guardWithTest(inPlace, fallback, step);
+    }
+
+    /**
+     * Helper method to build the step that reads a primitive field with a
+     * typed read, as long as the primitive fast path applies and the reader is
+     * at a plain value
+     */
+    private static MethodHandle readPrimitiveStep(FieldModel field, String name, MethodHandle setter,
+            MethodHandle fallback) throws ReflectiveOperationException {
+        Class<?> type = field.type();
+        MethodHandle next = LOOKUP.findVirtual(SerializationReader.class, name, MethodType.methodType(type));
+
+        // (instance, reader) -> set(instance, reader.nextX())
+        MethodHandle step = MethodHandles.collectArguments(
+                setter.asType(MethodType.methodType(void.class, Object.class, type)), 1, next);
+        step = MethodHandles.catchException(step, IllegalArgumentException.class, MethodHandles.dropArguments(
+                MethodHandles.insertArguments(LOOKUP.findStatic(CodecHandles.class, "convertFailed",
+                        MethodType.methodType(void.class, FieldModel.class, IllegalArgumentException.class)), 0,
+                        field),
+                1, step.type().parameterList()));
+        step = MethodHandles.permuteArguments(step, STEP_TYPE, 2, 1);
+
+        MethodHandle test = MethodHandles.dropArguments(LOOKUP.findStatic(CodecHandles.class, "isPlainValue",
+                MethodType.methodType(boolean.class, ClassSerializer.class, SerializationReader.class)), 2,
+                Object.class, boolean.class);
+        return MethodHandles.guardWithTest(test, step, fallback);
+    }
+
+    /**
+     * Helper method to check if a field is written with a typed write of the
+     * writer
+     */
+    private static boolean isTyped(FieldModel field) {
+        Class<?> type = field.type();
+        return type == boolean.class || type == int.class || type == long.class || type == float.class
+                || type == double.class;
+    }
+
+    /**
+     * Helper method to get a getter bound to a field, or null if the field is
+     * static or can't be reached
+     */
+    private static MethodHandle getter(FieldModel field) {
+        Field reflected = field.field();
+        if (Modifier.isStatic(reflected.getModifiers()) || !field.isAccessible()) {
+            return null;
+        }
+
+        try {
+            return MethodHandles.privateLookupIn(reflected.getDeclaringClass(), LOOKUP).unreflectGetter(reflected);
+        } catch (IllegalAccessException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Helper method to get a setter bound to a field, or null if the field is
+     * static, final or can't be reached
+     */
+    private static MethodHandle setter(FieldModel field) {
+        Field reflected = field.field();
+        int modifiers = reflected.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || !field.isAccessible()) {
+            return null;
+        }
+
+        try {
+            return MethodHandles.privateLookupIn(reflected.getDeclaringClass(), LOOKUP).unreflectSetter(reflected);
+        } catch (IllegalAccessException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Helper method to get the serialized name of a field, or null if it is
+     * skipped
+     */
+    private static String nameOf(FieldModel field, ClassSerializer serializer, Object object, String[] names) {
+        return names != null ? names[field.index()] : serializer.fieldName(field, object);
+    }
+
+    /**
+     * Helper method to write a reference field, or a primitive field without a
+     * typed write
+     */
+    private static void write(FieldModel field, ClassSerializer serializer, Object object,
+            SerializationWriter writer, DeflatePath parent, String[] names, Object value) {
+        String name = nameOf(field, serializer, object, names);
+        if (name == null) {
+            return;
+        }
+
+        if (field.primitiveType() != null && serializer.hasPrimitiveFastPath()) {
+            // Shorts, bytes and chars keep their type
+            serializer.writeName(writer, parent, field, name);
+            writer.writeValue(value);
+            return;
+        }
+
+        if ((value == null || field.lazyType() != null && ((Lazy<?>) value).holdsNull())
+                && serializer.skipNull().mustSkipSerialize()) {
+            return;
+        }
+
+        serializer.writeField(writer, parent, field, name, value);
+    }
+
+    /**
+     * Helper method to write a boolean field
+     */
+    private static void write(FieldModel field, ClassSerializer serializer, Object object,
+            SerializationWriter writer, DeflatePath parent, String[] names, boolean value) {
+        String name = nameOf(field, serializer, object, names);
+        if (name == null) {
+            return;
+        } else if (!serializer.hasPrimitiveFastPath()) {
+            serializer.writeField(writer, parent, field, name, value);
+            return;
+        }
+
+        serializer.writeName(writer, parent, field, name);
+        writer.writeBoolean(value);
+    }
+
+    /**
+     * Helper method to write an int field
+     */
+    private static void write(FieldModel field, ClassSerializer serializer, Object object,
+            SerializationWriter writer, DeflatePath parent, String[] names, int value) {
+        String name = nameOf(field, serializer, object, names);
+        if (name == null) {
+            return;
+        } else if (!serializer.hasPrimitiveFastPath()) {
+            serializer.writeField(writer, parent, field, name, value);
+            return;
+        }
+
+        serializer.writeName(writer, parent, field, name);
+        writer.writeInt(value);
+    }
+
+    /**
+     * Helper method to write a long field
+     */
+    private static void write(FieldModel field, ClassSerializer serializer, Object object,
+            SerializationWriter writer, DeflatePath parent, String[] names, long value) {
+        String name = nameOf(field, serializer, object, names);
+        if (name == null) {
+            return;
+        } else if (!serializer.hasPrimitiveFastPath()) {
+            serializer.writeField(writer, parent, field, name, value);
+            return;
+        }
+
+        serializer.writeName(writer, parent, field, name);
+        writer.writeLong(value);
+    }
+
+    /**
+     * Helper method to write a float field
+     */
+    private static void write(FieldModel field, ClassSerializer serializer, Object object,
+            SerializationWriter writer, DeflatePath parent, String[] names, float value) {
+        String name = nameOf(field, serializer, object, names);
+        if (name == null) {
+            return;
+        } else if (!serializer.hasPrimitiveFastPath()) {
+            serializer.writeField(writer, parent, field, name, value);
+            return;
+        }
+
+        serializer.writeName(writer, parent, field, name);
+        writer.writeFloat(value);
+    }
+
+    /**
+     * Helper method to write a double field
+     */
+    private static void write(FieldModel field, ClassSerializer serializer, Object object,
+            SerializationWriter writer, DeflatePath parent, String[] names, double value) {
+        String name = nameOf(field, serializer, object, names);
+        if (name == null) {
+            return;
+        } else if (!serializer.hasPrimitiveFastPath()) {
+            serializer.writeField(writer, parent, field, name, value);
+            return;
+        }
+
+        serializer.writeName(writer, parent, field, name);
+        writer.writeDouble(value);
+    }
+
+    /**
+     * Helper method to read the value of a reference field
+     */
+    private static Object readValue(FieldModel field, ClassSerializer serializer, SerializationReader reader) {
+        return serializer.readValue(reader, field);
+    }
+
+    /**
+     * Helper method to check if a primitive field can be read with a typed read
+     */
+    private static boolean isPlainValue(ClassSerializer serializer, SerializationReader reader) {
+        return serializer.hasPrimitiveFastPath() && reader.peek() == Token.VALUE;
+    }
+
+    /**
+     * Helper method to report a value of the wrong type for a field
+     */
+    private static void setFailed(FieldModel field, ClassCastException e) {
+        throw new SerializationException("Error setting field: " + field.name(), e);
+    }
+
+    /**
+     * Helper method to report a value that can't be converted to a primitive
+     * field
+     */
+    private static void convertFailed(FieldModel field, IllegalArgumentException e) {
+        throw new SerializationException("Cannot convert value of " + field.name() + " to " + field.type(), e);
+    }
+
+    /**
+     * Helper method to report an index without a field, which the switch never
+     * gets
+     */
+    private static void missingField(int index, ClassSerializer serializer, SerializationReader reader,
+            Object instance, boolean inPlace) {
+        throw new IndexOutOfBoundsException("No field at index: " + index);
+    }
+}
@@ -0,0 +1,320 @@
+package com.sammwy.classserializer;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The map an object is serialized to by a {@link MapWriter}.
+ * <p>
+ * The keys are held by the {@link KeySchema} of the class, shared by all its
+ * maps of one serializer, so a map only holds an array with one value per key
+ * of the schema.
+ * Entries iterate in schema order. The map stays mutable: putting a key that
+ * is not in the schema moves all entries to a {@link HashMap}, and the map is
+ * also serialized by Java serialization as a {@link HashMap}.
+ */
+final class CompactMap extends AbstractMap<String, Object> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Marks the keys of the schema that have no entry in this map
+    private static final Object ABSENT = new Object();
+
+    private final Class<?> type;
+    private final KeySchemas schemas;
+    private KeySchema schema;
+    private Object[] values;
+    private int size;
+    private Map<String, Object> spilled;
+
+    /**
+     * Creates an empty map for an object of a class.
+     *
+     * @param type    The class whose schema the map uses.
+     * @param schemas The schemas of the serializer writing the map.
+     */
+    CompactMap(Class<?> type, KeySchemas schemas) {
+        this.type = type;
+        this.schemas = schemas;
+        this.schema = schemas.of(type);
+        this.values = new Object[schema.size()];
+        Arrays.fill(values, ABSENT);
+    }
+
+    /**
+     * Puts an entry while the object is being serialized, extending the schema
+     * of this map if the key is missing.
+     *
+     * @param key   The key of the entry.
+     * @param value The value of the entry.
+     */
+    void append(String key, Object value) {
+        if (spilled == null) {
+            int index = schema.indexOf(key);
+            if (index < 0 && key != null) {
+                KeySchema extended = KeySchema.extend(schema, key);
+                if (extended != null) {
+                    grow(extended);
+                    index = schema.indexOf(key);
+                }
+            }
+            if (index >= 0) {
+                set(index, value);
+                return;
+            }
+        }
+        spill().put(key, value);
+    }
+
+    /**
+     * Offers the schema of this map to the next maps of its class, once the
+     * object is serialized. Only a schema with an entry for every key is
+     * offered, so keys that only some objects have don't reach other maps.
+     */
+    void complete() {
+        if (spilled == null && size == values.length) {
+            schemas.publish(type, schema);
+        }
+    }
+
+    @Override
+    public int size() {
+        return spilled != null ? spilled.size() : size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (spilled != null) {
+            return spilled.containsKey(key);
+        }
+        int index = schema.indexOf(key);
+        return index >= 0 && values[index] != ABSENT;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (spilled != null) {
+            return spilled.get(key);
+        }
+        int index = schema.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Object value = values[index];
+        return value != ABSENT ? value : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (spilled == null) {
+            int index = schema.indexOf(key);
+            if (index >= 0) {
+                return set(index, value);
+            }
+        }
+        return spill().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (spilled != null) {
+            return spilled.remove(key);
+        }
+        int index = schema.indexOf(key);
+        return index >= 0 ? clear(index) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (spilled != null) {
+            spilled.clear();
+        } else {
+            Arrays.fill(values, ABSENT);
+            size = 0;
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return spilled != null ? spilled.entrySet().iterator() : new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Helper method to serialize a copy of the entries, since the schema is
+     * only meaningful in this process
+     */
+    private Object writeReplace() {
+        return new HashMap<>(this);
+    }
+
+    /**
+     * Helper method to set the value of a key of the schema, returning the
+     * previous value
+     */
+    private Object set(int index, Object value) {
+        Object previous = values[index];
+        values[index] = value;
+        if (previous == ABSENT) {
+            size++;
+            return null;
+        }
+        return previous;
+    }
+
+    /**
+     * Helper method to remove the value of a key of the schema, returning the
+     * previous value
+     */
+    private Object clear(int index) {
+        Object previous = values[index];
+        if (previous == ABSENT) {
+            return null;
+        }
+        values[index] = ABSENT;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Helper method to switch to an extended schema, which keeps the indices
+     * of the current keys
+     */
+    private void grow(KeySchema extended) {
+        int length = values.length;
+        values = Arrays.copyOf(values, extended.size());
+        Arrays.fill(values, length, values.length, ABSENT);
+        schema = extended;
+    }
+
+    /**
+     * Helper method to move all entries to a hash map
+     */
+    private Map<String, Object> spill() {
+        if (spilled == null) {
+            Map<String, Object> map = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != ABSENT) {
+                    map.put(schema.key(i), values[i]);
+                }
+            }
+            spilled = map;
+            values = null;
+        }
+        return spilled;
+    }
+
+    /**
+     * Iterates over the present values in schema order.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next = advance(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (values == null) {
+                throw new ConcurrentModificationException();
+            }
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return new ValueEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            clear(last);
+            last = -1;
+        }
+
+        /**
+         * Helper method to find the next present value from an index
+         */
+        private int advance(int index) {
+            while (index < values.length && values[index] == ABSENT) {
+                index++;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * An entry that reads and writes through to the values of the map.
+     */
+    private final class ValueEntry implements Entry<String, Object> {
+        private final int index;
+
+        private ValueEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return schema.key(index);
+        }
+
+        @Override
+        public Object getValue() {
+            if (spilled != null) {
+                return spilled.get(getKey());
+            }
+            Object value = values[index];
+            return value != ABSENT ? value : null;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            // Entries outlive a spill, after which the hash map holds the values
+            return spilled != null ? spilled.put(getKey(), value) : set(index, value);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) other;
+            Object value = getValue();
+            return getKey().equals(entry.getKey())
+                    && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.sammwy.classserializer;
+
+/**
+ * The flattened key of a field in deflate mode, and the paths of the fields
+ * nested under it.
+ * <p>
+ * Paths form a tree owned by one serializer and one separator, rooted at
+ * {@link #root(String)}. The children of a path are kept per class and field
+ * position, so the key of a field nested anywhere in an object graph is only
+ * built the first time it is written or read. Paths nested too deep, which
+ * only happens with recursive types, and paths under the entries of maps,
+ * whose keys are data instead of structure, are built every time and never
+ * kept.
+ */
+final class DeflatePath {
+    // Deeper objects are only found in recursive types, whose depth is data
+    private static final int MAX_CACHED_DEPTH = 16;
+
+    private final String separator;
+    private final String name;
+    private final String key;
+    // The depth of a kept path, or -1 if it is built every time
+    private final int depth;
+    private String childPrefix;
+    private volatile Children children;
+
+    private DeflatePath(String separator, String name, String key, int depth) {
+        this.separator = separator;
+        this.name = name;
+        this.key = key;
+        this.depth = depth;
+        if (key != null) {
+            // Computed once here instead of by every map the key is put into
+            key.hashCode();
+        }
+    }
+
+    /**
+     * Creates the root of a tree of paths, whose children are the fields of
+     * the root object.
+     *
+     * @param separator The separator of deflate mode.
+     * @return The root path.
+     */
+    static DeflatePath root(String separator) {
+        return new DeflatePath(separator, null, null, 0);
+    }
+
+    /**
+     * Creates a path under a flattened key that is not kept, such as the key
+     * of a map entry, along with every path under it.
+     *
+     * @param key       The flattened key.
+     * @param separator The separator of deflate mode.
+     * @return The path.
+     */
+    static DeflatePath detached(String key, String separator) {
+        return new DeflatePath(separator, key, key, -1);
+    }
+
+    /**
+     * Gets the path of a field nested under this one, building it only the
+     * first time unless this path isn't kept.
+     *
+     * @param field The field.
+     * @param name  The serialized name of the field.
+     * @return The path of the field.
+     */
+    DeflatePath child(FieldModel field, String name) {
+        if (depth < 0 || depth >= MAX_CACHED_DEPTH) {
+            return new DeflatePath(separator, name, keyOf(name), -1);
+        }
+
+        Children node = children(field.owner());
+        DeflatePath path = node.paths[field.index()];
+        if (path == null || !path.name.equals(name)) {
+            // Only names from a field predicate change, and then the last one is kept
+            path = new DeflatePath(separator, name, keyOf(name), depth + 1);
+            node.paths[field.index()] = path;
+        }
+        return path;
+    }
+
+    /**
+     * Helper method to get the children of this path for the fields of a class
+     */
+    private Children children(Class<?> owner) {
+        for (Children node = children; node != null; node = node.next) {
+            if (node.owner == owner) {
+                return node;
+            }
+        }
+
+        synchronized (this) {
+            for (Children node = children; node != null; node = node.next) {
+                if (node.owner == owner) {
+                    return node;
+                }
+            }
+            Children node = new Children(owner, ClassModel.of(owner).fields().size(), children);
+            children = node;
+            return node;
+        }
+    }
+
+    /**
+     * Gets the flattened key of a name nested under this path.
+     *
+     * @param name The name of the nested value.
+     * @return The flattened key.
+     */
+    String keyOf(String name) {
+        return key != null ? childPrefix() + name : name;
+    }
+
+    /**
+     * @return Whether this is the root of the tree.
+     */
+    boolean isRoot() {
+        return key == null;
+    }
+
+    /**
+     * @return The flattened key of the field.
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * @return The separator of deflate mode.
+     */
+    String separator() {
+        return separator;
+    }
+
+    /**
+     * @return The prefix of the keys nested under this one, empty at the root.
+     */
+    String childPrefix() {
+        // Strings are immutable, so racing threads at worst build it twice
+        String prefix = childPrefix;
+        if (prefix == null) {
+            prefix = key != null ? key + separator : "";
+            childPrefix = prefix;
+        }
+        return prefix;
+    }
+
+    /**
+     * The paths of the fields of one class nested under a path, indexed like
+     * the model of the class.
+     */
+    private static final class Children {
+        private final Class<?> owner;
+        private final DeflatePath[] paths;
+        private final Children next;
+
+        private Children(Class<?> owner, int size, Children next) {
+            this.owner = owner;
+            this.paths = new DeflatePath[size];
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.sammwy.classserializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field by field differences between two objects, used by
+ * {@link ClassSerializer#diff(Object, Object)} and
+ * {@link ClassSerializer#applyDelta(Object, Map)}.
+ * <p>
+ * A delta only has an entry for the serialized fields that changed. Embedded
+ * objects of the same class, lists and maps get a nested delta, values that
+ * became null get {@link ClassSerializer#DELTA_REMOVED} and any other value
+ * is serialized as usual. A list delta has the changed items under their
+ * index and, if the size changed, the new size under
+ * {@link ClassSerializer#DELTA_SIZE}. A map delta has the changed entries,
+ * with {@link ClassSerializer#DELTA_REMOVED} for removed keys.
+ */
+final class Delta {
+    // Returned for values that didn't change
+    private static final Object UNCHANGED = new Object();
+
+    private Delta() {
+    }
+
+    /**
+     * Computes the changes from one object to another of the same class.
+     *
+     * @param serializer The serializer whose configuration applies.
+     * @param baseline   The object as it was.
+     * @param current    The object as it is.
+     * @return The delta, empty if nothing changed.
+     */
+    static Map<String, Object> diff(ClassSerializer serializer, Object baseline, Object current) {
+        Map<String, Object> delta = diffObject(serializer, baseline, current);
+        return delta != null ? delta : new HashMap<>();
+    }
+
+    /**
+     * Applies a delta to an object in place.
+     *
+     * @param serializer The serializer whose configuration applies.
+     * @param target     The object to update.
+     * @param delta      The changes to apply.
+     */
+    static void apply(ClassSerializer serializer, Object target, Map<String, Object> delta) {
+        for (FieldModel field : ClassModel.of(target.getClass()).fields()) {
+            String name = serializer.fieldName(field, target);
+            if (name == null || !delta.containsKey(name)) {
+                continue;
+            }
+
+            Object change = delta.get(name);
+            if (field.lazyType() != null) {
+                // Lazy values are replaced, since patching them would decode them
+                field.set(target, isRemoved(change) ? null : serializer.deserializeValue(change, field));
+                continue;
+            } else if (field.primitiveType() != null) {
+                if (isRemoved(change)) {
+                    field.setPrimitive(target, null);
+                } else {
+                    field.set(target, serializer.deserializeValue(change, field));
+                }
+                continue;
+            }
+
+            Object current = field.get(target);
+            Object value = applyValue(serializer, current, change, field.type(), field.elementType(),
+                    field.valueType());
+            if (value != current) {
+                field.set(target, value);
+            }
+        }
+    }
+
+    /**
+     * Helper method to diff the fields of two objects of the same class,
+     * returning null if none changed
+     */
+    private static Map<String, Object> diffObject(ClassSerializer serializer, Object baseline, Object current) {
+        Map<String, Object> delta = null;
+        for (FieldModel field : ClassModel.of(current.getClass()).fields()) {
+            String name = serializer.fieldName(field, current);
+            if (name == null) {
+                continue;
+            }
+
+            Object change;
+            if (field.primitiveType() != null) {
+                if (field.samePrimitive(baseline, current)) {
+                    continue;
+                }
+                change = serializer.serializeValue(field.get(current));
+            } else {
+                change = diffValue(serializer, field.get(baseline), field.get(current));
+                if (change == UNCHANGED) {
+                    continue;
+                }
+            }
+
+            if (delta == null) {
+                delta = new HashMap<>();
+            }
+            delta.put(name, change);
+        }
+        return delta;
+    }
+
+    /**
+     * Helper method to diff two values, returning the nested delta, the new
+     * serialized value or {@link #UNCHANGED}
+     */
+    private static Object diffValue(ClassSerializer serializer, Object baseline, Object current) {
+        if (baseline == current) {
+            return UNCHANGED;
+        } else if (current == null) {
+            return ClassSerializer.DELTA_REMOVED;
+        } else if (baseline == null) {
+            return serializer.serializeValue(current);
+        }
+
+        ValueHandler handler = serializer.handlerOf(current.getClass());
+        if (handler.kind() != serializer.handlerOf(baseline.getClass()).kind()) {
+            return serializer.serializeValue(current);
+        }
+
+        switch (handler.kind()) {
+            case SCALAR:
+                return current.equals(baseline) ? UNCHANGED : serializer.serializeValue(current);
+            case LIST:
+                return diffList(serializer, (List<?>) baseline, (List<?>) current);
+            case MAP:
+                return diffMap(serializer, (Map<?, ?>) baseline, (Map<?, ?>) current);
+            default:
+                if (baseline.getClass() == current.getClass() && serializer.canUpdate(current)) {
+                    Map<String, Object> delta = diffObject(serializer, baseline, current);
+                    return delta != null ? delta : UNCHANGED;
+                }
+
+                // Custom serializers and records are compared by their output
+                Object serialized = serializer.serializeValue(current);
+                return serialized.equals(serializer.serializeValue(baseline)) ? UNCHANGED : serialized;
+        }
+    }
+
+    /**
+     * Helper method to diff two lists item by item
+     */
+    private static Object diffList(ClassSerializer serializer, List<?> baseline, List<?> current) {
+        Map<String, Object> delta = null;
+        for (int i = 0; i < current.size(); i++) {
+            Object change = i < baseline.size()
+                    ? diffValue(serializer, baseline.get(i), current.get(i))
+                    : serializer.serializeValue(current.get(i));
+            if (change == UNCHANGED) {
+                continue;
+            }
+
+            if (delta == null) {
+                delta = new HashMap<>();
+            }
+            delta.put(Integer.toString(i), change);
+        }
+
+        if (baseline.size() != current.size()) {
+            if (delta == null) {
+                delta = new HashMap<>();
+            }
+            delta.put(ClassSerializer.DELTA_SIZE, current.size());
+        }
+        return delta != null ? delta : UNCHANGED;
+    }
+
+    /**
+     * Helper method to diff two maps entry by entry
+     */
+    private static Object diffMap(ClassSerializer serializer, Map<?, ?> baseline, Map<?, ?> current) {
+        Map<String, Object> delta = null;
+        for (Map.Entry<?, ?> entry : current.entrySet()) {
+            Object change = baseline.containsKey(entry.getKey())
+                    ? diffValue(serializer, baseline.get(entry.getKey()), entry.getValue())
+                    : serializer.serializeValue(entry.getValue());
+            if (change == UNCHANGED) {
+                continue;
+            }
+
+            if (delta == null) {
+                delta = new HashMap<>();
+            }
+            delta.put(entry.getKey().toString(), change);
+        }
+
+        for (Object key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                if (delta == null) {
+                    delta = new HashMap<>();
+                }
+                delta.put(key.toString(), ClassSerializer.DELTA_REMOVED);
+            }
+        }
+        return delta != null ? delta : UNCHANGED;
+    }
+
+    /**
+     * Helper method to apply a change to a value, updating lists, maps and
+     * embedded objects in place when the change is a nested delta
+     */
+    @SuppressWarnings("unchecked")
+    private static Object applyValue(ClassSerializer serializer, Object current, Object change, Class<?> type,
+            Class<?> itemType, Class<?> valueType) {
+        if (isRemoved(change)) {
+            return ClassUtils.getDefaultValue(type);
+        }
+
+        if (current != null && change instanceof Map) {
+            Map<String, Object> delta = (Map<String, Object>) change;
+            switch (serializer.handlerOf(current.getClass()).kind()) {
+                case LIST:
+                    return applyList(serializer, (List<Object>) current, delta, itemType);
+                case MAP:
+                    return applyMap(serializer, (Map<Object, Object>) current, delta, valueType);
+                default:
+                    if (serializer.canUpdate(current)) {
+                        apply(serializer, current, delta);
+                        return current;
+                    }
+                    break;
+            }
+        }
+
+        return type == Object.class ? change : serializer.deserializeValue(change, type, itemType, valueType);
+    }
+
+    /**
+     * Helper method to check for the removal marker, which may be a copy after
+     * the delta was encoded and decoded
+     */
+    private static boolean isRemoved(Object change) {
+        return ClassSerializer.DELTA_REMOVED.equals(change);
+    }
+
+    /**
+     * Helper method to apply a list delta, copying lists that can't be changed
+     */
+    private static List<Object> applyList(ClassSerializer serializer, List<Object> list, Map<String, Object> delta,
+            Class<?> itemType) {
+        try {
+            patchList(serializer, list, delta, itemType);
+            return list;
+        } catch (UnsupportedOperationException e) {
+            List<Object> copy = new ArrayList<>(list);
+            patchList(serializer, copy, delta, itemType);
+            return copy;
+        }
+    }
+
+    /**
+     * Helper method to resize a list and replace or update its changed items
+     */
+    private static void patchList(ClassSerializer serializer, List<Object> list, Map<String, Object> delta,
+            Class<?> itemType) {
+        Object size = delta.get(ClassSerializer.DELTA_SIZE);
+        if (size instanceof Number) {
+            int newSize = ((Number) size).intValue();
+            if (newSize < list.size()) {
+                list.subList(newSize, list.size()).clear();
+            }
+            while (list.size() < newSize) {
+                list.add(null);
+            }
+        }
+
+        for (Map.Entry<String, Object> entry : delta.entrySet()) {
+            if (entry.getKey().equals(ClassSerializer.DELTA_SIZE)) {
+                continue;
+            }
+
+            int index = Integer.parseInt(entry.getKey());
+            Object current = list.get(index);
+            Object value = isRemoved(entry.getValue()) ? null
+                    : applyValue(serializer, current, entry.getValue(), itemType, Object.class, Object.class);
+            if (value != current) {
+                list.set(index, value);
+            }
+        }
+    }
+
+    /**
+     * Helper method to apply a map delta, copying maps that can't be changed
+     */
+    private static Map<Object, Object> applyMap(ClassSerializer serializer, Map<Object, Object> map,
+            Map<String, Object> delta, Class<?> valueType) {
+        try {
+            patchMap(serializer, map, delta, valueType);
+            return map;
+        } catch (UnsupportedOperationException e) {
+            Map<Object, Object> copy = new HashMap<>(map);
+            patchMap(serializer, copy, delta, valueType);
+            return copy;
+        }
+    }
+
+    /**
+     * Helper method to put, update or remove the changed entries of a map
+     */
+    private static void patchMap(ClassSerializer serializer, Map<Object, Object> map, Map<String, Object> delta,
+            Class<?> valueType) {
+        for (Map.Entry<String, Object> entry : delta.entrySet()) {
+            String key = entry.getKey();
+            if (isRemoved(entry.getValue())) {
+                map.remove(key);
+                continue;
+            }
+
+            Object current = map.get(key);
+            Object value = applyValue(serializer, current, entry.getValue(), valueType, Object.class, Object.class);
+            if (value != current || !map.containsKey(key)) {
+                map.put(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.sammwy.classserializer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads and writes a single field through a var handle resolved once per
+ * field.
+ * <p>
+ * The handle is obtained through {@link MethodHandles#privateLookupIn}, so
+ * calls skip the access checks {@link Field#get} and {@link Field#set} perform
+ * every time, and primitive fields are read and written without boxing. The
+ * handle is held by the accessor rather than as a constant, so calls through
+ * it are not inlined into the codecs.
+ * <p>
+ * Static fields, writes to final fields, and fields the lookup can't reach
+ * (for example because their module isn't open to this library) go through
+ * plain reflection instead.
+ */
+final class FieldAccessor {
+    private final Field field;
+    // Null when the field is static or the lookup can't reach it
+    private final VarHandle handle;
+    // Var handles can't write final fields, which reflection can once accessible
+    private final boolean writable;
+
+    FieldAccessor(Field field) {
+        this.field = field;
+        this.handle = Modifier.isStatic(field.getModifiers()) ? null : createHandle(field);
+        this.writable = handle != null && !Modifier.isFinal(field.getModifiers());
+    }
+
+    /**
+     * Helper method to get a var handle through a private lookup on the
+     * declaring class of a field
+     */
+    private static VarHandle createHandle(Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectVarHandle(field);
+        } catch (IllegalAccessException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the value of the field.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field, boxed if it is a primitive.
+     */
+    Object get(Object target) {
+        return handle != null ? (Object) handle.get(target) : read(target);
+    }
+
+    /**
+     * Writes the value of the field.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write, boxed if the field is a primitive.
+     */
+    void set(Object target, Object value) {
+        if (!writable) {
+            write(target, value);
+            return;
+        }
+
+        try {
+            handle.set(target, value);
+        } catch (ClassCastException | NullPointerException e) {
+            throw new SerializationException("Error setting field: " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Reads the value of a boolean field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    boolean getBoolean(Object target) {
+        return handle != null ? (boolean) handle.get(target) : (Boolean) read(target);
+    }
+
+    /**
+     * Writes the value of a boolean field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setBoolean(Object target, boolean value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Reads the value of a char field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    char getChar(Object target) {
+        return handle != null ? (char) handle.get(target) : (Character) read(target);
+    }
+
+    /**
+     * Writes the value of a char field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setChar(Object target, char value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Reads the value of a byte field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    byte getByte(Object target) {
+        return handle != null ? (byte) handle.get(target) : (Byte) read(target);
+    }
+
+    /**
+     * Writes the value of a byte field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setByte(Object target, byte value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Reads the value of a short field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    short getShort(Object target) {
+        return handle != null ? (short) handle.get(target) : (Short) read(target);
+    }
+
+    /**
+     * Writes the value of a short field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setShort(Object target, short value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Reads the value of an int field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    int getInt(Object target) {
+        return handle != null ? (int) handle.get(target) : (Integer) read(target);
+    }
+
+    /**
+     * Writes the value of an int field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setInt(Object target, int value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Reads the value of a long field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    long getLong(Object target) {
+        return handle != null ? (long) handle.get(target) : (Long) read(target);
+    }
+
+    /**
+     * Writes the value of a long field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setLong(Object target, long value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Reads the value of a float field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    float getFloat(Object target) {
+        return handle != null ? (float) handle.get(target) : (Float) read(target);
+    }
+
+    /**
+     * Writes the value of a float field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setFloat(Object target, float value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Reads the value of a double field without boxing.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    double getDouble(Object target) {
+        return handle != null ? (double) handle.get(target) : (Double) read(target);
+    }
+
+    /**
+     * Writes the value of a double field without boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void setDouble(Object target, double value) {
+        if (writable) {
+            handle.set(target, value);
+        } else {
+            write(target, value);
+        }
+    }
+
+    /**
+     * Helper method to read the field through reflection
+     */
+    private Object read(Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new SerializationException("Error accessing field: " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Helper method to write the field through reflection
+     */
+    private void write(Object target, Object value) {
+        try {
+            field.set(target, value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new SerializationException("Error setting field: " + field.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.sammwy.classserializer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Immutable reflection metadata of a single field, part of a {@link ClassModel}.
+ */
+final class FieldModel {
+    private final Field field;
+    private final Class<?> owner;
+    private final int index;
+    private final String name;
+    private final Class<?> type;
+    private final Type genericType;
+    private final Class<?> elementType;
+    private final Class<?> valueType;
+    private final Class<?> lazyType;
+    private final PrimitiveType primitiveType;
+    private final boolean accessible;
+    private final FieldAccessor accessor;
+    private final boolean ignored;
+    private final String serialName;
+
+    FieldModel(Field field, Class<?> owner, int index) {
+        this.field = field;
+        this.owner = owner;
+        this.index = index;
+        this.name = field.getName();
+        this.type = field.getType();
+        this.genericType = field.getGenericType();
+
+        // Lazy fields are typed by the value they hold
+        Type valueGenericType = genericType;
+        if (type == Lazy.class) {
+            valueGenericType = genericType instanceof ParameterizedType
+                    ? ((ParameterizedType) genericType).getActualTypeArguments()[0]
+                    : Object.class;
+            this.lazyType = rawClass(valueGenericType);
+        } else {
+            this.lazyType = null;
+        }
+        this.elementType = typeArgument(valueGenericType, 0, 1);
+        this.valueType = typeArgument(valueGenericType, 1, 2);
+        this.primitiveType = PrimitiveType.of(type);
+        this.accessible = field.trySetAccessible();
+        this.accessor = new FieldAccessor(field);
+
+        SerialName serialName = field.getAnnotation(SerialName.class);
+        this.ignored = field.isAnnotationPresent(Ignore.class);
+        this.serialName = serialName != null ? serialName.value() : null;
+    }
+
+    /**
+     * Helper method to get the class of a type, or Object if it can't be resolved
+     */
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return rawClass(((ParameterizedType) type).getRawType());
+        }
+        return Object.class;
+    }
+
+    /**
+     * Helper method to extract a class type argument from a generic type
+     */
+    private static Class<?> typeArgument(Type genericType, int index, int minArguments) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] typeArgs = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (typeArgs.length >= minArguments && typeArgs[index] instanceof Class) {
+                return (Class<?>) typeArgs[index];
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * @return The reflected field.
+     */
+    Field field() {
+        return field;
+    }
+
+    /**
+     * @return The class whose model holds this field.
+     */
+    Class<?> owner() {
+        return owner;
+    }
+
+    /**
+     * @return The position of this field in the model of its owner.
+     */
+    int index() {
+        return index;
+    }
+
+    /**
+     * @return Whether the field is annotated with {@link Ignore}.
+     */
+    boolean ignored() {
+        return ignored;
+    }
+
+    /**
+     * @return The name given by {@link SerialName}, or null if there is none.
+     */
+    String serialName() {
+        return serialName;
+    }
+
+    /**
+     * @return The default serialized name of the field.
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * @return The declared type of the field.
+     */
+    Class<?> type() {
+        return type;
+    }
+
+    /**
+     * @return The generic type of the field.
+     */
+    Type genericType() {
+        return genericType;
+    }
+
+    /**
+     * @return The class of the value held by a {@link Lazy} field, or null if the
+     *         field isn't lazy.
+     */
+    Class<?> lazyType() {
+        return lazyType;
+    }
+
+    /**
+     * @return The item class of a List field, or Object if it can't be resolved.
+     *         For a {@link Lazy} field, the item class of the value it holds.
+     */
+    Class<?> elementType() {
+        return elementType;
+    }
+
+    /**
+     * @return The value class of a Map field, or Object if it can't be resolved.
+     *         For a {@link Lazy} field, the value class of the value it holds.
+     */
+    Class<?> valueType() {
+        return valueType;
+    }
+
+    /**
+     * @return The primitive type of the field, or null if it is a reference.
+     */
+    PrimitiveType primitiveType() {
+        return primitiveType;
+    }
+
+    /**
+     * @return The accessor of the field, for typed primitive access.
+     */
+    FieldAccessor accessor() {
+        return accessor;
+    }
+
+    /**
+     * @return Whether the field could be made accessible.
+     */
+    boolean isAccessible() {
+        return accessible;
+    }
+
+    /**
+     * Reads the value of this field.
+     *
+     * @param target The object to read the field from.
+     * @return The value of the field.
+     */
+    Object get(Object target) {
+        return accessor.get(target);
+    }
+
+    /**
+     * Writes the value of this field.
+     *
+     * @param target The object to write the field to.
+     * @param value  The value to write.
+     */
+    void set(Object target, Object value) {
+        accessor.set(target, value);
+    }
+
+    /**
+     * Converts a serialized value and writes it to this primitive field without
+     * boxing.
+     *
+     * @param target The object to write the field to.
+     * @param value  The serialized value, null for the default value.
+     */
+    void setPrimitive(Object target, Object value) {
+        try {
+            switch (primitiveType) {
+                case BOOLEAN:
+                    accessor.setBoolean(target, PrimitiveType.toBoolean(value));
+                    break;
+                case CHAR:
+                    accessor.setChar(target, PrimitiveType.toChar(value));
+                    break;
+                case BYTE:
+                    accessor.setByte(target, PrimitiveType.toByte(value));
+                    break;
+                case SHORT:
+                    accessor.setShort(target, PrimitiveType.toShort(value));
+                    break;
+                case INT:
+                    accessor.setInt(target, PrimitiveType.toInt(value));
+                    break;
+                case LONG:
+                    accessor.setLong(target, PrimitiveType.toLong(value));
+                    break;
+                case FLOAT:
+                    accessor.setFloat(target, PrimitiveType.toFloat(value));
+                    break;
+                case DOUBLE:
+                    accessor.setDouble(target, PrimitiveType.toDouble(value));
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot convert " + value.getClass() + " to " + type, e);
+        }
+    }
+
+    /**
+     * Compares this primitive field of two objects without boxing. Floating
+     * point values are compared like their wrappers, so NaN equals NaN.
+     *
+     * @param first  The first object to read the field from.
+     * @param second The second object to read the field from.
+     * @return True if both objects have the same value.
+     */
+    boolean samePrimitive(Object first, Object second) {
+        switch (primitiveType) {
+            case BOOLEAN:
+                return accessor.getBoolean(first) == accessor.getBoolean(second);
+            case INT:
+                return accessor.getInt(first) == accessor.getInt(second);
+            case LONG:
+                return accessor.getLong(first) == accessor.getLong(second);
+            case FLOAT:
+                return Float.compare(accessor.getFloat(first), accessor.getFloat(second)) == 0;
+            case DOUBLE:
+                return Double.compare(accessor.getDouble(first), accessor.getDouble(second)) == 0;
+            default:
+                return accessor.get(first).equals(accessor.get(second));
+        }
+    }
+
+    /**
+     * Reads this primitive field and writes it to a serialization writer without
+     * boxing. Shorts, bytes and chars keep their type through
+     * {@link SerializationWriter#writeValue(Object)}.
+     *
+     * @param target The object to read the field from.
+     * @param writer The writer to write the value to.
+     */
+    void writePrimitive(Object target, SerializationWriter writer) {
+        switch (primitiveType) {
+            case BOOLEAN:
+                writer.writeBoolean(accessor.getBoolean(target));
+                break;
+            case INT:
+                writer.writeInt(accessor.getInt(target));
+                break;
+            case LONG:
+                writer.writeLong(accessor.getLong(target));
+                break;
+            case FLOAT:
+                writer.writeFloat(accessor.getFloat(target));
+                break;
+            case DOUBLE:
+                writer.writeDouble(accessor.getDouble(target));
+                break;
+            default:
+                writer.writeValue(accessor.get(target));
+                break;
+        }
+    }
+
+    /**
+     * Reads the next value of a serialization reader into this primitive field,
+     * using the typed reads of the reader where possible.
+     *
+     * @param target The object to write the field to.
+     * @param reader The reader positioned at the value.
+     */
+    void readPrimitive(Object target, SerializationReader reader) {
+        SerializationReader.Token token = reader.peek();
+        if (token == SerializationReader.Token.NULL) {
+            reader.nextNull();
+            setPrimitive(target, null);
+            return;
+        } else if (token != SerializationReader.Token.VALUE) {
+            throw new SerializationException("Cannot convert " + token + " to " + type);
+        }
+
+        try {
+            switch (primitiveType) {
+                case BOOLEAN:
+                    accessor.setBoolean(target, reader.nextBoolean());
+                    break;
+                case INT:
+                    accessor.setInt(target, reader.nextInt());
+                    break;
+                case LONG:
+                    accessor.setLong(target, reader.nextLong());
+                    break;
+                case DOUBLE:
+                    accessor.setDouble(target, reader.nextDouble());
+                    break;
+                default:
+                    setPrimitive(target, reader.nextValue());
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot convert value of " + name + " to " + type, e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.sammwy.classserializer;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The serialized names of the fields of every class, as the field filter or
+ * field predicate of a {@link ClassSerializer} gives them.
+ * <p>
+ * With a field filter, the names of the fields of a class are resolved the
+ * first time the class is used and kept in a table indexed like its
+ * {@link ClassModel}, so the filter runs once per field. With a field
+ * predicate, the predicate runs for every field of every object, and the last
+ * name it gave each field is kept so equal names share one instance. A new
+ * instance replaces this one whenever the filter or predicate changes, so the
+ * tables are owned by the serializer and released together with it, except
+ * for the {@link #DEFAULT default names}, which all serializers share.
+ * <p>
+ * The {@link KeySchemas} of the maps written with these names are kept here
+ * too, so serializers that share the names also share the keys.
+ */
+final class FieldNames {
+    /**
+     * The names of the default field filter, which serializes every field under
+     * its own name.
+     */
+    static final FieldNames DEFAULT = new FieldNames(Field::getName, null);
+
+    private final Function<Field, String> filter;
+    private final BiFunction<Field, Object, String> predicate;
+
+    // The keys of the maps written without deflate mode, and with each separator
+    private final KeySchemas keySchemas = new KeySchemas();
+    private final Map<String, KeySchemas> deflatedKeySchemas = new ConcurrentHashMap<>();
+
+    // The names given by the filter, or the last ones given by the predicate
+    private final ClassValue<String[]> tables = new ClassValue<String[]>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            return predicate == null ? resolve(type) : new String[ClassModel.of(type).fields().size()];
+        }
+    };
+
+    // The fields of each class by the name the filter gives them
+    private final ClassValue<Map<String, int[]>> indexes = new ClassValue<Map<String, int[]>>() {
+        @Override
+        protected Map<String, int[]> computeValue(Class<?> type) {
+            return indexNames(tables.get(type));
+        }
+    };
+
+    /**
+     * Creates the names given by a field filter, or by a field predicate if
+     * there is one.
+     *
+     * @param filter    The field filter, kept to switch back to it.
+     * @param predicate The field predicate, or null to use the filter.
+     */
+    FieldNames(Function<Field, String> filter, BiFunction<Field, Object, String> predicate) {
+        this.filter = filter;
+        this.predicate = predicate;
+    }
+
+    /**
+     * @return The field filter.
+     */
+    Function<Field, String> filter() {
+        return filter;
+    }
+
+    /**
+     * Gets the keys of the maps written with these names.
+     *
+     * @param separator The deflate separator, or null if deflate mode is off.
+     * @return The schemas of the keys.
+     */
+    KeySchemas keySchemas(String separator) {
+        return separator == null ? keySchemas
+                : deflatedKeySchemas.computeIfAbsent(separator, key -> new KeySchemas());
+    }
+
+    /**
+     * @return Whether names depend on the object, because they come from a
+     *         field predicate.
+     */
+    boolean isDynamic() {
+        return predicate != null;
+    }
+
+    /**
+     * Gets the names the field filter gives the fields of a class.
+     *
+     * @param type The class whose fields to name.
+     * @return The serialized name of every field of the class, indexed like its
+     *         model and null for skipped fields, or null if names come from a
+     *         field predicate.
+     */
+    String[] table(Class<?> type) {
+        return predicate == null ? tables.get(type) : null;
+    }
+
+    /**
+     * Gets the fields of a class by the name the field filter gives them.
+     *
+     * @param type The class whose fields to look up.
+     * @return The indices in the model of the class of the fields with each
+     *         name, more than one when fields share a name, or null if names
+     *         come from a field predicate.
+     */
+    Map<String, int[]> index(Class<?> type) {
+        return predicate == null ? indexes.get(type) : null;
+    }
+
+    /**
+     * Gets the serialized name of a field. {@link Ignore} and
+     * {@link SerialName} take precedence over the filter or predicate.
+     *
+     * @param field  The field to name.
+     * @param object The object the field belongs to, or null if it doesn't
+     *               exist yet.
+     * @return The serialized name, or null if the field is skipped.
+     */
+    String name(FieldModel field, Object object) {
+        if (predicate == null) {
+            return tables.get(field.owner())[field.index()];
+        } else if (field.ignored()) {
+            return null;
+        }
+
+        String name = predicate.apply(field.field(), object);
+        if (name == null) {
+            return null;
+        } else if (field.serialName() != null) {
+            return field.serialName();
+        }
+
+        // Racing threads at worst keep each other's name
+        String[] last = tables.get(field.owner());
+        String cached = last[field.index()];
+        if (name.equals(cached)) {
+            return cached;
+        }
+        last[field.index()] = name;
+        return name;
+    }
+
+    /**
+     * Helper method to map the names of a table to the indices of the fields
+     * with each name
+     */
+    private static Map<String, int[]> indexNames(String[] names) {
+        Map<String, int[]> index = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null) {
+                int[] indices = index.get(names[i]);
+                if (indices == null) {
+                    indices = new int[] { i };
+                } else {
+                    indices = Arrays.copyOf(indices, indices.length + 1);
+                    indices[indices.length - 1] = i;
+                }
+                index.put(names[i], indices);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Helper method to run the filter on every field of a class
+     */
+    private String[] resolve(Class<?> type) {
+        List<FieldModel> fields = ClassModel.of(type).fields();
+        String[] names = new String[fields.size()];
+        for (int i = 0; i < names.length; i++) {
+            FieldModel field = fields.get(i);
+            if (!field.ignored()) {
+                String name = filter.apply(field.field());
+                names[i] = name != null && field.serialName() != null ? field.serialName() : name;
+            }
+        }
+        return names;
+    }
+}
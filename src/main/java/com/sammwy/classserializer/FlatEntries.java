@@ -0,0 +1,92 @@
+package com.sammwy.classserializer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The entries of a deflate mode map being deserialized, looked up by their
+ * flattened keys.
+ * <p>
+ * Fields of map types and fields with custom serializers take every entry
+ * under their key. The keys are sorted the first time that happens, once per
+ * deserialized map, so the entries under a key are found by binary search
+ * instead of scanning the whole map for every such field of every object.
+ * Instances are only used by the thread deserializing the map.
+ */
+final class FlatEntries {
+    private final Map<String, Object> map;
+    private String[] sortedKeys;
+
+    /**
+     * Creates the entries of a flat map.
+     *
+     * @param map The flat map to look the keys up in.
+     */
+    FlatEntries(Map<String, Object> map) {
+        this.map = map;
+    }
+
+    /**
+     * Gets the value of a flattened key.
+     *
+     * @param key The flattened key.
+     * @return The value, or null if there is none.
+     */
+    Object get(String key) {
+        return map.get(key);
+    }
+
+    /**
+     * Checks if the map has a flattened key.
+     *
+     * @param key The flattened key.
+     * @return True if the key is present.
+     */
+    boolean containsKey(String key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Collects the entries whose keys start with a prefix, with the prefix
+     * removed from their keys.
+     *
+     * @param prefix The prefix of the keys.
+     * @return The entries, or null if there are none.
+     */
+    Map<String, Object> under(String prefix) {
+        String[] keys = sortedKeys();
+        int index = Arrays.binarySearch(keys, prefix);
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        // Sorted keys sharing a prefix are next to each other
+        Map<String, Object> entries = null;
+        for (; index < keys.length && keys[index].startsWith(prefix); index++) {
+            if (entries == null) {
+                entries = new HashMap<>();
+            }
+            entries.put(keys[index].substring(prefix.length()), map.get(keys[index]));
+        }
+        return entries;
+    }
+
+    /**
+     * Helper method to sort the keys of the map the first time they are needed
+     */
+    private String[] sortedKeys() {
+        if (sortedKeys == null) {
+            String[] keys = new String[map.size()];
+            int size = 0;
+            for (String key : map.keySet()) {
+                if (key != null) {
+                    keys[size++] = key;
+                }
+            }
+            sortedKeys = Arrays.copyOf(keys, size);
+            Arrays.sort(sortedKeys);
+        }
+        return sortedKeys;
+    }
+}
@@ -0,0 +1,168 @@
+package com.sammwy.classserializer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only flattened view of a nested map, with the same keys and values as
+ * {@link MapDeflate#deflate(Map, String)} would produce.
+ * <p>
+ * Lookups walk the nested map along the key, and iteration builds the
+ * flattened keys one entry at a time, so nothing is copied. Changes to the
+ * nested map are visible through the view.
+ */
+final class FlatMapView extends AbstractMap<String, Object> {
+    private static final Object MISSING = new Object();
+
+    private final Map<String, Object> nested;
+    private final String separator;
+
+    FlatMapView(Map<String, Object> nested, String separator) {
+        this.nested = nested;
+        this.separator = separator;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = key instanceof String ? lookup(nested, (String) key, 0, true) : MISSING;
+        return value != MISSING ? value : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && lookup(nested, (String) key, 0, true) != MISSING;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new FlatIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Iterator<Entry<String, Object>> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Helper method to find the leaf at the rest of a key, trying every
+     * separator in it as a boundary between nested keys, since keys may
+     * contain the separator themselves
+     */
+    @SuppressWarnings("unchecked")
+    private Object lookup(Map<String, Object> map, String key, int from, boolean emptyPath) {
+        String rest = from == 0 ? key : key.substring(from);
+        Object value = map.get(rest);
+        if ((value != null || map.containsKey(rest)) && !(value instanceof Map)) {
+            return value;
+        }
+
+        for (int next = key.indexOf(separator, from); next >= 0; next = key.indexOf(separator, next + 1)) {
+            Object child = map.get(key.substring(from, next));
+            if (child instanceof Map) {
+                Object found = lookup((Map<String, Object>) child, key, next + separator.length(), false);
+                if (found != MISSING) {
+                    return found;
+                }
+            }
+        }
+
+        // Children of an empty key at the root are flattened without a separator
+        if (emptyPath) {
+            Object child = map.get("");
+            if (child instanceof Map && child != map) {
+                return lookup((Map<String, Object>) child, key, from, true);
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Walks the nested maps depth first, building each flattened key in a shared
+     * buffer.
+     */
+    private final class FlatIterator implements Iterator<Entry<String, Object>> {
+        private final StringBuilder path = new StringBuilder();
+        private Iterator<?>[] iterators = new Iterator<?>[8];
+        private int[] prefixLengths = new int[8];
+        private int depth = 0;
+        private Entry<String, Object> next;
+
+        private FlatIterator() {
+            iterators[0] = nested.entrySet().iterator();
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            Entry<String, Object> current = next;
+            advance();
+            return current;
+        }
+
+        /**
+         * Helper method to move to the next leaf
+         */
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Iterator<?> iterator = iterators[depth];
+                if (!iterator.hasNext()) {
+                    iterators[depth--] = null;
+                    continue;
+                }
+
+                Entry<String, Object> entry = (Entry<String, Object>) iterator.next();
+                int prefixLength = prefixLengths[depth];
+                path.setLength(prefixLength);
+                if (prefixLength != 0) {
+                    path.append(separator);
+                }
+                path.append(entry.getKey());
+
+                Object value = entry.getValue();
+                if (value instanceof Map) {
+                    push(((Map<String, Object>) value).entrySet().iterator());
+                } else {
+                    next = new SimpleImmutableEntry<>(path.toString(), value);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Helper method to descend into a nested map
+         */
+        private void push(Iterator<?> iterator) {
+            if (++depth == iterators.length) {
+                iterators = Arrays.copyOf(iterators, depth * 2);
+                prefixLengths = Arrays.copyOf(prefixLengths, depth * 2);
+            }
+            iterators[depth] = iterator;
+            prefixLengths[depth] = path.length();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sammwy.classserializer;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which the annotation processor generates a reflection-free
+ * {@link Serializer} at compile time.
+ * <p>
+ * All non-static fields of the class and its superclasses are serialized under
+ * their own names. They must be public or in the package of the class, and
+ * not final, and the class must either be a record or have a non-private
+ * no-args constructor. Fields hidden by a subclass field of the same name are
+ * handled as reflection does: the superclass value is written, and reading
+ * sets all of them.
+ * The {@link ClassSerializer} field filter and field predicate aren't applied
+ * to these classes, but {@link SerialName} and {@link Ignore} are.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GenerateSerializer {
+}
@@ -0,0 +1,155 @@
+package com.sammwy.classserializer;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template of the codecs of the {@link ClassSerializer.Engine#GENERATED}
+ * engine.
+ * <p>
+ * {@link CodecGenerator} defines a hidden copy of this class per serialized
+ * type, with the model of the type and the handles built by
+ * {@link CodecHandles} as class data. Every copy keeps them in static final
+ * fields, so the JIT treats the handles as constants and compiles them into
+ * code for that type alone. The template itself is never initialized, since
+ * only hidden copies have class data, and it must stay self-contained: no
+ * nested classes or lambdas.
+ * <p>
+ * Writing always runs the handles, and so does reading into instances created
+ * without constructor parameters. Instances created from constructor
+ * parameters and deflate mode reads go through the reflective codec of the
+ * type.
+ */
+final class GeneratedCodec implements ObjectCodec {
+    private static final ClassModel MODEL = data(ClassModel.class, 0);
+    private static final MethodHandle WRITER = data(MethodHandle.class, 1);
+    private static final MethodHandle READER = data(MethodHandle.class, 2);
+
+    @Override
+    public void writeFields(ClassSerializer serializer, Object object, SerializationWriter writer, DeflatePath parent) {
+        try {
+            WRITER.invokeExact(serializer, object, writer, parent, serializer.fieldNames(MODEL.type()));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SerializationException("Error serializing class: " + MODEL.type().getName(), e);
+        }
+    }
+
+    @Override
+    public Object read(ClassSerializer serializer, SerializationReader reader) {
+        InstanceFactory factory = serializer.instanceFactory(MODEL.type());
+        if (!factory.parameters().isEmpty() || factory.remainingFields(MODEL) != MODEL.fields()) {
+            return MODEL.codec().read(serializer, reader);
+        }
+
+        Object instance = factory.create();
+        readFields(serializer, reader, instance, false);
+        return instance;
+    }
+
+    @Override
+    public void readInto(ClassSerializer serializer, SerializationReader reader, Object instance) {
+        readFields(serializer, reader, instance, true);
+    }
+
+    @Override
+    public Object readFlat(ClassSerializer serializer, FlatEntries flat, DeflatePath parent, Object target) {
+        return MODEL.codec().readFlat(serializer, flat, parent, target);
+    }
+
+    /**
+     * Helper method to read the entries of an object into the fields of an
+     * instance through the switch of the type
+     */
+    private void readFields(ClassSerializer serializer, SerializationReader reader, Object instance,
+            boolean inPlace) {
+        Map<String, int[]> index = serializer.fieldIndex(MODEL.type());
+        if (index == null) {
+            readNamedFields(serializer, reader, instance, inPlace);
+            return;
+        }
+
+        List<FieldModel> fields = MODEL.fields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int[] indices = index.get(reader.nextName());
+            if (indices == null) {
+                reader.skipValue();
+            } else if (indices.length == 1) {
+                readField(indices[0], serializer, reader, instance, inPlace);
+            } else {
+                // Shadowed fields share their name, and all of them get the value
+                Object value = serializer.readTree(reader);
+                for (int i : indices) {
+                    ModelCodec.setField(serializer, fields.get(i), instance, value);
+                }
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Helper method to read the entries of an object into fields whose names
+     * are only known for this instance
+     */
+    private void readNamedFields(ClassSerializer serializer, SerializationReader reader, Object instance,
+            boolean inPlace) {
+        List<FieldModel> fields = MODEL.fields();
+        String[] names = ModelCodec.fieldNames(serializer, MODEL.type(), fields, instance);
+        reader.beginObject();
+
+        // Entries usually arrive in field order, so look there first
+        int expected = 0;
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            int index = ModelCodec.indexOf(names, name, expected);
+            if (index < 0) {
+                reader.skipValue();
+                continue;
+            }
+
+            if (ModelCodec.lastIndexOf(names, name) == index) {
+                readField(index, serializer, reader, instance, inPlace);
+            } else {
+                Object value = serializer.readTree(reader);
+                for (int i = 0; i < names.length; i++) {
+                    if (name.equals(names[i])) {
+                        ModelCodec.setField(serializer, fields.get(i), instance, value);
+                    }
+                }
+            }
+            expected = index + 1;
+        }
+
+        reader.endObject();
+    }
+
+    /**
+     * Helper method to read the next value into the field at an index
+     */
+    private void readField(int index, ClassSerializer serializer, SerializationReader reader, Object instance,
+            boolean inPlace) {
+        try {
+            READER.invokeExact(index, serializer, reader, instance, inPlace);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SerializationException("Error deserializing class: " + MODEL.type().getName(), e);
+        }
+    }
+
+    /**
+     * Helper method to get an element of the class data of a hidden copy
+     */
+    private static <T> T data(Class<T> type, int index) {
+        try {
+            return MethodHandles.classDataAt(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, type, index);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Codec templates only run as hidden classes", e);
+        }
+    }
+}
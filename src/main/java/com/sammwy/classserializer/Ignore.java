@@ -0,0 +1,18 @@
+package com.sammwy.classserializer;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Excludes a field from serialization, whatever the {@link ClassSerializer}
+ * field filter or field predicate returns for it.
+ * <p>
+ * Generated serializers skip the field too. An ignored record component is
+ * never written and gets its default value when the record is read.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.RECORD_COMPONENT })
+public @interface Ignore {
+}
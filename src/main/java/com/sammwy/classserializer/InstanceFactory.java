@@ -0,0 +1,365 @@
+package com.sammwy.classserializer;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates instances of a class through a constructor resolved once per class.
+ * <p>
+ * The constructor is picked in this order:
+ * <ol>
+ * <li>The canonical constructor of records.</li>
+ * <li>A no-args constructor.</li>
+ * <li>An all-args constructor, whose parameters match the fields of the class
+ * by name. The names come from {@code @ConstructorProperties}, or from the
+ * parameters themselves when compiled with {@code -parameters}. Without
+ * either, parameters are never matched by position, since two fields of the
+ * same type could be swapped silently.</li>
+ * <li>The first declared constructor, called with default values.</li>
+ * </ol>
+ * With a record or all-args constructor the object is built in a single pass
+ * from the deserialized values of its {@link #parameters()}, and only the
+ * {@link #remainingFields(ClassModel)} are set afterwards.
+ */
+final class InstanceFactory {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final ClassValue<InstanceFactory> FACTORIES = new ClassValue<InstanceFactory>() {
+        @Override
+        protected InstanceFactory computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final Constructor<?> reflectiveConstructor;
+    private final Object[] defaultArguments;
+    private final List<FieldModel> parameters;
+    private final List<FieldModel> remainingFields;
+    private final Instantiator<?> instantiator;
+    private final boolean instantiable;
+
+    private InstanceFactory(Class<?> type, Constructor<?> constructor, List<FieldModel> parameters,
+            List<FieldModel> remainingFields) {
+        this.type = type;
+        this.reflectiveConstructor = constructor;
+        this.constructor = constructor != null ? createHandle(constructor) : null;
+        this.parameters = parameters;
+        this.remainingFields = remainingFields;
+        this.instantiator = null;
+        this.instantiable = constructor != null && !Modifier.isAbstract(type.getModifiers());
+
+        Class<?>[] parameterTypes = constructor != null ? constructor.getParameterTypes() : new Class<?>[0];
+        this.defaultArguments = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            defaultArguments[i] = ClassUtils.getDefaultValue(parameterTypes[i]);
+        }
+    }
+
+    private InstanceFactory(Class<?> type, Instantiator<?> instantiator) {
+        this.type = type;
+        this.reflectiveConstructor = null;
+        this.constructor = null;
+        this.defaultArguments = NO_ARGUMENTS;
+        this.parameters = Collections.emptyList();
+        this.remainingFields = null;
+        this.instantiator = instantiator;
+        this.instantiable = true;
+    }
+
+    /**
+     * Gets the cached factory of a class, resolving it on first use.
+     *
+     * @param type The class to create instances of.
+     * @return The factory of the class.
+     */
+    static InstanceFactory of(Class<?> type) {
+        return FACTORIES.get(type);
+    }
+
+    /**
+     * Creates a factory backed by a custom instantiator.
+     *
+     * @param type         The class to create instances of.
+     * @param instantiator The instantiator to use.
+     * @return The new factory.
+     */
+    static InstanceFactory of(Class<?> type, Instantiator<?> instantiator) {
+        return new InstanceFactory(type, instantiator);
+    }
+
+    /**
+     * Helper method to pick the constructor strategy of a class
+     */
+    private static InstanceFactory resolve(Class<?> type) {
+        if (type.isInterface() || type.isPrimitive() || type.isArray()) {
+            return new InstanceFactory(type, null, Collections.emptyList(), null);
+        }
+
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            String[] names = new String[components.length];
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+                names[i] = components[i].getName();
+            }
+
+            try {
+                Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+                return withParameters(type, canonical, names);
+            } catch (NoSuchMethodException e) {
+                // Not possible for well-formed records, fall through to the generic lookup
+            }
+        }
+
+        Constructor<?>[] constructors = type.getDeclaredConstructors();
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.getParameterCount() == 0) {
+                return new InstanceFactory(type, constructor, Collections.emptyList(), null);
+            }
+        }
+
+        for (Constructor<?> constructor : constructors) {
+            String[] names = allArgsNames(type, constructor);
+            if (names != null) {
+                return withParameters(type, constructor, names);
+            }
+        }
+
+        // Use the first constructor with default values, fields are set afterwards
+        Constructor<?> fallback = constructors.length > 0 ? constructors[0] : null;
+        return new InstanceFactory(type, fallback, Collections.emptyList(), null);
+    }
+
+    /**
+     * Helper method to create a factory whose constructor parameters map to
+     * fields of the class
+     */
+    private static InstanceFactory withParameters(Class<?> type, Constructor<?> constructor, String[] names) {
+        List<FieldModel> fields = ClassModel.of(type).fields();
+        List<FieldModel> parameters = new ArrayList<>(names.length);
+        List<FieldModel> remaining = new ArrayList<>(fields);
+
+        for (String name : names) {
+            FieldModel parameter = null;
+            for (FieldModel field : fields) {
+                if (field.field().getDeclaringClass() == type && field.name().equals(name)) {
+                    parameter = field;
+                    break;
+                }
+            }
+            parameters.add(parameter);
+            remaining.remove(parameter);
+        }
+
+        return new InstanceFactory(type, constructor, Collections.unmodifiableList(parameters),
+                Collections.unmodifiableList(remaining));
+    }
+
+    /**
+     * Helper method to match the parameters of a constructor to the instance
+     * fields declared by its class
+     *
+     * @return The field name of every parameter, or null if the constructor isn't
+     *         an all-args constructor.
+     */
+    private static String[] allArgsNames(Class<?> type, Constructor<?> constructor) {
+        List<FieldModel> fields = new ArrayList<>();
+        for (FieldModel field : ClassModel.of(type).fields()) {
+            if (field.field().getDeclaringClass() == type && !Modifier.isStatic(field.field().getModifiers())
+                    && !field.field().isSynthetic()) {
+                fields.add(field);
+            }
+        }
+
+        Parameter[] parameters = constructor.getParameters();
+        if (parameters.length != fields.size()) {
+            return null;
+        }
+
+        String[] parameterNames = parameterNames(constructor);
+        if (parameterNames == null || parameterNames.length != parameters.length) {
+            return null;
+        }
+
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            FieldModel match = null;
+            for (FieldModel field : fields) {
+                if (field.name().equals(parameterNames[i])) {
+                    match = field;
+                    break;
+                }
+            }
+
+            if (match == null || match.type() != parameters[i].getType()) {
+                return null;
+            }
+            names[i] = match.name();
+        }
+
+        return names;
+    }
+
+    /**
+     * Helper method to get the declared names of the parameters of a
+     * constructor, or null if they weren't kept by the compiler
+     */
+    private static String[] parameterNames(Constructor<?> constructor) {
+        // Looked up by name, so the java.desktop module stays optional
+        for (Annotation annotation : constructor.getDeclaredAnnotations()) {
+            if (annotation.annotationType().getName().equals("java.beans.ConstructorProperties")) {
+                try {
+                    return (String[]) annotation.annotationType().getMethod("value").invoke(annotation);
+                } catch (ReflectiveOperationException e) {
+                    return null;
+                }
+            }
+        }
+
+        Parameter[] parameters = constructor.getParameters();
+        if (parameters.length == 0 || !parameters[0].isNamePresent()) {
+            return null;
+        }
+
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            names[i] = parameters[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * Helper method to create a constructor handle of type (Object[])Object
+     */
+    private static MethodHandle createHandle(Constructor<?> constructor) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(constructor.getDeclaringClass(),
+                    MethodHandles.lookup());
+            return lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (IllegalAccessException | SecurityException e) {
+            // Not reachable through a lookup, use reflection instead
+            constructor.trySetAccessible();
+            return null;
+        }
+    }
+
+    /**
+     * @return The fields whose deserialized values are passed to the
+     *         constructor, in parameter order. Entries may be null for parameters
+     *         that don't match a field.
+     */
+    List<FieldModel> parameters() {
+        return parameters;
+    }
+
+    /**
+     * @param model The model of the class.
+     * @return The fields that must be set after the instance is created.
+     */
+    List<FieldModel> remainingFields(ClassModel model) {
+        return remainingFields != null ? remainingFields : model.fields();
+    }
+
+    /**
+     * @return Whether instances of the class can be created at all.
+     */
+    boolean isInstantiable() {
+        return instantiable;
+    }
+
+    /**
+     * Creates an instance with default values for all constructor parameters.
+     *
+     * @return The new instance.
+     * @throws NoSuchMethodException     If the class has no constructor.
+     * @throws IllegalAccessException    If the constructor can't be accessed.
+     * @throws InstantiationException    If the class is abstract.
+     * @throws InvocationTargetException If the constructor throws an exception.
+     */
+    Object newInstance()
+            throws NoSuchMethodException, IllegalAccessException, InstantiationException, InvocationTargetException {
+        return newInstance(defaultArguments);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param arguments The constructor arguments.
+     * @return The new instance.
+     * @throws NoSuchMethodException     If the class has no constructor.
+     * @throws IllegalAccessException    If the constructor can't be accessed.
+     * @throws InstantiationException    If the class is abstract.
+     * @throws InvocationTargetException If the constructor throws an exception.
+     */
+    private Object newInstance(Object[] arguments)
+            throws NoSuchMethodException, IllegalAccessException, InstantiationException, InvocationTargetException {
+        if (instantiator != null) {
+            return instantiator.newInstance();
+        }
+        if (reflectiveConstructor == null) {
+            throw new NoSuchMethodException("No constructor found for class: " + type.getName());
+        }
+        if (!instantiable) {
+            throw new InstantiationException("Can't instantiate abstract class: " + type.getName());
+        }
+        if (constructor == null) {
+            return reflectiveConstructor.newInstance(arguments);
+        }
+
+        try {
+            return (Object) constructor.invokeExact(arguments);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Creates an instance with default values for all constructor parameters,
+     * wrapping any failure in a serialization exception.
+     *
+     * @return The new instance.
+     */
+    Object create() {
+        return create(defaultArguments);
+    }
+
+    /**
+     * Creates an instance, wrapping any failure in a serialization exception.
+     *
+     * @param arguments The constructor arguments, one per {@link #parameters()}.
+     * @return The new instance.
+     */
+    Object create(Object[] arguments) {
+        try {
+            return newInstance(arguments);
+        } catch (ReflectiveOperationException e) {
+            throw new SerializationException("Error creating instance of class: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * @return A new argument array with the default value of every constructor
+     *         parameter, to be filled by the caller.
+     */
+    Object[] defaultArguments() {
+        return defaultArguments.clone();
+    }
+}
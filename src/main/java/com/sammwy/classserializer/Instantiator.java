@@ -0,0 +1,18 @@
+package com.sammwy.classserializer;
+
+/**
+ * Interface for custom instantiators, used to create the instances that are
+ * filled during deserialization.
+ *
+ * @param <T> The type of object the instantiator creates.
+ */
+@FunctionalInterface
+public interface Instantiator<T> {
+    /**
+     * Creates a new instance whose fields will then be set from the serialized
+     * data.
+     *
+     * @return The new instance.
+     */
+    T newInstance();
+}
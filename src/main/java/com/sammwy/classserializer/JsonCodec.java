@@ -0,0 +1,129 @@
+package com.sammwy.classserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import com.sammwy.classserializer.SerializationReader.Token;
+
+/**
+ * JSON encoding of objects, without building maps in between.
+ * <p>
+ * Objects are written straight to UTF-8 bytes, using the field names of their
+ * classes quoted and escaped ahead of time, and are parsed straight into new
+ * instances. The output has the same structure that
+ * {@link ClassSerializer#serialize(Object)} returns, so the field predicate,
+ * the null handling mode, deflate mode and the registered serializers of the
+ * {@link ClassSerializer} apply as usual.
+ */
+public final class JsonCodec {
+    private final ClassSerializer serializer;
+
+    /**
+     * Creates a JSON codec.
+     *
+     * @param serializer The serializer whose configuration applies.
+     */
+    public JsonCodec(ClassSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Encodes an object to UTF-8 JSON bytes.
+     *
+     * @param object The object to encode.
+     * @return The encoded bytes.
+     */
+    public byte[] encode(Object object) {
+        JsonWriter writer = new JsonWriter();
+        encode(object, writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Encodes an object as UTF-8 JSON to a stream. The stream is not closed.
+     *
+     * @param object The object to encode.
+     * @param stream The stream to write to.
+     * @throws IOException If the stream fails.
+     */
+    public void encode(Object object, OutputStream stream) throws IOException {
+        JsonWriter writer = new JsonWriter(stream);
+        try {
+            encode(object, writer);
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Encodes an object as JSON text to an appendable.
+     *
+     * @param object The object to encode.
+     * @param out    The appendable to write to.
+     * @throws IOException If the appendable fails.
+     */
+    public void encode(Object object, Appendable out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        try {
+            encode(object, writer);
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Decodes an object from UTF-8 JSON bytes.
+     *
+     * @param <T>   The type of the object to decode.
+     * @param clazz The class of the encoded object.
+     * @param bytes The encoded bytes.
+     * @return The decoded object.
+     */
+    public <T> T decode(Class<T> clazz, byte[] bytes) {
+        JsonReader reader = new JsonReader(bytes, 0, bytes.length);
+        T result = serializer.deserialize(clazz, reader);
+        if (reader.peek() != Token.END_DOCUMENT) {
+            throw new SerializationException("Unexpected content after the JSON value for class: " + clazz.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Decodes an object from a stream of UTF-8 JSON. The stream is read to its
+     * end but not closed.
+     *
+     * @param <T>    The type of the object to decode.
+     * @param clazz  The class of the encoded object.
+     * @param stream The stream to read from.
+     * @return The decoded object.
+     * @throws IOException If the stream fails.
+     */
+    public <T> T decode(Class<T> clazz, InputStream stream) throws IOException {
+        return decode(clazz, stream.readAllBytes());
+    }
+
+    /**
+     * Decodes an object from JSON text.
+     *
+     * @param <T>   The type of the object to decode.
+     * @param clazz The class of the encoded object.
+     * @param json  The JSON text.
+     * @return The decoded object.
+     */
+    public <T> T decode(Class<T> clazz, CharSequence json) {
+        return decode(clazz, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Helper method to encode the root object, through the same walk as every
+     * other writer
+     */
+    private void encode(Object object, JsonWriter writer) {
+        serializer.serialize(object, writer);
+    }
+}
@@ -0,0 +1,64 @@
+package com.sammwy.classserializer;
+
+/**
+ * The JSON layout of a class, computed once per class.
+ * <p>
+ * Keeps the quoted and escaped name of each field as UTF-8 bytes, so writing
+ * a name is a single copy. Since the field predicate decides the names, the
+ * encoded name of a field is replaced whenever the predicate returns a
+ * different one.
+ */
+final class JsonLayout {
+    private static final ClassValue<JsonLayout> LAYOUTS = new ClassValue<JsonLayout>() {
+        @Override
+        protected JsonLayout computeValue(Class<?> type) {
+            return new JsonLayout(ClassModel.of(type));
+        }
+    };
+
+    private final EncodedName[] names;
+
+    private JsonLayout(ClassModel model) {
+        this.names = new EncodedName[model.fields().size()];
+    }
+
+    /**
+     * Gets the cached layout of a class, computing it on first use.
+     *
+     * @param type The class to get the layout for.
+     * @return The layout of the class.
+     */
+    static JsonLayout of(Class<?> type) {
+        return LAYOUTS.get(type);
+    }
+
+    /**
+     * Gets the encoded form of a field name.
+     *
+     * @param ordinal The ordinal of the field.
+     * @param name    The name returned by the field predicate.
+     * @return The quoted and escaped name, followed by a colon.
+     */
+    byte[] encodedName(int ordinal, String name) {
+        EncodedName encoded = names[ordinal];
+        if (encoded == null || !encoded.name.equals(name)) {
+            // Entries are immutable, so racing threads at worst encode twice
+            encoded = new EncodedName(name, JsonWriter.encodeName(name));
+            names[ordinal] = encoded;
+        }
+        return encoded.bytes;
+    }
+
+    /**
+     * A field name with its encoded bytes.
+     */
+    private static final class EncodedName {
+        private final String name;
+        private final byte[] bytes;
+
+        private EncodedName(String name, byte[] bytes) {
+            this.name = name;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,589 @@
+package com.sammwy.classserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads JSON from UTF-8 bytes, token by token.
+ * <p>
+ * Integers are parsed straight from the bytes, strings without escapes are
+ * decoded in a single step, and the names of object entries are shared
+ * through a small cache so repeated names don't allocate new strings.
+ */
+final class JsonReader implements SerializationReader {
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private static final int KIND_STRING = 0;
+    private static final int KIND_NUMBER = 1;
+    private static final int KIND_TRUE = 2;
+    private static final int KIND_FALSE = 3;
+
+    private static final int NAME_CACHE_SIZE = 512;
+    private static final CachedName[] NAMES = new CachedName[NAME_CACHE_SIZE];
+
+    private final byte[] data;
+    private final int end;
+    private int position;
+
+    private int[] stack = new int[16];
+    private int depth;
+
+    private Token peeked;
+    private int kind;
+    private int valueStart;
+    private int valueEnd;
+    private boolean integral;
+    private String name;
+
+    /**
+     * Creates a reader over a range of UTF-8 bytes.
+     *
+     * @param data   The bytes to read.
+     * @param offset The position of the first byte.
+     * @param length The number of bytes to read.
+     */
+    JsonReader(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    @Override
+    public Token peek() {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        switch (stack[depth]) {
+            case EMPTY_DOCUMENT:
+                stack[depth] = NONEMPTY_DOCUMENT;
+                return peekValue();
+            case NONEMPTY_DOCUMENT:
+                if (skipWhitespace() == -1) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                return peekValue();
+            case EMPTY_ARRAY:
+                if (skipWhitespace() == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                stack[depth] = NONEMPTY_ARRAY;
+                return peekValue();
+            case NONEMPTY_ARRAY:
+                int next = skipWhitespace();
+                if (next == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                expectChar(',');
+                return peekValue();
+            case EMPTY_OBJECT:
+                if (skipWhitespace() == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                return peekName();
+            case NONEMPTY_OBJECT:
+                if (skipWhitespace() == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                expectChar(',');
+                return peekName();
+            default:
+                skipWhitespace();
+                expectChar(':');
+                stack[depth] = NONEMPTY_OBJECT;
+                return peekValue();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    @Override
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    @Override
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        position++;
+        depth--;
+        peeked = null;
+    }
+
+    @Override
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    @Override
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        position++;
+        depth--;
+        peeked = null;
+    }
+
+    @Override
+    public String nextName() {
+        expect(Token.NAME);
+        stack[depth] = DANGLING_NAME;
+        peeked = null;
+        return name;
+    }
+
+    @Override
+    public void nextNull() {
+        expect(Token.NULL);
+        peeked = null;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        expect(Token.VALUE);
+        if (kind == KIND_TRUE || kind == KIND_FALSE) {
+            peeked = null;
+            return kind == KIND_TRUE;
+        }
+        return PrimitiveType.toBoolean(nextValue());
+    }
+
+    @Override
+    public int nextInt() {
+        expect(Token.VALUE);
+        if (kind == KIND_NUMBER && integral && valueEnd - valueStart <= 10) {
+            long value = parseLong();
+            if (value == (int) value) {
+                peeked = null;
+                return (int) value;
+            }
+        }
+        return PrimitiveType.toInt(nextValue());
+    }
+
+    @Override
+    public long nextLong() {
+        expect(Token.VALUE);
+        if (kind == KIND_NUMBER && integral && valueEnd - valueStart <= 18) {
+            peeked = null;
+            return parseLong();
+        }
+        return PrimitiveType.toLong(nextValue());
+    }
+
+    @Override
+    public double nextDouble() {
+        expect(Token.VALUE);
+        return PrimitiveType.toDouble(nextValue());
+    }
+
+    @Override
+    public String nextString() {
+        expect(Token.VALUE);
+        if (kind == KIND_STRING) {
+            peeked = null;
+            return readString(valueStart, valueEnd);
+        }
+        return nextValue().toString();
+    }
+
+    @Override
+    public Object nextValue() {
+        expect(Token.VALUE);
+        peeked = null;
+        switch (kind) {
+            case KIND_STRING:
+                return readString(valueStart, valueEnd);
+            case KIND_TRUE:
+                return Boolean.TRUE;
+            case KIND_FALSE:
+                return Boolean.FALSE;
+            default:
+                return parseNumber();
+        }
+    }
+
+    @Override
+    public void skipValue() {
+        if (peek() == Token.NAME) {
+            nextName();
+        } else if (!hasNext()) {
+            throw error("Expected a value but got " + peek());
+        }
+
+        int level = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    level++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    level++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    level--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    level--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                default:
+                    // Scalars were already scanned by peek
+                    peeked = null;
+                    break;
+            }
+        } while (level > 0);
+    }
+
+    /**
+     * Helper method to scan the value at the current position
+     */
+    private Token peekValue() {
+        int c = skipWhitespace();
+        switch (c) {
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                kind = KIND_STRING;
+                valueStart = position + 1;
+                valueEnd = scanString(valueStart);
+                position = valueEnd + 1;
+                return peeked = Token.VALUE;
+            case 't':
+                literal("true");
+                kind = KIND_TRUE;
+                return peeked = Token.VALUE;
+            case 'f':
+                literal("false");
+                kind = KIND_FALSE;
+                return peeked = Token.VALUE;
+            case 'n':
+                literal("null");
+                return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    scanNumber();
+                    return peeked = Token.VALUE;
+                }
+                throw error(c == -1 ? "Unexpected end of input" : "Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Helper method to scan the name of an entry
+     */
+    private Token peekName() {
+        if (skipWhitespace() != '"') {
+            throw error("Expected a name");
+        }
+
+        int start = position + 1;
+        int stop = scanString(start);
+        position = stop + 1;
+        name = cachedName(start, stop);
+        return peeked = Token.NAME;
+    }
+
+    /**
+     * Helper method to find the closing quote of a string
+     */
+    private int scanString(int start) {
+        for (int i = start; i < end; i++) {
+            byte b = data[i];
+            if (b == '"') {
+                return i;
+            } else if (b == '\\') {
+                i++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    /**
+     * Helper method to find the end of a number
+     */
+    private void scanNumber() {
+        valueStart = position;
+        integral = true;
+        int i = position;
+        if (data[i] == '-') {
+            i++;
+        }
+        for (; i < end; i++) {
+            byte b = data[i];
+            if (b == '.' || b == 'e' || b == 'E' || b == '+' || (b == '-' && i > valueStart)) {
+                integral = false;
+            } else if (b < '0' || b > '9') {
+                break;
+            }
+        }
+        valueEnd = i;
+        position = i;
+        kind = KIND_NUMBER;
+    }
+
+    /**
+     * Helper method to parse the scanned number as the smallest fitting type
+     */
+    private Object parseNumber() {
+        if (integral && valueEnd - valueStart <= 18) {
+            long value = parseLong();
+            return value == (int) value ? (Object) (int) value : (Object) value;
+        }
+
+        String text = new String(data, valueStart, valueEnd - valueStart, StandardCharsets.ISO_8859_1);
+        try {
+            return integral ? (Object) Long.parseLong(text) : (Object) Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.parseDouble(text);
+        }
+    }
+
+    /**
+     * Helper method to parse a scanned integer of up to 18 digits
+     */
+    private long parseLong() {
+        int i = valueStart;
+        boolean negative = data[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == valueEnd) {
+            throw error("Invalid number");
+        }
+
+        long value = 0;
+        for (; i < valueEnd; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Helper method to decode a scanned string, resolving escapes
+     */
+    private String readString(int start, int stop) {
+        int escape = -1;
+        for (int i = start; i < stop; i++) {
+            if (data[i] == '\\') {
+                escape = i;
+                break;
+            }
+        }
+        if (escape == -1) {
+            return new String(data, start, stop - start, StandardCharsets.UTF_8);
+        }
+
+        byte[] bytes = new byte[stop - start];
+        int length = escape - start;
+        System.arraycopy(data, start, bytes, 0, length);
+        for (int i = escape; i < stop; i++) {
+            byte b = data[i];
+            if (b != '\\') {
+                bytes[length++] = b;
+                continue;
+            }
+
+            byte escaped = data[++i];
+            switch (escaped) {
+                case 'n':
+                    bytes[length++] = '\n';
+                    break;
+                case 'r':
+                    bytes[length++] = '\r';
+                    break;
+                case 't':
+                    bytes[length++] = '\t';
+                    break;
+                case 'b':
+                    bytes[length++] = '\b';
+                    break;
+                case 'f':
+                    bytes[length++] = '\f';
+                    break;
+                case 'u':
+                    int codePoint = hex(i + 1);
+                    i += 4;
+                    if (Character.isHighSurrogate((char) codePoint) && i + 6 < stop && data[i + 1] == '\\'
+                            && data[i + 2] == 'u') {
+                        char low = (char) hex(i + 3);
+                        if (Character.isLowSurrogate(low)) {
+                            codePoint = Character.toCodePoint((char) codePoint, low);
+                            i += 6;
+                        }
+                    }
+                    length = utf8(bytes, length, codePoint);
+                    break;
+                default:
+                    bytes[length++] = escaped;
+                    break;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method to encode a code point as UTF-8, which never takes more bytes
+     * than its escape sequence
+     */
+    private static int utf8(byte[] bytes, int length, int codePoint) {
+        if (codePoint < 0x80) {
+            bytes[length++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            bytes[length++] = (byte) (0xC0 | (codePoint >> 6));
+            bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            bytes[length++] = (byte) (0xE0 | (codePoint >> 12));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+        return length;
+    }
+
+    /**
+     * Helper method to parse four hex digits
+     */
+    private int hex(int start) {
+        if (start + 4 > end) {
+            throw error("Invalid unicode escape");
+        }
+
+        int value = 0;
+        for (int i = start; i < start + 4; i++) {
+            int digit = Character.digit(data[i], 16);
+            if (digit < 0) {
+                throw error("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to get the string of a name, reusing a cached instance when
+     * the same bytes were read before
+     */
+    private String cachedName(int start, int stop) {
+        int hash = 1;
+        for (int i = start; i < stop; i++) {
+            hash = 31 * hash + data[i];
+        }
+
+        int slot = hash & (NAME_CACHE_SIZE - 1);
+        CachedName cached = NAMES[slot];
+        if (cached != null && Arrays.equals(cached.bytes, 0, cached.bytes.length, data, start, stop)) {
+            return cached.name;
+        }
+
+        String value = readString(start, stop);
+        if (stop - start <= 64) {
+            NAMES[slot] = new CachedName(Arrays.copyOfRange(data, start, stop), value);
+        }
+        return value;
+    }
+
+    /**
+     * Helper method to check a literal at the current position
+     */
+    private void literal(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (position + i >= end || data[position + i] != literal.charAt(i)) {
+                throw error("Expected '" + literal + "'");
+            }
+        }
+        position += literal.length();
+    }
+
+    /**
+     * Helper method to skip whitespace
+     *
+     * @return The next character, or -1 at the end of the input.
+     */
+    private int skipWhitespace() {
+        while (position < end) {
+            byte b = data[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return b;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to consume a structural character
+     */
+    private void expectChar(char c) {
+        if (skipWhitespace() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Helper method to enter an object or array
+     */
+    private void push(int state) {
+        position++;
+        peeked = null;
+        if (++depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth] = state;
+    }
+
+    /**
+     * Helper method to check the kind of the next token
+     */
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) {
+            throw error("Expected " + expected + " but got " + token);
+        }
+    }
+
+    /**
+     * Helper method to create an error with the current position
+     */
+    private SerializationException error(String message) {
+        return new SerializationException("Malformed JSON at offset " + position + ": " + message);
+    }
+
+    /**
+     * A name read before, with its encoded bytes.
+     */
+    private static final class CachedName {
+        private final byte[] bytes;
+        private final String name;
+
+        private CachedName(byte[] bytes, String name) {
+            this.bytes = bytes;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.sammwy.classserializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes JSON as UTF-8 bytes.
+ * <p>
+ * Output goes to an internal buffer that either grows, or is flushed to an
+ * {@link OutputStream} or decoded to an {@link Appendable} whenever it fills
+ * up. Numbers are formatted straight into the buffer, and names that were
+ * escaped ahead of time are copied as-is with {@link #rawName(byte[])}.
+ */
+final class JsonWriter implements SerializationWriter {
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e',
+            'f' };
+    private static final byte[] MIN_LONG = { '-', '9', '2', '2', '3', '3', '7', '2', '0', '3', '6', '8', '5', '4',
+            '7', '7', '5', '8', '0', '8' };
+
+    private final OutputStream stream;
+    private byte[] buffer;
+    private int position;
+
+    // When writing text, decodes the buffer into the chars appended
+    private final Appendable appendable;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars;
+
+    // Per nesting level, whether the next entry is the first one
+    private boolean[] first = new boolean[16];
+    private char[] closers = new char[16];
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * Creates a writer that keeps all output in memory.
+     */
+    JsonWriter() {
+        this((OutputStream) null);
+    }
+
+    /**
+     * Creates a writer that flushes its output to a stream.
+     *
+     * @param stream The stream to write to, or null to keep the output in memory.
+     */
+    JsonWriter(OutputStream stream) {
+        this.stream = stream;
+        this.buffer = new byte[stream != null ? 8192 : 256];
+        this.appendable = null;
+        this.decoder = null;
+        this.chars = null;
+    }
+
+    /**
+     * Creates a writer that flushes its output as text to an appendable.
+     *
+     * @param appendable The appendable to write to.
+     */
+    JsonWriter(Appendable appendable) {
+        this.stream = null;
+        this.buffer = new byte[8192];
+        this.appendable = appendable;
+        // Lone surrogates are encoded as they are, and decode to replacements like new String does
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(buffer.length);
+    }
+
+    /**
+     * @return A copy of the output kept in memory.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Writes the remaining output to the stream or appendable.
+     */
+    void flush() {
+        try {
+            if (stream != null) {
+                stream.write(buffer, 0, position);
+                position = 0;
+            } else if (appendable != null) {
+                decode();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void beginObject() {
+        open('}');
+        put('{');
+    }
+
+    @Override
+    public void beginArray() {
+        open(']');
+        put('[');
+    }
+
+    @Override
+    public void end() {
+        put(closers[depth--]);
+    }
+
+    @Override
+    public void name(String name) {
+        separate();
+        quote(name);
+        put(':');
+        afterName = true;
+    }
+
+    /**
+     * Writes a name that is already quoted, escaped and followed by a colon.
+     *
+     * @param name The encoded name.
+     */
+    void rawName(byte[] name) {
+        separate();
+        put(name, 0, name.length);
+        afterName = true;
+    }
+
+    @Override
+    public void writeNull() {
+        beforeValue();
+        put(NULL, 0, NULL.length);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        beforeValue();
+        byte[] literal = value ? TRUE : FALSE;
+        put(literal, 0, literal.length);
+    }
+
+    @Override
+    public void writeInt(int value) {
+        writeLong(value);
+    }
+
+    @Override
+    public void writeLong(long value) {
+        beforeValue();
+        if (value == Long.MIN_VALUE) {
+            put(MIN_LONG, 0, MIN_LONG.length);
+            return;
+        }
+
+        ensure(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            // Not valid JSON numbers, written as strings that parse back
+            writeString(Float.toString(value));
+        } else {
+            beforeValue();
+            ascii(Float.toString(value));
+        }
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeString(Double.toString(value));
+        } else {
+            beforeValue();
+            ascii(Double.toString(value));
+        }
+    }
+
+    @Override
+    public void writeString(String value) {
+        beforeValue();
+        quote(value);
+    }
+
+    @Override
+    public void writeValue(Object value) {
+        if (value instanceof Short || value instanceof Byte || value instanceof Integer || value instanceof Long) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            // Written exactly, since doubles would round them
+            beforeValue();
+            ascii(value.toString());
+        } else if (value instanceof Number) {
+            writeDouble(((Number) value).doubleValue());
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    /**
+     * Quotes and escapes a name, followed by a colon, for
+     * {@link #rawName(byte[])}.
+     *
+     * @param name The name to encode.
+     * @return The encoded name.
+     */
+    static byte[] encodeName(String name) {
+        JsonWriter writer = new JsonWriter();
+        writer.quote(name);
+        writer.put(':');
+        return writer.toByteArray();
+    }
+
+    /**
+     * Helper method to start a nested object or array
+     */
+    private void open(char closer) {
+        beforeValue();
+        if (++depth == first.length) {
+            first = Arrays.copyOf(first, depth * 2);
+            closers = Arrays.copyOf(closers, depth * 2);
+        }
+        first[depth] = true;
+        closers[depth] = closer;
+    }
+
+    /**
+     * Helper method to write the comma between array items
+     */
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else {
+            separate();
+        }
+    }
+
+    /**
+     * Helper method to write the comma between entries
+     */
+    private void separate() {
+        if (depth == 0) {
+            return;
+        }
+        if (!first[depth]) {
+            put(',');
+        }
+        first[depth] = false;
+    }
+
+    /**
+     * Helper method to write a quoted string with JSON escapes
+     */
+    private void quote(String value) {
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+                put(c);
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x80) {
+                put(c);
+            } else if (c < 0x800) {
+                put((char) (0xC0 | (c >> 6)));
+                put((char) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                put((char) (0xF0 | (codePoint >> 18)));
+                put((char) (0x80 | ((codePoint >> 12) & 0x3F)));
+                put((char) (0x80 | ((codePoint >> 6) & 0x3F)));
+                put((char) (0x80 | (codePoint & 0x3F)));
+            } else {
+                put((char) (0xE0 | (c >> 12)));
+                put((char) (0x80 | ((c >> 6) & 0x3F)));
+                put((char) (0x80 | (c & 0x3F)));
+            }
+        }
+        put('"');
+    }
+
+    /**
+     * Helper method to escape a control character
+     */
+    private void escapeControl(char c) {
+        put('\\');
+        switch (c) {
+            case '\n':
+                put('n');
+                break;
+            case '\r':
+                put('r');
+                break;
+            case '\t':
+                put('t');
+                break;
+            case '\b':
+                put('b');
+                break;
+            case '\f':
+                put('f');
+                break;
+            default:
+                put('u');
+                put('0');
+                put('0');
+                put((char) HEX[c >> 4]);
+                put((char) HEX[c & 0xF]);
+                break;
+        }
+    }
+
+    /**
+     * Helper method to write a string that only contains ASCII characters
+     */
+    private void ascii(String value) {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    /**
+     * Helper method to write a single byte
+     */
+    private void put(char c) {
+        ensure(1);
+        buffer[position++] = (byte) c;
+    }
+
+    /**
+     * Helper method to write a range of bytes
+     */
+    private void put(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    /**
+     * Helper method to decode the buffer to the appendable, keeping the bytes
+     * of a character that the end of the buffer splits
+     */
+    private void decode() throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, position);
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, false);
+            chars.flip();
+            appendable.append(chars);
+            chars.clear();
+        } while (result.isOverflow());
+
+        position = bytes.remaining();
+        System.arraycopy(buffer, bytes.position(), buffer, 0, position);
+    }
+
+    /**
+     * Helper method to make room in the buffer, flushing or growing it
+     */
+    private void ensure(int bytes) {
+        if (buffer.length - position >= bytes) {
+            return;
+        }
+
+        if (stream != null || appendable != null) {
+            flush();
+            if (buffer.length - position >= bytes) {
+                return;
+            }
+        }
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+    }
+}
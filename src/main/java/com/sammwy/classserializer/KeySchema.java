@@ -0,0 +1,142 @@
+package com.sammwy.classserializer;
+
+import java.util.Arrays;
+
+/**
+ * The keys of the {@link CompactMap}s of a class, shared by every map of the
+ * class.
+ * <p>
+ * A schema is immutable and indexes its keys in an open addressing table
+ * sized so that, whenever possible, every key gets a slot of its own and a
+ * lookup is a single probe. When a map needs another key, it extends its own
+ * schema with one more key, and {@link KeySchemas} decides whether the other
+ * maps of the class start from the extended schema, so the keys of a class
+ * converge to the keys its objects are serialized with.
+ */
+final class KeySchema {
+    /**
+     * The most keys a schema holds. Maps that need more fall back to a
+     * {@link java.util.HashMap}.
+     */
+    static final int MAX_KEYS = 64;
+
+    // A perfect table is searched up to this many slots per key
+    private static final int MAX_TABLE_FACTOR = 16;
+
+    /**
+     * The schema without keys, which the first map of a class starts from.
+     */
+    static final KeySchema EMPTY = new KeySchema(new String[0]);
+
+    private final String[] keys;
+    private final int[] table;
+    private final int mask;
+
+    private KeySchema(String[] keys) {
+        this.keys = keys;
+        this.table = buildTable(keys);
+        this.mask = table.length - 1;
+    }
+
+    /**
+     * Gets a schema with the keys of another one, at the same indices, and one
+     * more key at the end.
+     *
+     * @param from The schema to extend.
+     * @param key  The key to add.
+     * @return The extended schema, or null if the schema is already full.
+     */
+    static KeySchema extend(KeySchema from, String key) {
+        if (from.keys.length >= MAX_KEYS) {
+            return null;
+        }
+
+        String[] keys = Arrays.copyOf(from.keys, from.keys.length + 1);
+        keys[from.keys.length] = key;
+        return new KeySchema(keys);
+    }
+
+    /**
+     * @return The number of keys.
+     */
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param index The index of the key.
+     * @return The key at the index.
+     */
+    String key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the index of a key.
+     *
+     * @param key The key to look up.
+     * @return The index of the key, or -1 if it's not in the schema.
+     */
+    int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        for (int slot = spread(key.hashCode()) & mask;; slot = (slot + 1) & mask) {
+            int index = table[slot];
+            if (index < 0) {
+                return -1;
+            }
+            String candidate = keys[index];
+            if (candidate == key || candidate.equals(key)) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Helper method to build the index table, growing it until no two keys
+     * share a slot, or else settling for linear probing
+     */
+    private static int[] buildTable(String[] keys) {
+        int size = Integer.highestOneBit(Math.max(1, keys.length) * 2 - 1) << 1;
+        for (int length = size; length <= size * MAX_TABLE_FACTOR; length <<= 1) {
+            int[] table = new int[length];
+            Arrays.fill(table, -1);
+            if (fill(table, keys, false)) {
+                return table;
+            }
+        }
+
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        fill(table, keys, true);
+        return table;
+    }
+
+    /**
+     * Helper method to put the index of every key in a table, failing on the
+     * first collision unless probing is allowed
+     */
+    private static boolean fill(int[] table, String[] keys, boolean probe) {
+        int mask = table.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = spread(keys[i].hashCode()) & mask;
+            while (table[slot] >= 0) {
+                if (!probe) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i;
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to mix the high bits of a hash code into the low ones
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,54 @@
+package com.sammwy.classserializer;
+
+/**
+ * The current {@link KeySchema} of every class serialized by one
+ * configuration of a {@link ClassSerializer}.
+ * <p>
+ * The keys of a class depend on the field names and the deflate separator, so
+ * each {@link FieldNames} keeps one instance per separator, and serializers
+ * with the same names and separator share it. A schema
+ * only becomes the schema of its class once a map has an entry for every one
+ * of its keys, so keys that only some objects have, such as the entries of
+ * flattened maps, don't pile up in the schema every new map starts from.
+ */
+final class KeySchemas {
+    private final ClassValue<Latest> schemas = new ClassValue<Latest>() {
+        @Override
+        protected Latest computeValue(Class<?> type) {
+            return new Latest();
+        }
+    };
+
+    /**
+     * Gets the current schema of a class.
+     *
+     * @param type The class to get the schema for.
+     * @return The schema new maps of the class start from.
+     */
+    KeySchema of(Class<?> type) {
+        return schemas.get(type).schema;
+    }
+
+    /**
+     * Makes a schema the schema of a class, if it has more keys than the
+     * current one.
+     *
+     * @param type   The class the schema belongs to.
+     * @param schema The schema of a map that has an entry for every key.
+     */
+    void publish(Class<?> type, KeySchema schema) {
+        Latest latest = schemas.get(type);
+        if (schema.size() > latest.schema.size()) {
+            // Racing threads at worst replace each other's schema, which only
+            // costs the next map another extension
+            latest.schema = schema;
+        }
+    }
+
+    /**
+     * The current schema of a class.
+     */
+    private static final class Latest {
+        private volatile KeySchema schema = KeySchema.EMPTY;
+    }
+}
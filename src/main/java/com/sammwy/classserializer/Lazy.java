@@ -0,0 +1,118 @@
+package com.sammwy.classserializer;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A field value that is only deserialized when it's first used.
+ * <p>
+ * Fields declared as {@code Lazy<T>} keep the serialized form of their value
+ * when an object is deserialized, such as the map of an embedded object or
+ * the raw items of a list, and convert it to {@code T} on the first call to
+ * {@link #get()}. The value is decoded at most once, even when several
+ * threads ask for it at the same time. A lazy value that was never decoded
+ * is serialized again straight from its serialized form.
+ *
+ * @param <T> The type of the value.
+ */
+public final class Lazy<T> {
+    private final Object serialized;
+    private Function<Object, ? extends T> decoder;
+    private T value;
+    private volatile boolean decoded;
+
+    private Lazy(Object serialized, Function<Object, ? extends T> decoder, T value, boolean decoded) {
+        this.serialized = serialized;
+        this.decoder = decoder;
+        this.value = value;
+        this.decoded = decoded;
+    }
+
+    /**
+     * Creates a lazy holder of a value that is already available.
+     *
+     * @param <T>   The type of the value.
+     * @param value The value, which may be null.
+     * @return The holder.
+     */
+    public static <T> Lazy<T> of(T value) {
+        return new Lazy<>(null, null, value, true);
+    }
+
+    /**
+     * Creates a lazy holder of a value that is decoded on first use.
+     *
+     * @param <T>        The type of the value.
+     * @param serialized The serialized form of the value.
+     * @param decoder    The function that decodes the serialized form.
+     * @return The holder.
+     */
+    static <T> Lazy<T> serialized(Object serialized, Function<Object, ? extends T> decoder) {
+        return new Lazy<>(serialized, decoder, null, false);
+    }
+
+    /**
+     * Gets the value, decoding it on the first call.
+     *
+     * @return The value.
+     * @throws SerializationException If the serialized form can't be decoded. The
+     *                                next call tries again.
+     */
+    public T get() {
+        if (!decoded) {
+            synchronized (this) {
+                if (!decoded) {
+                    value = decoder.apply(serialized);
+                    decoder = null;
+                    // The volatile write publishes the value to other threads
+                    decoded = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return Whether the value was already decoded or given.
+     */
+    public boolean isDecoded() {
+        return decoded;
+    }
+
+    /**
+     * @return Whether the value is known to be null without decoding it.
+     */
+    boolean holdsNull() {
+        return decoded && value == null;
+    }
+
+    /**
+     * @return The serialized form of a value that was not decoded yet.
+     */
+    Object serialized() {
+        return serialized;
+    }
+
+    /**
+     * Compares the values of two holders, decoding both.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (!(other instanceof Lazy)) {
+            return false;
+        }
+        return Objects.equals(get(), ((Lazy<?>) other).get());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(get());
+    }
+
+    @Override
+    public String toString() {
+        return decoded ? "Lazy[" + value + "]" : "Lazy[not decoded]";
+    }
+}
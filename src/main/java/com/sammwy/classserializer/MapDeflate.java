@@ -2,7 +2,7 @@ package com.sammwy.classserializer;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.function.BiFunction;
 
 /**
  * A utility class that provides methods to flatten (deflate) and unflatten
@@ -21,6 +21,14 @@ import java.util.regex.Pattern;
  * @version 1.0
  */
 public class MapDeflate {
+    /**
+     * Keeps an existing nested map, or replaces a missing or non-map value with
+     * a new one, in a single lookup.
+     */
+    private static final BiFunction<String, Object, Object> NESTED_MAP = (key, existing) -> existing instanceof Map
+            ? existing
+            : new HashMap<String, Object>();
+
     private MapDeflate() {
     }
 
@@ -51,8 +59,9 @@ public class MapDeflate {
      * @return A new map with all nested structures flattened
      */
     public static Map<String, Object> deflate(Map<String, Object> nestedMap, String separator) {
-        Map<String, Object> result = new HashMap<>();
-        deflateRecursive(nestedMap, "", separator, result);
+        // Every entry of the root adds at least one key, unless it's an empty map
+        Map<String, Object> result = new HashMap<>(capacityFor(nestedMap.size()));
+        deflateRecursive(nestedMap, new StringBuilder(), separator, result);
         return result;
     }
 
@@ -60,28 +69,36 @@ public class MapDeflate {
      * Helper method that recursively traverses the nested map structure.
      *
      * @param currentMap The current map being processed
-     * @param prefix     The current key prefix (empty for the root map)
+     * @param path       The current key prefix (empty for the root map), shared
+     *                   by the whole traversal and restored before returning
      * @param separator  The string separator to use between keys
      * @param result     The resulting flattened map that's being built
      */
     @SuppressWarnings("unchecked")
-    private static void deflateRecursive(Map<String, Object> currentMap, String prefix,
+    private static void deflateRecursive(Map<String, Object> currentMap, StringBuilder path,
             String separator, Map<String, Object> result) {
+        int prefixLength = path.length();
+
         for (Map.Entry<String, Object> entry : currentMap.entrySet()) {
-            String key = entry.getKey();
             Object value = entry.getValue();
 
             // Determine the full key path
-            String fullKey = prefix.isEmpty() ? key : prefix + separator + key;
+            path.setLength(prefixLength);
+            if (prefixLength != 0) {
+                path.append(separator);
+            }
+            path.append(entry.getKey());
 
             if (value instanceof Map) {
                 // Recursively process nested maps
-                deflateRecursive((Map<String, Object>) value, fullKey, separator, result);
+                deflateRecursive((Map<String, Object>) value, path, separator, result);
             } else {
                 // Add the leaf node to the result
-                result.put(fullKey, value);
+                result.put(path.toString(), value);
             }
         }
+
+        path.setLength(prefixLength);
     }
 
     /**
@@ -110,40 +127,169 @@ public class MapDeflate {
      *                  child keys
      * @return A new map with the nested structure restored
      */
-    @SuppressWarnings("unchecked")
     public static Map<String, Object> inflate(Map<String, Object> flatMap, String separator) {
-        Map<String, Object> result = new HashMap<>();
+        // The root never has more entries than the flat map
+        Map<String, Object> result = new HashMap<>(capacityFor(flatMap.size()));
 
         for (Map.Entry<String, Object> entry : flatMap.entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
+            if (separator.isEmpty()) {
+                inflateCharacters(result, entry.getKey(), entry.getValue());
+            } else {
+                inflateKey(result, entry.getKey(), separator, entry.getValue());
+            }
+        }
 
-            String[] keyParts = key.split(Pattern.quote(separator));
+        return result;
+    }
 
-            // Start with the result map
-            Map<String, Object> currentMap = result;
+    /**
+     * Helper method to put a value at the path of a flat key, splitting it at the
+     * separator without regular expressions.
+     * <p>
+     * Like {@link String#split(String)}, leading and inner empty parts are kept
+     * and trailing empty parts are dropped. If a non-map value is in the way of
+     * the path, it's replaced with a map.
+     */
+    @SuppressWarnings("unchecked")
+    private static void inflateKey(Map<String, Object> result, String key, String separator, Object value) {
+        int limit = pathEnd(key, separator);
+        if (limit < 0) {
+            // Nothing but separators, there is no path to follow
+            result.put(key, value);
+            return;
+        }
 
-            // Navigate through the key parts (except the last one)
-            for (int i = 0; i < keyParts.length - 1; i++) {
-                String keyPart = keyParts[i];
+        // Navigate through the key parts (except the last one)
+        Map<String, Object> currentMap = result;
+        int start = 0;
+        int next;
+        while ((next = key.indexOf(separator, start)) >= 0 && next < limit) {
+            currentMap = (Map<String, Object>) currentMap.compute(key.substring(start, next), NESTED_MAP);
+            start = next + separator.length();
+        }
 
-                // If this key doesn't exist yet, create a new map for it
-                if (!currentMap.containsKey(keyPart)) {
-                    currentMap.put(keyPart, new HashMap<String, Object>());
-                } else if (!(currentMap.get(keyPart) instanceof Map)) {
-                    // If a non-map value already exists at this key, replace it with a map
-                    currentMap.put(keyPart, new HashMap<String, Object>());
-                }
+        // Add the value at the final level
+        currentMap.put(key.substring(start, limit), value);
+    }
 
-                // Move to the next level
-                currentMap = (Map<String, Object>) currentMap.get(keyPart);
+    /**
+     * Finds where the path of a flat key ends, which is the end of its last
+     * non-empty part since trailing empty parts are dropped.
+     *
+     * @param key       The flat key.
+     * @param separator The separator between the parts of the key, not empty.
+     * @return The end of the path, or -1 if the key is made of separators only.
+     */
+    static int pathEnd(String key, String separator) {
+        int limit = 0;
+        int start = 0;
+        boolean split = false;
+        while (true) {
+            int next = key.indexOf(separator, start);
+            int end = next < 0 ? key.length() : next;
+            if (end > start) {
+                limit = end;
             }
+            if (next < 0) {
+                break;
+            }
+            split = true;
+            start = next + separator.length();
+        }
 
-            // Add the value at the final level
-            currentMap.put(keyParts[keyParts.length - 1], value);
+        if (!split) {
+            return key.length();
         }
+        return limit == 0 ? -1 : limit;
+    }
 
-        return result;
+    /**
+     * Helper method to put a value at the path of a flat key that was deflated
+     * with an empty separator, where every character is a part of the path
+     */
+    @SuppressWarnings("unchecked")
+    private static void inflateCharacters(Map<String, Object> result, String key, Object value) {
+        Map<String, Object> currentMap = result;
+        for (int i = 0; i < key.length() - 1; i++) {
+            currentMap = (Map<String, Object>) currentMap.compute(String.valueOf(key.charAt(i)), NESTED_MAP);
+        }
+        currentMap.put(key.isEmpty() ? key : String.valueOf(key.charAt(key.length() - 1)), value);
+    }
+
+    /**
+     * Helper method to get the initial capacity of a HashMap that holds a number
+     * of entries without resizing
+     */
+    private static int capacityFor(int entries) {
+        return (int) (entries / 0.75f) + 1;
+    }
+
+    /**
+     * Creates a read-only flattened view of a nested map, without copying it.
+     * <p>
+     * The view has the same entries as {@link #deflate(Map, String)}, but
+     * looks each key up by walking the nested map on demand, and builds the
+     * flattened keys lazily while iterating. It's meant for reading a few keys
+     * of a large map; its size is computed by iterating.
+     *
+     * @param nestedMap The nested map to view
+     * @param separator The string to use as a separator between parent and child
+     *                  keys, not empty
+     * @return A read-only flattened view of the map
+     */
+    public static Map<String, Object> flatView(Map<String, Object> nestedMap, String separator) {
+        checkSeparator(separator);
+        return new FlatMapView(nestedMap, separator);
+    }
+
+    /**
+     * Creates a read-only nested view of a flat map, without copying it.
+     * <p>
+     * The view has the same structure as {@link #inflate(Map, String)}, with a
+     * nested view for every key that has children. Each lookup scans the flat
+     * map once, so it's meant for reading a few keys. When a key is both a
+     * value and the parent of other keys, the view shows whichever comes last
+     * in the iteration order of the flat map, as inflating does.
+     *
+     * @param flatMap   The flat map to view
+     * @param separator The string that was used as a separator between parent and
+     *                  child keys, not empty
+     * @return A read-only nested view of the map
+     */
+    public static Map<String, Object> nestedView(Map<String, Object> flatMap, String separator) {
+        checkSeparator(separator);
+        return new NestedMapView(flatMap, separator, "");
+    }
+
+    /**
+     * Creates a read-only flattened view of a nested map using "." as the
+     * default separator.
+     *
+     * @param nestedMap The nested map to view
+     * @return A read-only flattened view of the map
+     */
+    public static Map<String, Object> flatView(Map<String, Object> nestedMap) {
+        return flatView(nestedMap, ".");
+    }
+
+    /**
+     * Creates a read-only nested view of a flat map using "." as the default
+     * separator.
+     *
+     * @param flatMap The flat map to view
+     * @return A read-only nested view of the map
+     */
+    public static Map<String, Object> nestedView(Map<String, Object> flatMap) {
+        return nestedView(flatMap, ".");
+    }
+
+    /**
+     * Helper method to reject separators that can't split keys
+     */
+    private static void checkSeparator(String separator) {
+        if (separator.isEmpty()) {
+            throw new IllegalArgumentException("The separator of a view can't be empty");
+        }
     }
 
     /**
@@ -0,0 +1,210 @@
+package com.sammwy.classserializer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader over values that are already in memory as maps and lists.
+ * <p>
+ * Maps are read as objects and lists as arrays; any other value is a scalar.
+ * Skipping a value doesn't visit its entries, and values are never copied.
+ */
+public final class MapReader implements SerializationReader {
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private Object value;
+    private boolean hasValue;
+    private String name;
+    private boolean hasName;
+
+    /**
+     * Creates a reader over a value.
+     *
+     * @param root The value to read, usually a map.
+     */
+    public MapReader(Object root) {
+        this.value = root;
+        this.hasValue = true;
+    }
+
+    @Override
+    public Token peek() {
+        if (hasName) {
+            return Token.NAME;
+        } else if (hasValue) {
+            return tokenOf(value);
+        } else if (frames.isEmpty()) {
+            return Token.END_DOCUMENT;
+        }
+
+        Frame frame = frames.peek();
+        if (!frame.iterator.hasNext()) {
+            return frame.object ? Token.END_OBJECT : Token.END_ARRAY;
+        }
+
+        if (frame.object) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) frame.iterator.next();
+            name = String.valueOf(entry.getKey());
+            hasName = true;
+            value = entry.getValue();
+            return Token.NAME;
+        }
+
+        value = frame.iterator.next();
+        hasValue = true;
+        return tokenOf(value);
+    }
+
+    @Override
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    @Override
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        frames.push(new Frame(((Map<?, ?>) consume()).entrySet().iterator(), true));
+    }
+
+    @Override
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        frames.pop();
+    }
+
+    @Override
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        frames.push(new Frame(((List<?>) consume()).iterator(), false));
+    }
+
+    @Override
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        frames.pop();
+    }
+
+    @Override
+    public String nextName() {
+        expect(Token.NAME);
+        hasName = false;
+        hasValue = true;
+        return name;
+    }
+
+    @Override
+    public void nextNull() {
+        expect(Token.NULL);
+        consume();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        expect(Token.VALUE);
+        return PrimitiveType.toBoolean(consume());
+    }
+
+    @Override
+    public int nextInt() {
+        expect(Token.VALUE);
+        return PrimitiveType.toInt(consume());
+    }
+
+    @Override
+    public long nextLong() {
+        expect(Token.VALUE);
+        return PrimitiveType.toLong(consume());
+    }
+
+    @Override
+    public double nextDouble() {
+        expect(Token.VALUE);
+        return PrimitiveType.toDouble(consume());
+    }
+
+    @Override
+    public String nextString() {
+        expect(Token.VALUE);
+        return consume().toString();
+    }
+
+    @Override
+    public Object nextValue() {
+        expect(Token.VALUE);
+        return consume();
+    }
+
+    @Override
+    public void skipValue() {
+        if (peek() == Token.NAME) {
+            hasName = false;
+        } else if (!hasValue) {
+            throw new IllegalStateException("Expected a value but was " + peek());
+        }
+        consume();
+    }
+
+    /**
+     * Consumes the next value without reading it token by token, whatever its
+     * kind.
+     *
+     * @return The value as it is stored, with maps and lists not copied.
+     */
+    Object nextTree() {
+        Token token = peek();
+        if (token == Token.NAME || !hasValue) {
+            throw new IllegalStateException("Expected a value but was " + token);
+        }
+        return consume();
+    }
+
+    /**
+     * Helper method to take the current value
+     */
+    private Object consume() {
+        Object current = value;
+        value = null;
+        hasValue = false;
+        return current;
+    }
+
+    /**
+     * Helper method to check the kind of the next token
+     */
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token);
+        }
+    }
+
+    /**
+     * Helper method to get the token of a value
+     */
+    private static Token tokenOf(Object value) {
+        if (value == null) {
+            return Token.NULL;
+        } else if (value instanceof Map) {
+            return Token.BEGIN_OBJECT;
+        } else if (value instanceof List) {
+            return Token.BEGIN_ARRAY;
+        }
+        return Token.VALUE;
+    }
+
+    /**
+     * An object or array being read.
+     */
+    private static final class Frame {
+        private final Iterator<?> iterator;
+        private final boolean object;
+
+        private Frame(Iterator<?> iterator, boolean object) {
+            this.iterator = iterator;
+            this.object = object;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.sammwy.classserializer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writer that builds the serialized events into maps and lists.
+ * <p>
+ * Objects become {@link HashMap}s and arrays become {@link ArrayList}s, which is
+ * the output of {@link ClassSerializer#serialize(Object)}. Objects whose class
+ * is known become compact maps instead, which share one array of keys per
+ * class and only hold the values.
+ */
+public final class MapWriter implements SerializationWriter {
+    // The refill writer of each thread, reused by every refill that doesn't
+    // start while another one is running
+    private static final ThreadLocal<MapWriter> REFILL_WRITERS = ThreadLocal.withInitial(() -> new MapWriter(true));
+
+    private final Deque<Object> containers = new ArrayDeque<>();
+    private String name;
+    private Object result;
+
+    // When refilling existing maps, the keys written to the open map at each
+    // depth of the stack
+    private final List<WrittenKeys> written;
+    private Map<String, Object> target;
+    private boolean running;
+
+    /**
+     * Creates a writer that builds new maps and lists.
+     */
+    public MapWriter() {
+        this(false);
+    }
+
+    private MapWriter(boolean refill) {
+        this.written = refill ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Gets a writer that refills an existing map with the root object, and
+     * reuses the maps and lists already nested in it at the same names.
+     * Entries of reused maps that are not written again are removed. Only the
+     * nested maps and lists that writers build are reused, and any other map
+     * or list is replaced.
+     * <p>
+     * The writer of the current thread is reused until {@link #release()}, so
+     * refilling doesn't allocate writer state either. A refill that starts
+     * while that writer is running gets a new one.
+     *
+     * @param target The map to refill, which must be modifiable.
+     * @return The writer, which must be released once the object is written.
+     */
+    static MapWriter refilling(Map<String, Object> target) {
+        MapWriter writer = REFILL_WRITERS.get();
+        if (writer.running) {
+            writer = new MapWriter(true);
+        }
+
+        writer.containers.clear();
+        writer.name = null;
+        writer.result = null;
+        writer.target = target;
+        writer.running = true;
+        return writer;
+    }
+
+    /**
+     * Lets the next refill of the thread reuse this writer, and drops the maps
+     * it holds.
+     */
+    void release() {
+        containers.clear();
+        name = null;
+        result = null;
+        target = null;
+        running = false;
+    }
+
+    /**
+     * Gets the value that was written at the root, once all its events ended.
+     *
+     * @return The root value, usually a map.
+     */
+    public Object result() {
+        return result;
+    }
+
+    @Override
+    public void beginObject() {
+        Map<String, Object> map = reusedMap();
+        begin(map != null ? map : new HashMap<>());
+    }
+
+    /**
+     * Begins an object of a known class, built into a map that shares its keys
+     * with the other maps of the class.
+     *
+     * @param type    The class of the object.
+     * @param schemas The schemas of the serializer writing the object.
+     */
+    void beginObject(Class<?> type, KeySchemas schemas) {
+        Map<String, Object> map = reusedMap();
+        begin(map != null ? map : new CompactMap(type, schemas));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void beginArray() {
+        List<Object> list = null;
+        Object previous = previous();
+        if (previous != null && previous.getClass() == ArrayList.class) {
+            list = (List<Object>) previous;
+            list.clear();
+        }
+        begin(list != null ? list : new ArrayList<>());
+    }
+
+    @Override
+    public void end() {
+        if (containers.isEmpty()) {
+            throw new IllegalStateException("No object or array to end");
+        }
+
+        Object container = containers.pop();
+        if (written != null && container instanceof Map) {
+            removeStale((Map<?, ?>) container, written.get(containers.size()));
+        }
+        if (container instanceof CompactMap) {
+            ((CompactMap) container).complete();
+        }
+    }
+
+    @Override
+    public void name(String name) {
+        if (!(containers.peek() instanceof Map)) {
+            throw new IllegalStateException("Names are only allowed inside objects");
+        }
+        this.name = name;
+    }
+
+    @Override
+    public void writeNull() {
+        add(null);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        add(value);
+    }
+
+    @Override
+    public void writeInt(int value) {
+        add(value);
+    }
+
+    @Override
+    public void writeLong(long value) {
+        add(value);
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        add(value);
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        add(value);
+    }
+
+    @Override
+    public void writeString(String value) {
+        add(value);
+    }
+
+    @Override
+    public void writeValue(Object value) {
+        add(value);
+    }
+
+    /**
+     * Helper method to add a new container to the current one and open it
+     */
+    private void begin(Object container) {
+        add(container);
+        if (written != null && container instanceof Map) {
+            int depth = containers.size();
+            while (written.size() <= depth) {
+                written.add(new WrittenKeys());
+            }
+            written.get(depth).reset();
+        }
+        containers.push(container);
+    }
+
+    /**
+     * Helper method to get the value that the next value replaces, when
+     * refilling existing maps
+     */
+    private Object previous() {
+        if (written == null) {
+            return null;
+        }
+
+        Object container = containers.peek();
+        if (container == null) {
+            return target;
+        } else if (container instanceof Map) {
+            return ((Map<?, ?>) container).get(name);
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to get the existing map that the next object refills
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> reusedMap() {
+        Object previous = previous();
+        if (!(previous instanceof Map)) {
+            return null;
+        }
+
+        // The target is modifiable, and nested maps only if a writer built them
+        boolean reusable = containers.isEmpty() || previous instanceof CompactMap
+                || previous.getClass() == HashMap.class;
+        return reusable ? (Map<String, Object>) previous : null;
+    }
+
+    /**
+     * Helper method to remove the entries of a refilled map that were not
+     * written again. Maps that got every key again have nothing to remove.
+     */
+    private static void removeStale(Map<?, ?> map, WrittenKeys keys) {
+        if (map.size() > keys.size()) {
+            for (Iterator<?> iterator = map.keySet().iterator(); iterator.hasNext();) {
+                if (!keys.contains(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to add a value to the current container
+     */
+    @SuppressWarnings("unchecked")
+    private void add(Object value) {
+        Object container = containers.peek();
+        if (container == null) {
+            result = value;
+        } else if (container instanceof Map) {
+            if (container instanceof CompactMap) {
+                ((CompactMap) container).append(name, value);
+            } else {
+                ((Map<String, Object>) container).put(name, value);
+            }
+            if (written != null) {
+                written.get(containers.size() - 1).add(name);
+            }
+            name = null;
+        } else {
+            ((List<Object>) container).add(value);
+        }
+    }
+
+    /**
+     * The keys written to the open map at one depth, in an open addressing
+     * table that is kept for the maps at the same depth. Slots only hold a key
+     * if they were stamped with the current generation, so moving to the next
+     * map is a single increment and adding keys doesn't allocate once the
+     * table fits them.
+     */
+    private static final class WrittenKeys {
+        private String[] keys = new String[16];
+        private int[] stamps = new int[16];
+        private int generation = 1;
+        private int size;
+
+        /**
+         * Empties the table for the next map.
+         */
+        void reset() {
+            size = 0;
+            if (++generation == 0) {
+                // Stamps of the generations before the overflow could match again
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * @return The number of different keys written.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Adds a written key, which may have been written before.
+         *
+         * @param key The key.
+         */
+        void add(String key) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            if (insert(key)) {
+                size++;
+            }
+        }
+
+        /**
+         * Checks if a key was written to the current map.
+         *
+         * @param key The key.
+         * @return Whether the key was written.
+         */
+        boolean contains(Object key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; stamps[slot] == generation; slot = (slot + 1) & mask) {
+                if (Objects.equals(keys[slot], key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Helper method to put a key in the table, unless it's already there
+         */
+        private boolean insert(String key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            for (; stamps[slot] == generation; slot = (slot + 1) & mask) {
+                if (Objects.equals(keys[slot], key)) {
+                    return false;
+                }
+            }
+            keys[slot] = key;
+            stamps[slot] = generation;
+            return true;
+        }
+
+        /**
+         * Helper method to double the table, moving over the keys of the
+         * current map
+         */
+        private void grow() {
+            String[] oldKeys = keys;
+            int[] oldStamps = stamps;
+            keys = new String[oldKeys.length * 2];
+            stamps = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldStamps[i] == generation) {
+                    insert(oldKeys[i]);
+                }
+            }
+        }
+
+        /**
+         * Helper method to mix the high bits of a hash code into the low ones
+         */
+        private static int hash(Object key) {
+            int hash = Objects.hashCode(key);
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
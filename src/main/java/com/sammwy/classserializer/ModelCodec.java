@@ -0,0 +1,333 @@
+package com.sammwy.classserializer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec that walks the cached {@link ClassModel} of a class.
+ * <p>
+ * This is the codec of the {@link ClassSerializer.Engine#REFLECTIVE} engine.
+ * The {@link ClassSerializer.Engine#GENERATED} engine binds its per-field
+ * steps into method handles, and falls back to it for the paths it doesn't
+ * generate.
+ */
+final class ModelCodec implements ObjectCodec {
+    private final ClassModel model;
+
+    ModelCodec(ClassModel model) {
+        this.model = model;
+    }
+
+    @Override
+    public void writeFields(ClassSerializer serializer, Object object, SerializationWriter writer, DeflatePath parent) {
+        List<FieldModel> fields = model.fields();
+        String[] names = serializer.fieldNames(model.type());
+        for (int i = 0; i < fields.size(); i++) {
+            writeField(serializer, object, writer, parent, names, fields.get(i));
+        }
+    }
+
+    /**
+     * Writes a single field of an object, unless it is skipped.
+     *
+     * @param serializer The serializer driving this call.
+     * @param object     The object to read the field from.
+     * @param writer     The writer to emit the field to.
+     * @param parent     The path of the object in deflate mode, or null.
+     * @param names      The serialized names of the fields of the class, or
+     *                   null if they depend on the object.
+     * @param field      The field to write.
+     */
+    static void writeField(ClassSerializer serializer, Object object, SerializationWriter writer,
+            DeflatePath parent, String[] names, FieldModel field) {
+        String name = names != null ? names[field.index()] : serializer.fieldName(field, object);
+        if (name == null) {
+            return;
+        }
+
+        if (field.primitiveType() != null && serializer.hasPrimitiveFastPath()) {
+            // Primitives are never null and need no dispatch
+            serializer.writeName(writer, parent, field, name);
+            field.writePrimitive(object, writer);
+            return;
+        }
+
+        Object value = field.get(object);
+
+        if ((value == null || field.lazyType() != null && ((Lazy<?>) value).holdsNull())
+                && serializer.skipNull().mustSkipSerialize()) {
+            return;
+        }
+
+        serializer.writeField(writer, parent, field, name, value);
+    }
+
+    @Override
+    public Object read(ClassSerializer serializer, SerializationReader reader) {
+        InstanceFactory factory = serializer.instanceFactory(model.type());
+        List<FieldModel> parameters = factory.parameters();
+
+        if (parameters.isEmpty()) {
+            Object instance = factory.create();
+            readFields(serializer, reader, factory.remainingFields(model), instance, false);
+            return instance;
+        }
+
+        reader.beginObject();
+
+        // Build the object in a single pass from the constructor parameters,
+        // keeping the other entries until the instance exists
+        Object[] arguments = factory.defaultArguments();
+        String[] parameterNames = fieldNames(serializer, model.type(), parameters, null);
+        Map<String, Object> remaining = null;
+
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            int index = indexOf(parameterNames, name, 0);
+            if (index >= 0) {
+                arguments[index] = serializer.readValue(reader, parameters.get(index));
+            } else {
+                if (remaining == null) {
+                    remaining = new HashMap<>();
+                }
+                remaining.put(name, serializer.readTree(reader));
+            }
+        }
+
+        reader.endObject();
+        Object instance = factory.create(arguments);
+        if (remaining == null) {
+            return instance;
+        }
+
+        for (FieldModel field : factory.remainingFields(model)) {
+            String name = serializer.fieldName(field, instance);
+            if (name == null || !remaining.containsKey(name)) {
+                continue;
+            }
+
+            setField(serializer, field, instance, remaining.get(name));
+        }
+
+        return instance;
+    }
+
+    @Override
+    public void readInto(ClassSerializer serializer, SerializationReader reader, Object instance) {
+        readFields(serializer, reader, model.fields(), instance, true);
+    }
+
+    @Override
+    public Object readFlat(ClassSerializer serializer, FlatEntries flat, DeflatePath parent, Object target) {
+        InstanceFactory factory = serializer.instanceFactory(model.type());
+        List<FieldModel> parameters = target != null ? Collections.<FieldModel>emptyList() : factory.parameters();
+        List<FieldModel> fields = target != null ? model.fields() : factory.remainingFields(model);
+        boolean found = false;
+        Object instance;
+
+        if (target != null) {
+            instance = target;
+        } else if (parameters.isEmpty()) {
+            instance = factory.create();
+        } else {
+            Object[] arguments = factory.defaultArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                FieldModel parameter = parameters.get(i);
+                String name = parameter != null ? serializer.fieldName(parameter, null) : null;
+                if (name == null) {
+                    continue;
+                }
+
+                Object value = serializer.readFlatValue(flat, parent, parameter, name, null);
+                if (value != ClassSerializer.ABSENT) {
+                    arguments[i] = value;
+                    found = true;
+                }
+            }
+            instance = factory.create(arguments);
+        }
+
+        for (FieldModel field : fields) {
+            String name = serializer.fieldName(field, instance);
+            if (name == null) {
+                continue;
+            }
+
+            // Nested objects of an existing instance are updated in place
+            Object current = target != null && field.primitiveType() == null ? field.get(instance) : null;
+            Object value = serializer.readFlatValue(flat, parent, field, name, current);
+            if (value != ClassSerializer.ABSENT && value != current) {
+                field.set(instance, value);
+                found = true;
+            }
+        }
+
+        // Only the root object exists without any entry
+        return found || parent.isRoot() ? instance : null;
+    }
+
+    /**
+     * Helper method to read the entries of an object into the fields of an
+     * instance, updating the nested objects of the fields in place if asked to
+     */
+    private void readFields(ClassSerializer serializer, SerializationReader reader, List<FieldModel> fields,
+            Object instance, boolean inPlace) {
+        Map<String, int[]> index = fields == model.fields() ? serializer.fieldIndex(model.type()) : null;
+        if (index == null) {
+            readNamedFields(serializer, reader, fields, instance, inPlace);
+            return;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int[] indices = index.get(reader.nextName());
+            if (indices == null) {
+                reader.skipValue();
+            } else if (indices.length == 1) {
+                readField(serializer, reader, fields.get(indices[0]), instance, inPlace);
+            } else {
+                // Shadowed fields share their name, and all of them get the value
+                Object value = serializer.readTree(reader);
+                for (int i : indices) {
+                    setField(serializer, fields.get(i), instance, value);
+                }
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Helper method to read the entries of an object into fields whose names
+     * are only known for this instance
+     */
+    private void readNamedFields(ClassSerializer serializer, SerializationReader reader, List<FieldModel> fields,
+            Object instance, boolean inPlace) {
+        String[] names = fieldNames(serializer, model.type(), fields, instance);
+        reader.beginObject();
+
+        // Entries usually arrive in field order, so look there first
+        int expected = 0;
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            int index = indexOf(names, name, expected);
+            if (index < 0) {
+                reader.skipValue();
+                continue;
+            }
+
+            if (lastIndexOf(names, name) == index) {
+                readField(serializer, reader, fields.get(index), instance, inPlace);
+            } else {
+                Object value = serializer.readTree(reader);
+                for (int i = 0; i < names.length; i++) {
+                    if (name.equals(names[i])) {
+                        setField(serializer, fields.get(i), instance, value);
+                    }
+                }
+            }
+            expected = index + 1;
+        }
+
+        reader.endObject();
+    }
+
+    /**
+     * Reads the next value of a reader into a field.
+     *
+     * @param serializer The serializer driving this call.
+     * @param reader     The reader positioned at the value.
+     * @param field      The field to set.
+     * @param instance   The instance to set the field of.
+     * @param inPlace    Whether the object held by the field is updated in
+     *                   place.
+     */
+    static void readField(ClassSerializer serializer, SerializationReader reader, FieldModel field,
+            Object instance, boolean inPlace) {
+        if (field.primitiveType() != null && serializer.hasPrimitiveFastPath()) {
+            field.readPrimitive(instance, reader);
+        } else if (inPlace && field.primitiveType() == null) {
+            Object current = field.get(instance);
+            Object value = serializer.readValueInto(reader, field, current);
+            if (value != current) {
+                field.set(instance, value);
+            }
+        } else {
+            field.set(instance, serializer.readValue(reader, field));
+        }
+    }
+
+    /**
+     * Sets a field to a value that was read as a tree.
+     *
+     * @param serializer The serializer driving this call.
+     * @param field      The field to set.
+     * @param instance   The instance to set the field of.
+     * @param value      The value that was read.
+     */
+    static void setField(ClassSerializer serializer, FieldModel field, Object instance, Object value) {
+        if (field.primitiveType() != null && serializer.hasPrimitiveFastPath()) {
+            field.setPrimitive(instance, value);
+        } else {
+            field.set(instance, serializer.deserializeValue(value, field));
+        }
+    }
+
+    /**
+     * Gets the serialized names of some fields of a class, null for skipped
+     * fields.
+     *
+     * @param serializer The serializer driving this call.
+     * @param type       The class the fields belong to.
+     * @param fields     The fields to name, with null for missing fields.
+     * @param instance   The instance the names are for, or null.
+     * @return The names, indexed like the fields.
+     */
+    static String[] fieldNames(ClassSerializer serializer, Class<?> type, List<FieldModel> fields,
+            Object instance) {
+        String[] table = serializer.fieldNames(type);
+        String[] names = new String[fields.size()];
+        for (int i = 0; i < names.length; i++) {
+            FieldModel field = fields.get(i);
+            if (field != null) {
+                names[i] = table != null ? table[field.index()] : serializer.fieldName(field, instance);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Finds a name, starting at the expected position and wrapping around.
+     *
+     * @param names    The names to search.
+     * @param name     The name to find.
+     * @param expected The position to start at.
+     * @return The position of the name, or -1 if it is missing.
+     */
+    static int indexOf(String[] names, String name, int expected) {
+        for (int i = 0; i < names.length; i++) {
+            int index = (expected + i) % names.length;
+            if (name.equals(names[index])) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the last position of a name.
+     *
+     * @param names The names to search.
+     * @param name  The name to find.
+     * @return The last position of the name, or -1 if it is missing.
+     */
+    static int lastIndexOf(String[] names, String name) {
+        for (int i = names.length - 1; i >= 0; i--) {
+            if (name.equals(names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
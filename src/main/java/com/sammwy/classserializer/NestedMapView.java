@@ -0,0 +1,174 @@
+package com.sammwy.classserializer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only nested view of a flat map, with the same structure as
+ * {@link MapDeflate#inflate(Map, String)} would produce.
+ * <p>
+ * Every level of the view is the set of flat keys that start with a common
+ * prefix. Nested levels are views themselves, so nothing is copied, and each
+ * lookup scans the flat map once. Changes to the flat map are visible through
+ * the view.
+ * <p>
+ * Like inflating, flat keys are applied in the iteration order of the flat
+ * map and the last one wins: a value replaces the nested map at its key, and
+ * a key below a value starts a new nested map there.
+ */
+final class NestedMapView extends AbstractMap<String, Object> {
+    private static final Object MISSING = new Object();
+    private static final Object NESTED = new Object();
+
+    private final Map<String, Object> flat;
+    private final String separator;
+    private final String prefix;
+
+    /**
+     * Creates a view of one level of a flat map.
+     *
+     * @param flat      The flat map.
+     * @param separator The separator between the parts of the flat keys.
+     * @param prefix    The flat key prefix of this level, with a trailing
+     *                  separator, or an empty string for the root.
+     */
+    NestedMapView(Map<String, Object> flat, String separator, String prefix) {
+        this.flat = flat;
+        this.separator = separator;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = key instanceof String ? lookup((String) key) : MISSING;
+        return value != MISSING ? value : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && lookup((String) key) != MISSING;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new NestedIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Iterator<Entry<String, Object>> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Helper method to find the value of a key at this level, from the last
+     * flat key that puts a value or a nested map there
+     */
+    private Object lookup(String key) {
+        if (prefix.isEmpty() && MapDeflate.pathEnd(key, separator) < 0) {
+            // Made of separators only, kept as-is at the root
+            return flat.containsKey(key) ? flat.get(key) : MISSING;
+        }
+
+        String path = prefix + key;
+        Object value = MISSING;
+
+        for (Entry<String, Object> entry : flat.entrySet()) {
+            String flatKey = entry.getKey();
+            int end = MapDeflate.pathEnd(flatKey, separator);
+            if (end < 0) {
+                continue;
+            } else if (end < prefix.length()) {
+                // A value at a parent replaces the map this level is part of
+                if (prefix.startsWith(separator, end) && prefix.regionMatches(0, flatKey, 0, end)) {
+                    value = MISSING;
+                }
+            } else if (flatKey.startsWith(path)) {
+                if (end == path.length()) {
+                    value = entry.getValue();
+                } else if (end > path.length() && flatKey.startsWith(separator, path.length())) {
+                    value = NESTED;
+                }
+            }
+        }
+        return value != NESTED ? value : new NestedMapView(flat, separator, path + separator);
+    }
+
+    /**
+     * Yields the first key part after the prefix of every flat key, once per
+     * distinct part, with the value a lookup of the part finds.
+     */
+    private final class NestedIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<Entry<String, Object>> entries = flat.entrySet().iterator();
+        private final Set<String> seen = new HashSet<>();
+        private Entry<String, Object> next;
+
+        private NestedIterator() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            Entry<String, Object> current = next;
+            advance();
+            return current;
+        }
+
+        /**
+         * Helper method to move to the next distinct key of this level
+         */
+        private void advance() {
+            next = null;
+            while (entries.hasNext()) {
+                Entry<String, Object> entry = entries.next();
+                String flatKey = entry.getKey();
+                int end = MapDeflate.pathEnd(flatKey, separator);
+
+                String key;
+                if (end < 0) {
+                    if (!prefix.isEmpty()) {
+                        continue;
+                    }
+                    key = flatKey;
+                } else if (end > prefix.length() && flatKey.startsWith(prefix)
+                        || end == 0 && prefix.isEmpty()) {
+                    int boundary = flatKey.indexOf(separator, prefix.length());
+                    key = flatKey.substring(prefix.length(), boundary < 0 || boundary >= end ? end : boundary);
+                } else {
+                    continue;
+                }
+
+                if (seen.add(key)) {
+                    // Later flat keys may replace this one, or a value at a parent may drop it
+                    Object value = lookup(key);
+                    if (value != MISSING) {
+                        next = new SimpleImmutableEntry<>(key, value);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
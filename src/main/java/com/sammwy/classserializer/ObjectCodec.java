@@ -0,0 +1,58 @@
+package com.sammwy.classserializer;
+
+/**
+ * Serializes and deserializes the fields of a single class.
+ * <p>
+ * A codec is resolved once per class and engine, and receives the
+ * {@link ClassSerializer} whose configuration (predicates, custom serializers,
+ * null handling) applies to the current call.
+ */
+interface ObjectCodec {
+    /**
+     * Writes all serializable fields of an object as named values of the
+     * current object of a writer.
+     *
+     * @param serializer The serializer driving this call.
+     * @param object     The object to read the fields from.
+     * @param writer     The writer to emit the fields to.
+     * @param parent     The path of the object in deflate mode, or null if
+     *                   deflate mode is disabled.
+     */
+    void writeFields(ClassSerializer serializer, Object object, SerializationWriter writer, DeflatePath parent);
+
+    /**
+     * Creates an instance of the class and fills all serializable fields from
+     * the entries of an object, skipping the entries of unknown fields.
+     *
+     * @param serializer The serializer driving this call.
+     * @param reader     The reader positioned at the start of the object.
+     * @return The deserialized instance.
+     */
+    Object read(ClassSerializer serializer, SerializationReader reader);
+
+    /**
+     * Fills the serializable fields of an existing instance from the entries of
+     * an object, updating the objects nested in its fields in place. Fields
+     * without an entry keep their value.
+     *
+     * @param serializer The serializer driving this call.
+     * @param reader     The reader positioned at the start of the object.
+     * @param instance   The instance to update.
+     */
+    void readInto(ClassSerializer serializer, SerializationReader reader, Object instance);
+
+    /**
+     * Fills all serializable fields of an instance of the class from the
+     * flattened keys of a deflate mode map, without inflating it.
+     *
+     * @param serializer The serializer driving this call.
+     * @param flat       The entries of the flat map to look the keys up in.
+     * @param parent     The path of the object, the root path for the root
+     *                   object.
+     * @param target     The instance to update in place, or null to create a
+     *                   new one.
+     * @return The deserialized instance, or null for a nested object if the map
+     *         has no key for any of its fields.
+     */
+    Object readFlat(ClassSerializer serializer, FlatEntries flat, DeflatePath parent, Object target);
+}
@@ -0,0 +1,135 @@
+package com.sammwy.classserializer;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/**
+ * Runs an operation over every index of a batch on a {@link ForkJoinPool},
+ * keeping the results in order.
+ * <p>
+ * The batch is split in halves down to chunks sized from the parallelism of
+ * the pool, and stops splitting early once the worker already has surplus
+ * tasks queued for others to steal. Small batches run on the calling thread.
+ */
+final class ParallelBatch extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    // Smallest chunk worth a task of its own
+    private static final int MIN_CHUNK = 64;
+
+    // Chunks per worker, so that uneven elements still balance out
+    private static final int CHUNKS_PER_WORKER = 8;
+
+    private final Batch batch;
+    private final int from;
+    private final int to;
+
+    // Forked sibling tasks, joined in reverse order
+    private ParallelBatch next;
+
+    private ParallelBatch(Batch batch, int from, int to) {
+        this.batch = batch;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Runs an operation over every index of a batch.
+     *
+     * @param pool      The pool to run on.
+     * @param size      The number of elements of the batch.
+     * @param operation The operation that computes the result of an index.
+     * @param action    The name of the operation for error messages.
+     * @return The results, in the order of their indices.
+     * @throws BatchSerializationException If an element fails, for the lowest
+     *                                     failing index.
+     */
+    static Object[] run(ForkJoinPool pool, int size, IntFunction<Object> operation, String action) {
+        int threshold = Math.max(MIN_CHUNK, size / (pool.getParallelism() * CHUNKS_PER_WORKER));
+        Batch batch = new Batch(new Object[size], operation, threshold);
+
+        if (size <= threshold || pool.getParallelism() == 1) {
+            batch.compute(0, size);
+        } else {
+            pool.invoke(new ParallelBatch(batch, 0, size));
+        }
+
+        if (batch.failure != null) {
+            throw new BatchSerializationException("Failed to " + action + " element at index " + batch.failedIndex
+                    + ": " + batch.failure.getMessage(), batch.failedIndex, batch.failure);
+        }
+        return batch.results;
+    }
+
+    @Override
+    protected void compute() {
+        int start = from;
+        int end = to;
+
+        // Fork the upper halves while they are large and nobody is idle
+        ParallelBatch forked = null;
+        while (end - start > batch.threshold && getSurplusQueuedTaskCount() <= 3) {
+            int middle = (start + end) >>> 1;
+            ParallelBatch right = new ParallelBatch(batch, middle, end);
+            right.fork();
+            right.next = forked;
+            forked = right;
+            end = middle;
+        }
+
+        batch.compute(start, end);
+
+        for (; forked != null; forked = forked.next) {
+            forked.join();
+        }
+    }
+
+    /**
+     * The state shared by all the tasks of a batch.
+     */
+    private static final class Batch {
+        private final Object[] results;
+        private final IntFunction<Object> operation;
+        private final int threshold;
+
+        // Read on every element without locking, written under the lock
+        private volatile int failedIndex = Integer.MAX_VALUE;
+        private RuntimeException failure;
+
+        private Batch(Object[] results, IntFunction<Object> operation, int threshold) {
+            this.results = results;
+            this.operation = operation;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Computes the results of a range of indices, stopping at the first
+         * failure or once a lower index has failed
+         */
+        private void compute(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (i > failedIndex) {
+                    return;
+                }
+
+                try {
+                    results[i] = operation.apply(i);
+                } catch (RuntimeException e) {
+                    fail(i, e);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Records a failure, keeping the one with the lowest index
+         */
+        private synchronized void fail(int index, RuntimeException e) {
+            if (index < failedIndex) {
+                failure = e;
+                failedIndex = index;
+            }
+        }
+    }
+}
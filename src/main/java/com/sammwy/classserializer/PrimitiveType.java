@@ -0,0 +1,125 @@
+package com.sammwy.classserializer;
+
+/**
+ * The primitive types a field can have, with unboxed conversions from
+ * serialized values.
+ * <p>
+ * The conversions follow {@link ClassUtils#convertValueToPrimitive}, but
+ * return primitives so numeric fields can be written without allocating a
+ * wrapper.
+ */
+enum PrimitiveType {
+    BOOLEAN,
+    CHAR,
+    BYTE,
+    SHORT,
+    INT,
+    LONG,
+    FLOAT,
+    DOUBLE;
+
+    /**
+     * Gets the primitive type of a class.
+     *
+     * @param type The class to check.
+     * @return The primitive type, or null if the class isn't a primitive.
+     */
+    static PrimitiveType of(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return BOOLEAN;
+        } else if (type == char.class) {
+            return CHAR;
+        } else if (type == byte.class) {
+            return BYTE;
+        } else if (type == short.class) {
+            return SHORT;
+        } else if (type == int.class) {
+            return INT;
+        } else if (type == long.class) {
+            return LONG;
+        } else if (type == float.class) {
+            return FLOAT;
+        } else if (type == double.class) {
+            return DOUBLE;
+        }
+        return null;
+    }
+
+    static boolean toBoolean(Object value) {
+        if (value == null) {
+            return false;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            return Boolean.parseBoolean((String) value);
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        throw new IllegalArgumentException("Unsupported primitive type: boolean");
+    }
+
+    static char toChar(Object value) {
+        if (value == null) {
+            return '\0';
+        } else if (value instanceof Character) {
+            return (Character) value;
+        } else if (value instanceof String && ((String) value).length() > 0) {
+            return ((String) value).charAt(0);
+        }
+        throw new IllegalArgumentException("Unsupported primitive type: char");
+    }
+
+    static byte toByte(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).byteValue();
+        }
+        return value == null ? 0 : Byte.parseByte(stringOf(value, "byte"));
+    }
+
+    static short toShort(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).shortValue();
+        }
+        return value == null ? 0 : Short.parseShort(stringOf(value, "short"));
+    }
+
+    static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return value == null ? 0 : Integer.parseInt(stringOf(value, "int"));
+    }
+
+    static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return value == null ? 0L : Long.parseLong(stringOf(value, "long"));
+    }
+
+    static float toFloat(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
+        }
+        return value == null ? 0f : Float.parseFloat(stringOf(value, "float"));
+    }
+
+    static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value == null ? 0d : Double.parseDouble(stringOf(value, "double"));
+    }
+
+    /**
+     * Helper method to accept only strings as non-numeric input
+     */
+    private static String stringOf(Object value, String type) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        throw new IllegalArgumentException("Unsupported primitive type: " + type);
+    }
+}
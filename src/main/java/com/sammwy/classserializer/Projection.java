@@ -0,0 +1,238 @@
+package com.sammwy.classserializer;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A deserializer of a class that only reads some of its fields, created by
+ * {@link ClassSerializer#projection(Class, String...)}.
+ * <p>
+ * The projected fields are given as dotted paths of serialized names, such as
+ * {@code "name"} or {@code "settings.preferences.theme"}. A path selects the
+ * whole value of its last field, and the objects along the path only get the
+ * selected fields. Every other entry of the map is skipped without being
+ * converted, so nested objects, lists and values with custom serializers that
+ * are not selected cost nothing. Fields that are not selected keep the
+ * default value of a new instance.
+ * <p>
+ * The paths are resolved to the fields of the class once, when the projection
+ * is created, so a projection should be reused. It is thread-safe. Since the
+ * names are resolved ahead of time, they must come from the field filter of
+ * the serializer, not from a field predicate.
+ *
+ * @param <T> The type of the projected objects.
+ */
+public final class Projection<T> {
+    private final ClassSerializer serializer;
+    private final Class<T> type;
+    private final Node root;
+
+    Projection(ClassSerializer serializer, Class<T> type, Collection<String> paths) {
+        this.serializer = serializer;
+        this.type = type;
+
+        Map<String, Object> tree = new LinkedHashMap<>();
+        for (String path : paths) {
+            addPath(tree, path);
+        }
+        this.root = compile(serializer, type, tree, "");
+    }
+
+    /**
+     * Deserializes the projected fields of a map to a new object.
+     *
+     * @param map The map containing serialized data, flattened in deflate mode.
+     * @return A new instance with the projected fields set, or null if the map
+     *         is null.
+     */
+    public T deserialize(Map<String, Object> map) {
+        if (map == null) {
+            return null;
+        }
+
+        DeflatePath deflateRoot = serializer.deflateRoot();
+        if (deflateRoot != null) {
+            return type.cast(root.readFlat(serializer, new FlatEntries(map), deflateRoot));
+        }
+        return type.cast(root.read(serializer, map));
+    }
+
+    /**
+     * @return The class of the projected objects.
+     */
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Helper method to add the segments of a path to a tree of selected names,
+     * where null selects the whole field
+     */
+    @SuppressWarnings("unchecked")
+    private static void addPath(Map<String, Object> tree, String path) {
+        Map<String, Object> node = tree;
+        int start = 0;
+        while (true) {
+            int end = path.indexOf('.', start);
+            String segment = path.substring(start, end < 0 ? path.length() : end);
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Invalid projection path: " + path);
+            }
+
+            if (end < 0) {
+                // The whole field wins over any of its nested fields
+                node.put(segment, null);
+                return;
+            }
+
+            if (node.containsKey(segment) && node.get(segment) == null) {
+                return;
+            }
+            node = (Map<String, Object>) node.computeIfAbsent(segment, key -> new LinkedHashMap<>());
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Helper method to resolve a tree of selected names to the fields of a
+     * class
+     */
+    @SuppressWarnings("unchecked")
+    private static Node compile(ClassSerializer serializer, Class<?> type, Map<String, Object> tree, String path) {
+        FieldModel[] fields = new FieldModel[tree.size()];
+        String[] names = new String[tree.size()];
+        Node[] children = new Node[tree.size()];
+
+        int i = 0;
+        for (Map.Entry<String, Object> entry : tree.entrySet()) {
+            String name = entry.getKey();
+            FieldModel field = findField(serializer, type, name);
+            if (field == null) {
+                throw new IllegalArgumentException(
+                        "Unknown field " + path + name + " in projection of class: " + type.getName());
+            }
+
+            if (entry.getValue() != null) {
+                ValueHandler handler = serializer.handlerOf(field.type());
+                if (handler.kind() != ValueHandler.Kind.OBJECT || !handler.allowed()) {
+                    throw new IllegalArgumentException("Can't project the fields of " + path + name
+                            + ", which is not an object serialized field by field");
+                }
+                children[i] = compile(serializer, field.type(), (Map<String, Object>) entry.getValue(),
+                        path + name + ".");
+            }
+
+            fields[i] = field;
+            names[i] = name;
+            i++;
+        }
+
+        return new Node(type, fields, names, children);
+    }
+
+    /**
+     * Helper method to find the field of a class with a serialized name
+     */
+    private static FieldModel findField(ClassSerializer serializer, Class<?> type, String name) {
+        String[] names = serializer.fieldNames(type);
+        if (names == null) {
+            throw new IllegalStateException("Can't project fields whose names come from a field predicate");
+        }
+
+        List<FieldModel> fields = ClassModel.of(type).fields();
+        for (int i = 0; i < names.length; i++) {
+            if (name.equals(names[i])) {
+                return fields.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The selected fields of one class of the projection.
+     */
+    private static final class Node {
+        private final Class<?> type;
+        private final FieldModel[] fields;
+        private final String[] names;
+        // The projection of the fields that are only partially selected
+        private final Node[] children;
+
+        private Node(Class<?> type, FieldModel[] fields, String[] names, Node[] children) {
+            this.type = type;
+            this.fields = fields;
+            this.names = names;
+            this.children = children;
+        }
+
+        /**
+         * Reads the selected fields from a nested map.
+         */
+        @SuppressWarnings("unchecked")
+        private Object read(ClassSerializer serializer, Map<String, Object> map) {
+            Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                Object value = map.get(names[i]);
+                if (value == null && !map.containsKey(names[i])) {
+                    values[i] = ClassSerializer.ABSENT;
+                } else if (children[i] != null && value instanceof Map) {
+                    values[i] = children[i].read(serializer, (Map<String, Object>) value);
+                } else {
+                    values[i] = serializer.deserializeValue(value, fields[i]);
+                }
+            }
+            return create(serializer, values);
+        }
+
+        /**
+         * Reads the selected fields from the flattened keys of a deflate mode
+         * map, returning null for a nested object without any of them.
+         */
+        private Object readFlat(ClassSerializer serializer, FlatEntries flat, DeflatePath parent) {
+            Object[] values = new Object[fields.length];
+            boolean found = false;
+            for (int i = 0; i < fields.length; i++) {
+                if (children[i] == null) {
+                    values[i] = serializer.readFlatValue(flat, parent, fields[i], names[i], null);
+                } else {
+                    Object nested = children[i].readFlat(serializer, flat, parent.child(fields[i], names[i]));
+                    values[i] = nested != null ? nested : ClassSerializer.ABSENT;
+                }
+                found |= values[i] != ClassSerializer.ABSENT;
+            }
+            return found || parent.isRoot() ? create(serializer, values) : null;
+        }
+
+        /**
+         * Helper method to create an instance with the values read for the
+         * selected fields
+         */
+        private Object create(ClassSerializer serializer, Object[] values) {
+            InstanceFactory factory = serializer.instanceFactory(type);
+            List<FieldModel> parameters = factory.parameters();
+
+            Object instance;
+            if (parameters.isEmpty()) {
+                instance = factory.create();
+            } else {
+                Object[] arguments = factory.defaultArguments();
+                for (int i = 0; i < fields.length; i++) {
+                    int index = parameters.indexOf(fields[i]);
+                    if (index >= 0 && values[i] != ClassSerializer.ABSENT) {
+                        arguments[index] = values[i];
+                    }
+                }
+                instance = factory.create(arguments);
+            }
+
+            for (int i = 0; i < fields.length; i++) {
+                if (values[i] != ClassSerializer.ABSENT && !parameters.contains(fields[i])) {
+                    fields[i].set(instance, values[i]);
+                }
+            }
+            return instance;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.sammwy.classserializer;
+
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * An immutable snapshot of the serializers, instantiators and class predicate
+ * of a {@link ClassSerializer}, together with the handlers resolved from them.
+ * <p>
+ * Registering something creates a new snapshot instead of changing this one,
+ * so threads that are serializing keep a consistent view without taking a
+ * lock. The snapshots made from one another share a single cache of resolved
+ * handlers, where every handler is tagged with the generation of the snapshot
+ * that resolved it, so a new snapshot only resolves a class again when it
+ * first uses it, and old snapshots never see its handlers.
+ */
+final class Registrations {
+    private final Map<Class<?>, Serializer<?>> serializers;
+    private final Map<Class<?>, Serializer<?>> generatedSerializers;
+    private final Map<Class<?>, InstanceFactory> instantiators;
+    private final Predicate<Class<?>> classPredicate;
+    private final boolean primitiveFastPath;
+
+    // Shared with the snapshots made from this one
+    private final ClassValue<Slot> handlers;
+    private final int generation;
+
+    /**
+     * Creates a snapshot without custom registrations.
+     *
+     * @param generatedSerializers The serializers generated at compile time.
+     */
+    Registrations(Map<Class<?>, Serializer<?>> generatedSerializers) {
+        this(Collections.emptyMap(), generatedSerializers, Collections.emptyMap(), cls -> true, true,
+                new ClassValue<Slot>() {
+                    @Override
+                    protected Slot computeValue(Class<?> type) {
+                        return new Slot();
+                    }
+                }, 0);
+    }
+
+    private Registrations(Map<Class<?>, Serializer<?>> serializers,
+            Map<Class<?>, Serializer<?>> generatedSerializers, Map<Class<?>, InstanceFactory> instantiators,
+            Predicate<Class<?>> classPredicate, boolean primitiveFastPath, ClassValue<Slot> handlers,
+            int generation) {
+        this.serializers = serializers;
+        this.generatedSerializers = generatedSerializers;
+        this.instantiators = instantiators;
+        this.classPredicate = classPredicate;
+        this.primitiveFastPath = primitiveFastPath;
+        this.handlers = handlers;
+        this.generation = generation;
+    }
+
+    /**
+     * Creates a copy of this snapshot with one more serializer.
+     *
+     * @param clazz      The class to register the serializer for.
+     * @param serializer The serializer to register.
+     * @return The new snapshot.
+     */
+    Registrations withSerializer(Class<?> clazz, Serializer<?> serializer) {
+        Map<Class<?>, Serializer<?>> copy = new HashMap<>(serializers);
+        copy.put(clazz, serializer);
+        // A custom serializer for a primitive type must see every primitive value
+        boolean fastPath = primitiveFastPath && (!ClassUtils.isPrimitiveOrWrapper(clazz) || clazz == String.class);
+        return new Registrations(Collections.unmodifiableMap(copy), generatedSerializers, instantiators,
+                classPredicate, fastPath, handlers, generation + 1);
+    }
+
+    /**
+     * Creates a copy of this snapshot with one more instantiator.
+     *
+     * @param clazz   The class to register the instantiator for.
+     * @param factory The factory that wraps the instantiator.
+     * @return The new snapshot.
+     */
+    Registrations withInstantiator(Class<?> clazz, InstanceFactory factory) {
+        Map<Class<?>, InstanceFactory> copy = new HashMap<>(instantiators);
+        copy.put(clazz, factory);
+        // Handlers don't depend on instantiators, so they stay valid
+        return new Registrations(serializers, generatedSerializers, Collections.unmodifiableMap(copy),
+                classPredicate, primitiveFastPath, handlers, generation);
+    }
+
+    /**
+     * Creates a copy of this snapshot with another class predicate.
+     *
+     * @param predicate The new class predicate.
+     * @return The new snapshot.
+     */
+    Registrations withClassPredicate(Predicate<Class<?>> predicate) {
+        return new Registrations(serializers, generatedSerializers, instantiators, predicate, primitiveFastPath,
+                handlers, generation + 1);
+    }
+
+    /**
+     * Gets the resolved handler of a class, resolving it on first use.
+     *
+     * @param clazz The class to get the handler for.
+     * @return The handler of the class.
+     */
+    ValueHandler handlerOf(Class<?> clazz) {
+        Slot slot = handlers.get(clazz);
+        Resolved resolved = slot.resolved;
+        if (resolved == null || resolved.generation != generation) {
+            resolved = new Resolved(generation, resolveHandler(clazz));
+            // A racing snapshot of another generation at worst makes this one
+            // resolve the class again
+            slot.resolved = resolved;
+        }
+        return resolved.handler;
+    }
+
+    /**
+     * @param clazz The class to get the instantiator for.
+     * @return The registered instance factory, or null if there is none.
+     */
+    InstanceFactory instantiator(Class<?> clazz) {
+        return instantiators.get(clazz);
+    }
+
+    /**
+     * @return Whether primitive fields can skip the serializer lookup, which is
+     *         the case unless a custom serializer is registered for a primitive
+     *         or wrapper type.
+     */
+    boolean primitiveFastPath() {
+        return primitiveFastPath;
+    }
+
+    /**
+     * Helper method to resolve how values of a class are handled
+     */
+    private ValueHandler resolveHandler(Class<?> clazz) {
+        boolean allowed = classPredicate.test(clazz);
+        Serializer<?> serializer = findExactSerializer(clazz);
+
+        if (serializer != null) {
+            return new ValueHandler(ValueHandler.Kind.SERIALIZER, serializer, allowed);
+        } else if (clazz == Lazy.class) {
+            return new ValueHandler(ValueHandler.Kind.LAZY, null, allowed);
+        } else if (ClassUtils.isPrimitiveOrWrapper(clazz)) {
+            return new ValueHandler(ValueHandler.Kind.SCALAR, null, allowed);
+        } else if ((serializer = findInheritedSerializer(clazz)) != null) {
+            return new ValueHandler(ValueHandler.Kind.SERIALIZER, serializer, allowed);
+        } else if (List.class.isAssignableFrom(clazz)) {
+            return new ValueHandler(ValueHandler.Kind.LIST, null, allowed);
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            return new ValueHandler(ValueHandler.Kind.MAP, null, allowed);
+        } else if (Collection.class.isAssignableFrom(clazz)) {
+            return new ValueHandler(ValueHandler.Kind.COLLECTION, null, allowed);
+        } else if ((serializer = generatedSerializers.get(clazz)) != null) {
+            return new ValueHandler(ValueHandler.Kind.GENERATED, serializer, allowed);
+        }
+        return new ValueHandler(ValueHandler.Kind.OBJECT, null, allowed);
+    }
+
+    /**
+     * Helper method to find the serializer registered for a class, or for the
+     * wrapper or primitive counterpart of a primitive or wrapper class
+     */
+    private Serializer<?> findExactSerializer(Class<?> clazz) {
+        Serializer<?> serializer = serializers.get(clazz);
+        if (serializer == null && clazz != String.class && ClassUtils.isPrimitiveOrWrapper(clazz)) {
+            // Primitive fields are read by their declared type but written as boxed values
+            MethodType type = MethodType.methodType(clazz);
+            serializer = serializers.get((clazz.isPrimitive() ? type.wrap() : type.unwrap()).returnType());
+        }
+        return serializer;
+    }
+
+    /**
+     * Helper method to find the serializer registered for the nearest
+     * superclass, or else for the nearest interface
+     */
+    private Serializer<?> findInheritedSerializer(Class<?> clazz) {
+        if (serializers.isEmpty()) {
+            return null;
+        }
+
+        for (Class<?> current = clazz.getSuperclass(); current != null; current = current.getSuperclass()) {
+            Serializer<?> serializer = serializers.get(current);
+            if (serializer != null) {
+                return serializer;
+            }
+        }
+
+        // Breadth first, so interfaces closer to the class win
+        List<Class<?>> queue = new ArrayList<>();
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Class<?> type : current.getInterfaces()) {
+                queue.add(type);
+            }
+        }
+        for (int i = 0; i < queue.size(); i++) {
+            Class<?> type = queue.get(i);
+            Serializer<?> serializer = serializers.get(type);
+            if (serializer != null) {
+                return serializer;
+            }
+            for (Class<?> parent : type.getInterfaces()) {
+                if (!queue.contains(parent)) {
+                    queue.add(parent);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The cached handler of a class, shared by every snapshot.
+     */
+    private static final class Slot {
+        private volatile Resolved resolved;
+    }
+
+    /**
+     * A handler with the generation of the snapshot it was resolved for.
+     */
+    private static final class Resolved {
+        private final int generation;
+        private final ValueHandler handler;
+
+        private Resolved(int generation, ValueHandler handler) {
+            this.generation = generation;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.sammwy.classserializer;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the name a field is serialized under, instead of its own name.
+ * <p>
+ * The name replaces the one given by the {@link ClassSerializer} field filter
+ * or field predicate, which still decide whether the field is serialized at
+ * all. Generated serializers use it too.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.RECORD_COMPONENT })
+public @interface SerialName {
+    /**
+     * @return The serialized name of the field.
+     */
+    String value();
+}
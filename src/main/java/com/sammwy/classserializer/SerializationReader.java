@@ -0,0 +1,122 @@
+package com.sammwy.classserializer;
+
+/**
+ * Source of serialized data that is pulled token by token while
+ * deserializing.
+ * <p>
+ * {@link ClassSerializer#deserialize(Class, SerializationReader)} reads
+ * objects field by field as their tokens arrive, so decoders don't need to
+ * build the whole input as a map first. Entries that don't match a field are
+ * skipped with {@link #skipValue()}. {@link MapReader} reads from the maps
+ * accepted by {@link ClassSerializer#deserialize(Class, java.util.Map)}.
+ */
+public interface SerializationReader {
+    /**
+     * The kinds of tokens a reader can return.
+     */
+    enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        VALUE,
+        NULL,
+        END_DOCUMENT
+    }
+
+    /**
+     * Gets the kind of the next token without consuming it.
+     *
+     * @return The next token.
+     */
+    Token peek();
+
+    /**
+     * Checks if the current object or array has more entries.
+     *
+     * @return False if the next token ends the current object or array.
+     */
+    boolean hasNext();
+
+    /**
+     * Consumes the start of an object.
+     */
+    void beginObject();
+
+    /**
+     * Consumes the end of an object.
+     */
+    void endObject();
+
+    /**
+     * Consumes the start of an array.
+     */
+    void beginArray();
+
+    /**
+     * Consumes the end of an array.
+     */
+    void endArray();
+
+    /**
+     * Consumes the name of the next entry of the current object.
+     *
+     * @return The name of the entry.
+     */
+    String nextName();
+
+    /**
+     * Consumes a null value.
+     */
+    void nextNull();
+
+    /**
+     * Consumes a scalar value as a boolean.
+     *
+     * @return The value.
+     */
+    boolean nextBoolean();
+
+    /**
+     * Consumes a scalar value as an int.
+     *
+     * @return The value.
+     */
+    int nextInt();
+
+    /**
+     * Consumes a scalar value as a long.
+     *
+     * @return The value.
+     */
+    long nextLong();
+
+    /**
+     * Consumes a scalar value as a double.
+     *
+     * @return The value.
+     */
+    double nextDouble();
+
+    /**
+     * Consumes a scalar value as a string.
+     *
+     * @return The value.
+     */
+    String nextString();
+
+    /**
+     * Consumes a scalar value as it was read, such as a number, a boolean or a
+     * string.
+     *
+     * @return The value.
+     */
+    Object nextValue();
+
+    /**
+     * Skips the next value, including all entries of an object or array. If the
+     * next token is a name, the entry is skipped along with its value.
+     */
+    void skipValue();
+}
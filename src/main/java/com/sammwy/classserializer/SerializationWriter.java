@@ -0,0 +1,98 @@
+package com.sammwy.classserializer;
+
+/**
+ * Sink for the events emitted while serializing an object.
+ * <p>
+ * {@link ClassSerializer#serialize(Object, SerializationWriter)} walks the
+ * fields of an object and reports them as a stream of events, so encoders can
+ * write their output directly instead of converting a map afterwards. For
+ * example, an object with a name and a list of tags is reported as:
+ *
+ * <pre>
+ * beginObject()
+ *   name("name")  writeString("John")
+ *   name("tags")  beginArray()  writeString("a")  writeString("b")  end()
+ * end()
+ * </pre>
+ *
+ * Every value inside an object is preceded by a call to {@link #name(String)}.
+ * {@link MapWriter} is the sink used by {@link ClassSerializer#serialize(Object)}.
+ */
+public interface SerializationWriter {
+    /**
+     * Starts an object, whose entries follow until the matching {@link #end()}.
+     */
+    void beginObject();
+
+    /**
+     * Starts an array, whose items follow until the matching {@link #end()}.
+     */
+    void beginArray();
+
+    /**
+     * Ends the current object or array.
+     */
+    void end();
+
+    /**
+     * Sets the name of the next value of the current object.
+     *
+     * @param name The name of the entry.
+     */
+    void name(String name);
+
+    /**
+     * Writes a null value.
+     */
+    void writeNull();
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value The value to write.
+     */
+    void writeBoolean(boolean value);
+
+    /**
+     * Writes an int value.
+     *
+     * @param value The value to write.
+     */
+    void writeInt(int value);
+
+    /**
+     * Writes a long value.
+     *
+     * @param value The value to write.
+     */
+    void writeLong(long value);
+
+    /**
+     * Writes a float value.
+     *
+     * @param value The value to write.
+     */
+    void writeFloat(float value);
+
+    /**
+     * Writes a double value.
+     *
+     * @param value The value to write.
+     */
+    void writeDouble(double value);
+
+    /**
+     * Writes a string value.
+     *
+     * @param value The value to write, never null.
+     */
+    void writeString(String value);
+
+    /**
+     * Writes any other scalar value, such as a short, byte or char, or a value
+     * returned as-is by a custom serializer.
+     *
+     * @param value The value to write, never null.
+     */
+    void writeValue(Object value);
+}
@@ -0,0 +1,23 @@
+package com.sammwy.classserializer;
+
+import java.util.Map;
+
+/**
+ * Service interface for registries of serializers generated at compile time.
+ * <p>
+ * Registries are discovered through {@link java.util.ServiceLoader} and are
+ * normally written by the annotation processor for classes annotated with
+ * {@link GenerateSerializer}. Every {@link ClassSerializer} picks them up when
+ * it is created, and uses the generated serializers instead of reflection for
+ * the classes they cover.
+ */
+public interface SerializerRegistry {
+    /**
+     * Creates the serializers of this registry.
+     *
+     * @param serializer The serializer the generated serializers delegate nested
+     *                   values to.
+     * @return A map of the covered classes to their generated serializers.
+     */
+    Map<Class<?>, Serializer<?>> create(ClassSerializer serializer);
+}
@@ -0,0 +1,83 @@
+package com.sammwy.classserializer;
+
+/**
+ * How values of a class are serialized, resolved once per class by a
+ * {@link ClassSerializer}.
+ * <p>
+ * Resolution looks for, in order: a serializer registered for the exact
+ * class, a {@link Lazy} holder, a primitive, wrapper or string type, a
+ * serializer registered for the nearest superclass or interface, a list, a
+ * map, any other collection, a generated serializer and finally the
+ * reflective field walk.
+ */
+final class ValueHandler {
+    /**
+     * The kind of handling a class gets.
+     */
+    enum Kind {
+        /**
+         * A registered serializer, for the class or one of its supertypes.
+         */
+        SERIALIZER,
+        /**
+         * A {@link Lazy} holder, written as the value it holds.
+         */
+        LAZY,
+        /**
+         * A primitive, wrapper or string, written as a plain value.
+         */
+        SCALAR,
+        LIST,
+        MAP,
+        /**
+         * A collection that is not a list.
+         */
+        COLLECTION,
+        /**
+         * A serializer generated at compile time.
+         */
+        GENERATED,
+        /**
+         * An object serialized field by field.
+         */
+        OBJECT
+    }
+
+    private final Kind kind;
+    private final Serializer<?> serializer;
+    private final boolean allowed;
+
+    ValueHandler(Kind kind, Serializer<?> serializer, boolean allowed) {
+        this.kind = kind;
+        this.serializer = serializer;
+        this.allowed = allowed;
+    }
+
+    /**
+     * @return The kind of handling.
+     */
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @return The registered or generated serializer, or null for other kinds.
+     */
+    Serializer<?> serializer() {
+        return serializer;
+    }
+
+    /**
+     * @return Whether the class satisfies the class predicate.
+     */
+    boolean allowed() {
+        return allowed;
+    }
+
+    /**
+     * @return Whether the class has a registered or generated serializer.
+     */
+    boolean hasSerializer() {
+        return kind == Kind.SERIALIZER || kind == Kind.GENERATED;
+    }
+}
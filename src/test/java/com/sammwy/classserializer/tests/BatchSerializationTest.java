@@ -0,0 +1,97 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.BatchSerializationException;
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.TestUser;
+
+@Nested
+@DisplayName("Batch Serialization")
+public class BatchSerializationTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Keep the order of large batches")
+    public void keepOrder() {
+        List<TestUser> users = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            TestUser user = new TestUser();
+            user.age = i;
+            users.add(user);
+        }
+
+        List<Map<String, Object>> serialized = serializer.serializeAll(users);
+        List<TestUser> deserialized = serializer.deserializeAll(TestUser.class, serialized);
+
+        assertEquals(users.size(), serialized.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(i, serialized.get(i).get("age"));
+        }
+        assertEquals(users, deserialized);
+    }
+
+    @Test
+    @DisplayName("Run small batches and custom pools")
+    public void runSmallBatchesAndCustomPools() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            serializer.withPool(pool);
+            List<TestUser> users = new LinkedList<>();
+            users.add(new TestUser());
+            users.add(new TestUser());
+
+            assertEquals(2, serializer.serializeAll(users).size());
+            assertTrue(serializer.serializeAll(new ArrayList<>()).isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Report the index of the first failing element")
+    public void reportFailingIndex() {
+        List<Map<String, Object>> maps = serializer.serializeAll(Collections.nCopies(10000, new TestUser()));
+        for (int index : new int[] { 9000, 7321 }) {
+            Map<String, Object> broken = new HashMap<>(maps.get(index));
+            broken.put("age", "not a number");
+            maps.set(index, broken);
+        }
+
+        BatchSerializationException exception = assertThrows(BatchSerializationException.class,
+                () -> serializer.deserializeAll(TestUser.class, maps));
+
+        assertEquals(7321, exception.getIndex());
+        assertTrue(exception.getMessage().contains("index 7321"));
+    }
+}
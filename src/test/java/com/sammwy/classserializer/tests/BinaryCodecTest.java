@@ -0,0 +1,114 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.BinaryCodec;
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.ClassSerializer.SkipNull;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.customs.CustomData;
+import com.sammwy.classserializer.tests.customs.CustomDataSerializer;
+import com.sammwy.classserializer.tests.entity.PointRecord;
+import com.sammwy.classserializer.tests.entity.PrimitiveTypes;
+import com.sammwy.classserializer.tests.entity.TestUser;
+import com.sammwy.classserializer.tests.entity.UserWithCustomData;
+import com.sammwy.classserializer.tests.entity.WithLists;
+import com.sammwy.classserializer.tests.entity.WithMaps;
+
+@Nested
+@DisplayName("Binary Codec")
+public class BinaryCodecTest {
+    private ClassSerializer serializer;
+    private BinaryCodec codec;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                })
+                .addSerializer(CustomData.class, new CustomDataSerializer());
+        codec = new BinaryCodec(serializer);
+    }
+
+    @Test
+    @DisplayName("Encode and decode objects")
+    public void encodeAndDecode() {
+        TestUser user = new TestUser();
+        user.name = "\u00dcn\u00efc\u00f8d\u00e9 \uD83C\uDFB5";
+        user.age = -35;
+        user.settings.preferences.theme = "contrast";
+        user.metadata.put("custom", new CustomData("MUSICIAN", 1649712000000L));
+
+        byte[] bytes = codec.encode(user);
+        TestUser decoded = codec.decode(TestUser.class, bytes);
+
+        assertEquals(serializer.serialize(user), serializer.serialize(decoded));
+        assertEquals(serializer.serialize(new WithLists()),
+                serializer.serialize(codec.decode(WithLists.class, codec.encode(new WithLists()))));
+        assertEquals(serializer.serialize(new WithMaps()),
+                serializer.serialize(codec.decode(WithMaps.class, codec.encode(new WithMaps()))));
+        assertEquals(serializer.serialize(new PrimitiveTypes()),
+                serializer.serialize(codec.decode(PrimitiveTypes.class, codec.encode(new PrimitiveTypes()))));
+        assertEquals(new PointRecord(3, 4, "origin"),
+                codec.decode(PointRecord.class, codec.encode(new PointRecord(3, 4, "origin"))));
+    }
+
+    @Test
+    @DisplayName("Use field ordinals instead of names")
+    public void useFieldOrdinals() {
+        byte[] bytes = codec.encode(new PointRecord(3, -4, "a"));
+
+        // Format, two bitmaps, two single-byte varints and a two-byte string
+        assertEquals(7, bytes.length);
+    }
+
+    @Test
+    @DisplayName("Apply registered serializers and null handling")
+    public void applySerializersAndNulls() {
+        UserWithCustomData user = new UserWithCustomData();
+        user.name = null;
+
+        UserWithCustomData decoded = codec.decode(UserWithCustomData.class, codec.encode(user));
+
+        assertEquals(user.data, decoded.data);
+        assertEquals("Alice", decoded.name);
+
+        serializer.withSkipNull(SkipNull.NONE);
+        decoded = codec.decode(UserWithCustomData.class, codec.encode(user));
+
+        assertNull(decoded.name);
+    }
+
+    @Test
+    @DisplayName("Encode into and decode from buffers")
+    public void encodeIntoBuffers() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+        WithLists lists = new WithLists();
+        lists.strings = Arrays.asList("first");
+
+        codec.encode(lists, buffer);
+        codec.encode(new TestUser(), buffer);
+        buffer.flip();
+
+        assertEquals(Arrays.asList("first"), codec.decode(WithLists.class, buffer).strings);
+        assertEquals(new TestUser(), codec.decode(TestUser.class, buffer));
+        assertTrue(!buffer.hasRemaining());
+    }
+}
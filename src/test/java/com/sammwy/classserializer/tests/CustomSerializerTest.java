@@ -1,8 +1,11 @@
 package com.sammwy.classserializer.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +14,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.Serializer;
 import com.sammwy.classserializer.tests.annotations.Embedded;
 import com.sammwy.classserializer.tests.annotations.Prop;
 import com.sammwy.classserializer.tests.customs.CustomData;
@@ -68,4 +72,62 @@ public class CustomSerializerTest {
         assertEquals("XYZ789", dataMap.get("code"));
         assertEquals(1649712000000L, dataMap.get("timestamp"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Use custom serializers of supertypes")
+    public void useCustomSerializersOfSupertypes() {
+        serializer.addSerializer(CharSequence.class, new Serializer<CharSequence>() {
+            @Override
+            public Object serialize(CharSequence object) {
+                return "text:" + object;
+            }
+
+            @Override
+            public CharSequence deserialize(Object serialized) {
+                return new StringBuilder(serialized.toString().substring(5));
+            }
+        });
+
+        assertEquals("text:abc", serializer.serializeValue(new StringBuilder("abc")));
+        assertEquals("abc", serializer.deserializeValue("text:abc", StringBuilder.class).toString());
+        // Strings keep being plain values
+        assertEquals("abc", serializer.serializeValue("abc"));
+
+        serializer.addSerializer(Number.class, new Serializer<Number>() {
+            @Override
+            public Object serialize(Number object) {
+                return "number:" + object;
+            }
+
+            @Override
+            public Number deserialize(Object serialized) {
+                return new BigDecimal(serialized.toString().substring(7));
+            }
+        });
+
+        assertEquals("number:10", serializer.serializeValue(BigInteger.TEN));
+        assertEquals(10, serializer.serializeValue(10));
+    }
+
+    @Test
+    @DisplayName("Use custom serializers registered after a class was serialized")
+    public void useLateSerializers() {
+        StringBuilder text = new StringBuilder("abc");
+        Object before = serializer.serializeValue(text);
+
+        serializer.addSerializer(StringBuilder.class, new Serializer<StringBuilder>() {
+            @Override
+            public Object serialize(StringBuilder object) {
+                return "text:" + object;
+            }
+
+            @Override
+            public StringBuilder deserialize(Object serialized) {
+                return new StringBuilder(serialized.toString().substring(5));
+            }
+        });
+
+        assertNotEquals("text:abc", before);
+        assertEquals("text:abc", serializer.serializeValue(text));
+    }
+}
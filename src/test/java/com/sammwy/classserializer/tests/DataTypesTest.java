@@ -1,11 +1,15 @@
 package com.sammwy.classserializer.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,10 +17,17 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.JsonCodec;
+import com.sammwy.classserializer.Serializer;
 import com.sammwy.classserializer.tests.annotations.Embedded;
 import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.ExtendedPreferences;
 import com.sammwy.classserializer.tests.entity.PrimitiveTypes;
+import com.sammwy.classserializer.tests.entity.PrivateFields;
+import com.sammwy.classserializer.tests.entity.ShadowedPreferences;
+import com.sammwy.classserializer.tests.entity.TestUser;
 import com.sammwy.classserializer.tests.entity.WithLists;
+import com.sammwy.classserializer.tests.entity.WithSets;
 import com.sammwy.classserializer.tests.entity.WithMaps;
 
 @Nested
@@ -144,4 +155,132 @@ public class DataTypesTest {
         assertEquals("default", deserialized.objects.get("default").theme);
         assertEquals("dark", deserialized.objects.get("dark").theme);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Handle inherited fields")
+    public void handleInheritedFields() {
+        ExtendedPreferences obj = new ExtendedPreferences();
+        obj.theme = "dark";
+        obj.language = "es";
+
+        Map<String, Object> serialized = serializer.serialize(obj);
+
+        assertEquals(3, serialized.size());
+        assertEquals("dark", serialized.get("theme"));
+        assertEquals("es", serialized.get("language"));
+
+        // The cached class model must be reused across calls
+        ExtendedPreferences first = serializer.deserialize(ExtendedPreferences.class, serialized);
+        ExtendedPreferences second = serializer.deserialize(ExtendedPreferences.class, serialized);
+
+        assertEquals("dark", first.theme);
+        assertEquals("es", first.language);
+        assertEquals(first.theme, second.theme);
+        assertEquals(first.language, second.language);
+    }
+
+    @Test
+    @DisplayName("Set every shadowed field sharing a name")
+    public void setShadowedFields() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("theme", "dark");
+        map.put("notifications", false);
+
+        ShadowedPreferences dynamic = serializer.deserialize(ShadowedPreferences.class, map);
+        serializer.fieldFilter(field -> field.isAnnotationPresent(Prop.class) ? field.getName() : null);
+        ShadowedPreferences filtered = serializer.deserialize(ShadowedPreferences.class, map);
+
+        for (ShadowedPreferences preferences : Arrays.asList(dynamic, filtered)) {
+            assertEquals("dark", preferences.theme);
+            assertEquals("dark", preferences.inheritedTheme());
+            assertFalse(preferences.notifications);
+        }
+    }
+
+    @Test
+    @DisplayName("Handle set fields")
+    public void handleSetFields() {
+        WithSets obj = new WithSets();
+
+        Map<String, Object> serialized = serializer.serialize(obj);
+
+        assertEquals("x", serialized.get("name"));
+        assertEquals(Map.of("value", Set.of("a", "b")), serialized.get("tags"));
+        assertEquals(Map.of("value", Set.of("a", "b")), serializer.serialize(obj.tags));
+        assertEquals("{\"name\":\"x\",\"tags\":{\"value\":[\"a\",\"b\"]}}",
+                new String(new JsonCodec(serializer).encode(obj), StandardCharsets.UTF_8));
+        assertEquals(Map.of("name", "x", "tags.value", Set.of("a", "b")),
+                serializer.withDeflate(".").serialize(obj));
+    }
+
+    @Test
+    @DisplayName("Handle private and final fields")
+    public void handlePrivateAndFinalFields() {
+        PrivateFields obj = new PrivateFields();
+
+        Map<String, Object> serialized = serializer.serialize(obj);
+
+        assertEquals("hidden", serialized.get("secret"));
+        assertEquals(7, serialized.get("code"));
+
+        serialized.put("secret", "revealed");
+        serialized.put("code", 9);
+
+        PrivateFields deserialized = serializer.deserialize(PrivateFields.class, serialized);
+
+        assertEquals("revealed", deserialized.getSecret());
+        assertEquals(9, deserialized.getCode());
+    }
+
+    @Test
+    @DisplayName("Convert values of primitive fields")
+    public void convertPrimitiveFields() {
+        Map<String, Object> serialized = serializer.serialize(new TestUser());
+
+        serialized.put("age", "31");
+        assertEquals(31, serializer.deserialize(TestUser.class, serialized).age);
+
+        serialized.put("age", 32L);
+        assertEquals(32, serializer.deserialize(TestUser.class, serialized).age);
+
+        serialized.put("age", null);
+        assertEquals(0, serializer.deserialize(TestUser.class, serialized).age);
+
+        // A custom serializer for a primitive type must still be honored
+        serializer.addSerializer(int.class, new Serializer<Integer>() {
+            @Override
+            public Object serialize(Integer object) {
+                return object;
+            }
+
+            @Override
+            public Integer deserialize(Object serialized) {
+                return ((Number) serialized).intValue() * 2;
+            }
+        });
+
+        serialized.put("age", 20);
+        assertEquals(40, serializer.deserialize(TestUser.class, serialized).age);
+    }
+
+    @Test
+    @DisplayName("Use serializers of primitive types in both directions")
+    public void usePrimitiveSerializersInBothDirections() {
+        serializer.addSerializer(int.class, new Serializer<Integer>() {
+            @Override
+            public Object serialize(Integer object) {
+                return "#" + object;
+            }
+
+            @Override
+            public Integer deserialize(Object serialized) {
+                return Integer.parseInt(((String) serialized).substring(1));
+            }
+        });
+
+        Map<String, Object> serialized = serializer.serialize(new TestUser());
+
+        assertEquals("#30", serialized.get("age"));
+        assertEquals(30, serializer.deserialize(TestUser.class, serialized).age);
+    }
+}
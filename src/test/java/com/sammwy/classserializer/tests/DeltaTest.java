@@ -0,0 +1,106 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.TestSettings;
+import com.sammwy.classserializer.tests.entity.TestUser;
+
+@Nested
+@DisplayName("Delta Serialization")
+public class DeltaTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Emit only the changed fields")
+    @SuppressWarnings("unchecked")
+    public void emitChangedFields() {
+        TestUser baseline = new TestUser();
+        TestUser current = new TestUser();
+
+        assertTrue(serializer.diff(baseline, current).isEmpty());
+
+        current.age = 31;
+        current.name = null;
+        current.settings.preferences.theme = "light";
+        current.tags.add("admin");
+        current.metadata.remove("active");
+        Map<String, Object> delta = serializer.diff(baseline, current);
+
+        assertEquals(5, delta.size());
+        assertEquals(31, delta.get("age"));
+        assertEquals(ClassSerializer.DELTA_REMOVED, delta.get("name"));
+        assertEquals(Collections.singletonMap("preferences", Collections.singletonMap("theme", "light")),
+                delta.get("settings"));
+        assertEquals("admin", ((Map<String, Object>) delta.get("tags")).get("2"));
+        assertEquals(3, ((Map<String, Object>) delta.get("tags")).get(ClassSerializer.DELTA_SIZE));
+        assertEquals(Collections.singletonMap("active", ClassSerializer.DELTA_REMOVED), delta.get("metadata"));
+    }
+
+    @Test
+    @DisplayName("Apply deltas in place")
+    public void applyDeltas() {
+        assertAppliedInPlace();
+    }
+
+    @Test
+    @DisplayName("Apply deltas in Deflate Mode")
+    public void applyDeflatedDeltas() {
+        serializer.withDeflate(".");
+        assertAppliedInPlace();
+    }
+
+    @Test
+    @DisplayName("Reject objects of different classes")
+    public void rejectDifferentClasses() {
+        assertThrows(IllegalArgumentException.class, () -> serializer.diff(new TestUser(), new TestSettings()));
+        assertThrows(IllegalArgumentException.class, () -> serializer.diff(null, new TestUser()));
+    }
+
+    private void assertAppliedInPlace() {
+        TestUser baseline = new TestUser();
+        TestUser current = new TestUser();
+        current.age = 31;
+        current.name = null;
+        current.settings.darkMode = false;
+        current.tags.remove(0);
+        current.tags.set(0, "lead");
+        current.metadata.put("active", false);
+        current.metadata.put("level", 3);
+
+        TestUser target = new TestUser();
+        TestSettings settings = target.settings;
+        serializer.applyDelta(target, serializer.diff(baseline, current));
+
+        assertEquals(current, target);
+        assertNull(target.name);
+        assertSame(settings, target.settings);
+    }
+}
@@ -0,0 +1,135 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.NamedAccount;
+import com.sammwy.classserializer.tests.entity.NamedPoint;
+import com.sammwy.classserializer.tests.entity.TestUser;
+
+@Nested
+@DisplayName("Field Filters")
+public class FieldFilterTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldFilter(field -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Call the field filter once per field")
+    public void callFilterOncePerField() {
+        AtomicInteger calls = new AtomicInteger();
+        serializer.fieldFilter(field -> {
+            calls.incrementAndGet();
+            return field.isAnnotationPresent(Prop.class) ? field.getName() : null;
+        });
+
+        TestUser user = new TestUser();
+        Map<String, Object> map = serializer.serialize(user);
+        int firstCalls = calls.get();
+        for (int i = 0; i < 10; i++) {
+            serializer.deserialize(TestUser.class, serializer.serialize(user));
+        }
+
+        assertEquals(firstCalls, calls.get());
+        assertEquals(user.name, map.get("name"));
+        assertFalse(map.containsKey("settings"));
+    }
+
+    @Test
+    @DisplayName("Keep the names of every filter apart")
+    public void keepNamesOfEveryFilterApart() {
+        TestUser user = new TestUser();
+        for (int i = 0; i < 8; i++) {
+            String suffix = "_" + i;
+            AtomicInteger calls = new AtomicInteger();
+            ClassSerializer other = new ClassSerializer().fieldFilter(field -> {
+                calls.incrementAndGet();
+                return field.isAnnotationPresent(Prop.class) ? field.getName() + suffix : null;
+            });
+
+            Map<String, Object> map = other.serialize(user);
+            int firstCalls = calls.get();
+            assertEquals(user.name, map.get("name" + suffix));
+            assertEquals(user.name, other.deserialize(TestUser.class, map).name);
+            other.serialize(user);
+            assertEquals(firstCalls, calls.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Apply serial names and ignored fields")
+    public void applySerialNamesAndIgnore() {
+        NamedAccount account = new NamedAccount();
+        account.preferences.theme = "light";
+        Map<String, Object> map = serializer.serialize(account);
+
+        assertEquals("alice", map.get("user_name"));
+        assertEquals("light", ((Map<?, ?>) map.get("prefs")).get("theme"));
+        assertFalse(map.containsKey("password"));
+        assertFalse(map.containsKey("visits"));
+
+        Map<String, Object> input = new HashMap<>(map);
+        input.put("password", "leaked");
+        NamedAccount deserialized = serializer.deserialize(NamedAccount.class, input);
+        assertEquals("alice", deserialized.name);
+        assertEquals("light", deserialized.preferences.theme);
+        assertEquals("secret", deserialized.password);
+
+        serializer.withDeflate(".");
+        assertEquals("light", serializer.serialize(account).get("prefs.theme"));
+        assertEquals("light", serializer.deserialize(NamedAccount.class, serializer.serialize(account))
+                .preferences.theme);
+    }
+
+    @Test
+    @DisplayName("Apply serial names and ignored fields with a field predicate")
+    public void applySerialNamesWithPredicate() {
+        serializer.fieldPredicate((field, obj) -> obj == null || obj instanceof NamedAccount ? field.getName() : null);
+
+        Map<String, Object> map = serializer.serialize(new NamedAccount());
+
+        assertEquals("alice", map.get("user_name"));
+        assertEquals(3, map.get("visits"));
+        assertFalse(map.containsKey("password"));
+        // The predicate rejects the fields of the nested preferences
+        assertEquals(Map.of(), map.get("prefs"));
+    }
+
+    @Test
+    @DisplayName("Apply serial names and ignored components to records")
+    public void applySerialNamesToRecords() {
+        serializer.fieldFilter(null);
+
+        Map<String, Object> map = serializer.serialize(new NamedPoint(3, 4, "origin"));
+
+        assertEquals(Map.of("px", 3, "py", 4), new HashMap<>(map));
+        NamedPoint point = serializer.deserialize(NamedPoint.class, map);
+        assertEquals(3, point.x());
+        assertEquals(4, point.y());
+        assertNull(point.label());
+    }
+}
@@ -0,0 +1,89 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.ClassSerializer.SkipNull;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.customs.CustomData;
+import com.sammwy.classserializer.tests.customs.CustomDataSerializer;
+import com.sammwy.classserializer.tests.entity.TestUser;
+import com.sammwy.classserializer.tests.entity.UserWithCustomData;
+
+@Nested
+@DisplayName("Frozen Serializer")
+public class FrozenSerializerTest {
+    private ClassSerializer.Builder builder;
+
+    @BeforeEach
+    public void setUp() {
+        builder = ClassSerializer.builder()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Reject configuration changes once built")
+    public void rejectConfigurationChanges() {
+        ClassSerializer serializer = builder.withSkipNull(SkipNull.NONE).build();
+
+        assertTrue(serializer.isFrozen());
+        assertEquals(SkipNull.NONE, serializer.getSkipNull());
+        assertThrows(IllegalStateException.class, () -> serializer.withDeflate("."));
+        assertThrows(IllegalStateException.class, () -> serializer.fieldPredicate((field, obj) -> null));
+        assertThrows(IllegalStateException.class, () -> builder.withDeflate("."));
+        assertThrows(IllegalStateException.class, () -> builder.build());
+    }
+
+    @Test
+    @DisplayName("Register serializers while other threads serialize")
+    public void registerWhileSerializing() throws Exception {
+        ClassSerializer serializer = builder.build();
+        UserWithCustomData user = new UserWithCustomData();
+        Map<String, Object> expected = serializer.serialize(new TestUser());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        assertEquals(expected, serializer.serialize(new TestUser()));
+                    }
+                }));
+            }
+
+            serializer.addSerializer(CustomData.class, new CustomDataSerializer());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) serializer.serialize(user).get("data");
+        assertEquals("XYZ789", data.get("code"));
+    }
+}
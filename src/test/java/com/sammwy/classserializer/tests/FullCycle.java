@@ -79,6 +79,20 @@ public class FullCycle {
         assertEquals(originalCustom.getTimestamp(), deserializedCustomMap.get("timestamp"));
     }
 
+    @Test
+    @DisplayName("Serialize and Deserialize Complex Object with a Field Filter")
+    public void serializeDeserializeComplexWithFilter() {
+        serializer.fieldFilter(field -> {
+            if (field.isAnnotationPresent(Prop.class)) {
+                return field.getName();
+            } else if (field.isAnnotationPresent(Embedded.class)) {
+                return field.getName();
+            }
+            return null;
+        });
+        serializeDeserializeComplex();
+    }
+
     @Test
     @DisplayName("Check consistency in Deflate Mode")
     public void consistencyInDeflateMode() {
@@ -0,0 +1,174 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.ClassSerializer.Engine;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.customs.CustomData;
+import com.sammwy.classserializer.tests.customs.CustomDataSerializer;
+import com.sammwy.classserializer.tests.entity.PrimitiveTypes;
+import com.sammwy.classserializer.tests.entity.TestUser;
+import com.sammwy.classserializer.tests.entity.UserWithCustomData;
+import com.sammwy.classserializer.tests.entity.WithLists;
+import com.sammwy.classserializer.tests.entity.WithMaps;
+
+@Nested
+@DisplayName("Generated Engine")
+public class GeneratedEngineTest {
+    private ClassSerializer reflective;
+    private ClassSerializer generated;
+
+    private ClassSerializer create(Engine engine) {
+        return new ClassSerializer()
+                .withEngine(engine)
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                })
+                .addSerializer(CustomData.class, new CustomDataSerializer());
+    }
+
+    @BeforeEach
+    public void setUp() {
+        reflective = create(Engine.REFLECTIVE);
+        generated = create(Engine.GENERATED);
+    }
+
+    @Test
+    @DisplayName("Produce the same output as the reflective engine")
+    public void sameOutputAsReflective() {
+        TestUser user = new TestUser();
+        user.tags = new ArrayList<>(Arrays.asList("musician", "artist"));
+        user.metadata.put("custom", new CustomData("MUSICIAN", 1649712000000L));
+
+        assertEquals(reflective.serialize(user), generated.serialize(user));
+        assertEquals(reflective.serialize(new PrimitiveTypes()), generated.serialize(new PrimitiveTypes()));
+        assertEquals(reflective.serialize(new WithLists()), generated.serialize(new WithLists()));
+        assertEquals(reflective.serialize(new WithMaps()), generated.serialize(new WithMaps()));
+    }
+
+    @Test
+    @DisplayName("Serialize and Deserialize Complex Object")
+    public void serializeDeserializeComplex() {
+        TestUser originalUser = new TestUser();
+        originalUser.name = "Alice Cooper";
+        originalUser.age = 35;
+        originalUser.settings.preferences.theme = "contrast";
+
+        Map<String, Object> serialized = generated.serialize(originalUser);
+        TestUser deserializedUser = generated.deserialize(TestUser.class, serialized);
+
+        assertEquals(originalUser, deserializedUser);
+        assertEquals(reflective.deserialize(TestUser.class, serialized), deserializedUser);
+    }
+
+    @Test
+    @DisplayName("Check consistency in Deflate Mode")
+    public void consistencyInDeflateMode() {
+        reflective.withDeflate(".");
+        generated.withDeflate(".");
+
+        TestUser originalUser = new TestUser();
+        originalUser.settings.preferences.theme = "reggae";
+
+        Map<String, Object> serialized = generated.serialize(originalUser);
+
+        assertEquals(reflective.serialize(originalUser), serialized);
+        assertEquals(originalUser, generated.deserialize(TestUser.class, serialized));
+    }
+
+    @Test
+    @DisplayName("Run every class through its own codec class")
+    public void runOwnCodecClass() {
+        List<String> generatedSteps = new ArrayList<>();
+        List<Class<?>> generatedCodecs = codecClasses(generated, generatedSteps);
+        List<String> reflectiveSteps = new ArrayList<>();
+        List<Class<?>> reflectiveCodecs = codecClasses(reflective, reflectiveSteps);
+
+        assertEquals(2, generatedCodecs.size());
+        assertTrue(generatedCodecs.get(0).isHidden());
+        assertTrue(generatedCodecs.get(1).isHidden());
+        assertNotSame(generatedCodecs.get(0), generatedCodecs.get(1));
+        assertFalse(reflectiveCodecs.get(0).isHidden());
+        assertSame(reflectiveCodecs.get(0), reflectiveCodecs.get(1));
+    }
+
+    @Test
+    @DisplayName("Read and write fields through per-field steps")
+    public void usePerFieldSteps() {
+        List<String> generatedSteps = new ArrayList<>();
+        codecClasses(generated, generatedSteps);
+        List<String> reflectiveSteps = new ArrayList<>();
+        codecClasses(reflective, reflectiveSteps);
+
+        // The generated codecs never run the field loop of the reflective codec
+        assertTrue(generatedSteps.contains("CodecHandles.write"));
+        assertTrue(generatedSteps.contains("CodecHandles.readValue"));
+        assertFalse(generatedSteps.stream().anyMatch(step -> step.startsWith("ModelCodec.")));
+        assertTrue(reflectiveSteps.contains("ModelCodec.writeField"));
+        assertTrue(reflectiveSteps.contains("ModelCodec.readField"));
+        assertFalse(reflectiveSteps.stream().anyMatch(step -> step.startsWith("CodecHandles.")));
+    }
+
+    private List<Class<?>> codecClasses(ClassSerializer serializer, List<String> steps) {
+        StackWalker walker = StackWalker.getInstance(
+                EnumSet.of(StackWalker.Option.RETAIN_CLASS_REFERENCE, StackWalker.Option.SHOW_HIDDEN_FRAMES));
+        List<Class<?>> codecs = new ArrayList<>();
+        serializer.addSerializer(CustomData.class, new CustomDataSerializer() {
+            @Override
+            public Object serialize(CustomData object) {
+                walker.forEach(frame -> {
+                    // The codec that wrote the field holding the value
+                    if (frame.getMethodName().equals("writeFields")
+                            && (frame.getClassName().startsWith("com.sammwy.classserializer.ModelCodec")
+                                    || frame.getClassName().startsWith("com.sammwy.classserializer.GeneratedCodec"))) {
+                        codecs.add(frame.getDeclaringClass());
+                    }
+                    addStep(frame, steps);
+                });
+                return super.serialize(object);
+            }
+
+            @Override
+            public CustomData deserialize(Object serialized) {
+                walker.forEach(frame -> addStep(frame, steps));
+                return super.deserialize(serialized);
+            }
+        });
+
+        serializer.deserialize(UserWithCustomData.class, serializer.serialize(new UserWithCustomData()));
+        TestUser user = new TestUser();
+        user.metadata.put("custom", new CustomData("MUSICIAN", 1649712000000L));
+        serializer.serialize(user);
+        return codecs;
+    }
+
+    private void addStep(StackWalker.StackFrame frame, List<String> steps) {
+        String className = frame.getClassName();
+        if (className.equals("com.sammwy.classserializer.CodecHandles")
+                || className.equals("com.sammwy.classserializer.ModelCodec")) {
+            steps.add(className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName());
+        }
+    }
+}
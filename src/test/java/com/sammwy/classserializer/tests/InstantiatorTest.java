@@ -0,0 +1,125 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.ImmutablePoint;
+import com.sammwy.classserializer.tests.entity.PointRecord;
+import com.sammwy.classserializer.tests.entity.TestPreferences;
+
+@Nested
+@DisplayName("Instantiators")
+public class InstantiatorTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Deserialize records through their canonical constructor")
+    public void deserializeRecords() {
+        PointRecord point = new PointRecord(3, 4, "origin");
+
+        Map<String, Object> serialized = serializer.serialize(point);
+
+        assertEquals(3, serialized.get("x"));
+        assertEquals("origin", serialized.get("label"));
+
+        serialized.remove("label");
+        PointRecord deserialized = serializer.deserialize(PointRecord.class, serialized);
+
+        assertEquals(new PointRecord(3, 4, null), deserialized);
+    }
+
+    @Test
+    @DisplayName("Deserialize final fields through an all-args constructor in a single pass")
+    public void deserializeAllArgsConstructor() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("x", 5);
+        map.put("y", 6L);
+
+        int created = ImmutablePoint.created;
+        ImmutablePoint point = serializer.deserialize(ImmutablePoint.class, map);
+
+        assertEquals(5, point.getX());
+        assertEquals(6, point.getY());
+        assertEquals(created + 1, ImmutablePoint.created);
+    }
+
+    @Test
+    @DisplayName("Don't match constructor parameters by position without their names")
+    public void skipUnnamedParameters(@TempDir Path directory) throws Exception {
+        Path source = directory.resolve("Person.java");
+        Files.writeString(source, String.join("\n",
+                "public class Person {",
+                "    public final String first;",
+                "    public final String last;",
+                "",
+                "    public Person(String last, String first) {",
+                "        this.first = first;",
+                "        this.last = last;",
+                "    }",
+                "}"));
+        // Compiled without -parameters, like javac does by default
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-d", directory.toString(), source.toString()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { directory.toUri().toURL() })) {
+            Class<?> type = loader.loadClass("Person");
+            Map<String, Object> map = new HashMap<>();
+            map.put("first", "Ada");
+            map.put("last", "Lovelace");
+
+            Object person = new ClassSerializer().deserialize(type, map);
+
+            assertEquals("Ada", type.getField("first").get(person));
+            assertEquals("Lovelace", type.getField("last").get(person));
+        }
+    }
+
+    @Test
+    @DisplayName("Use custom instantiators")
+    public void useCustomInstantiators() {
+        serializer.addInstantiator(TestPreferences.class, () -> {
+            TestPreferences preferences = new TestPreferences();
+            preferences.theme = "from-instantiator";
+            return preferences;
+        });
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("notifications", false);
+
+        TestPreferences preferences = serializer.deserialize(TestPreferences.class, map);
+
+        assertEquals("from-instantiator", preferences.theme);
+        assertEquals(false, preferences.notifications);
+    }
+}
@@ -0,0 +1,175 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.JsonCodec;
+import com.sammwy.classserializer.Lazy;
+import com.sammwy.classserializer.SerializationException;
+import com.sammwy.classserializer.Serializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.customs.CustomData;
+import com.sammwy.classserializer.tests.customs.CustomDataSerializer;
+import com.sammwy.classserializer.tests.entity.LazyUser;
+import com.sammwy.classserializer.tests.entity.PointRecord;
+import com.sammwy.classserializer.tests.entity.PrimitiveTypes;
+import com.sammwy.classserializer.tests.entity.TestUser;
+import com.sammwy.classserializer.tests.entity.WithBigNumbers;
+import com.sammwy.classserializer.tests.entity.WithLists;
+import com.sammwy.classserializer.tests.entity.WithMaps;
+
+@Nested
+@DisplayName("JSON Codec")
+public class JsonCodecTest {
+    private ClassSerializer serializer;
+    private JsonCodec codec;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                })
+                .addSerializer(CustomData.class, new CustomDataSerializer());
+        codec = new JsonCodec(serializer);
+    }
+
+    @Test
+    @DisplayName("Encode and decode objects")
+    public void encodeAndDecode() {
+        TestUser user = new TestUser();
+        user.age = Integer.MIN_VALUE;
+        user.settings.preferences.theme = "contrast";
+        user.metadata.put("custom", new CustomData("MUSICIAN", 1649712000000L));
+
+        TestUser decoded = codec.decode(TestUser.class, codec.encode(user));
+
+        assertEquals(serializer.serialize(user), serializer.serialize(decoded));
+        assertEquals(serializer.serialize(new WithLists()),
+                serializer.serialize(codec.decode(WithLists.class, codec.encode(new WithLists()))));
+        assertEquals(serializer.serialize(new WithMaps()),
+                serializer.serialize(codec.decode(WithMaps.class, codec.encode(new WithMaps()))));
+        assertEquals(serializer.serialize(new PrimitiveTypes()),
+                serializer.serialize(codec.decode(PrimitiveTypes.class, codec.encode(new PrimitiveTypes()))));
+        assertEquals(new PointRecord(3, -4, "origin"),
+                codec.decode(PointRecord.class, codec.encode(new PointRecord(3, -4, "origin"))));
+    }
+
+    @Test
+    @DisplayName("Escape strings and keep unicode")
+    public void escapeStrings() {
+        String label = "\"quoted\"\\ line\nbreak\t\u0001 \u00dcn\u00efc\u00f8d\u00e9 \uD83C\uDFB5";
+        String json = new String(codec.encode(new PointRecord(1, 2, label)), StandardCharsets.UTF_8);
+
+        assertEquals("{\"x\":1,\"y\":2,\"label\":"
+                + "\"\\\"quoted\\\"\\\\ line\\nbreak\\t\\u0001 \u00dcn\u00efc\u00f8d\u00e9 \uD83C\uDFB5\"}", json);
+        assertEquals(label, codec.decode(PointRecord.class, json).label());
+        assertEquals("\u00e9\uD83C\uDFB5",
+                codec.decode(PointRecord.class, "{\"label\":\"\\u00e9\\ud83c\\udfb5\"}").label());
+    }
+
+    @Test
+    @DisplayName("Skip unknown entries and whitespace")
+    public void skipUnknownEntries() {
+        String json = " {\n \"unknown\" : {\"nested\": [1, 2.5e3, \"\\\"\", null, true]},\n"
+                + " \"y\" : -7 , \"x\":4 }\n";
+
+        assertEquals(new PointRecord(4, -7, null), codec.decode(PointRecord.class, json));
+    }
+
+    @Test
+    @DisplayName("Write to streams and appendables")
+    public void writeToStreams() throws Exception {
+        TestUser user = new TestUser();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        StringBuilder builder = new StringBuilder();
+
+        codec.encode(user, stream);
+        codec.encode(user, builder);
+
+        assertEquals(builder.toString(), stream.toString("UTF-8"));
+        assertEquals(user, codec.decode(TestUser.class, new ByteArrayInputStream(stream.toByteArray())));
+    }
+
+    @Test
+    @DisplayName("Write long text to appendables")
+    public void writeLongTextToAppendables() throws Exception {
+        TestUser user = new TestUser();
+        // Multibyte characters end up split by the end of the buffer
+        user.name = "a\u00e9\uD83C\uDFB5".repeat(5000);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        StringBuilder builder = new StringBuilder();
+
+        codec.encode(user, stream);
+        codec.encode(user, builder);
+
+        assertEquals(stream.toString("UTF-8"), builder.toString());
+        assertEquals(user, codec.decode(TestUser.class, builder));
+    }
+
+    @Test
+    @DisplayName("Write big numbers exactly")
+    public void writeBigNumbers() {
+        // Serializers that keep big numbers as they are hand them to the writer
+        serializer.addSerializer(BigDecimal.class, asIs(value -> new BigDecimal(value.toString())))
+                .addSerializer(BigInteger.class, asIs(value -> new BigInteger(value.toString())));
+        String json = new String(codec.encode(new WithBigNumbers()), StandardCharsets.UTF_8);
+
+        assertEquals("{\"amount\":12345678901234567890.123456789,"
+                + "\"count\":123456789012345678901234567890}", json);
+    }
+
+    @Test
+    @DisplayName("Skip lazy fields holding null")
+    public void skipLazyNulls() {
+        LazyUser user = new LazyUser();
+        user.settings = Lazy.of(null);
+        String json = new String(codec.encode(user), StandardCharsets.UTF_8);
+
+        assertFalse(serializer.serialize(user).containsKey("settings"));
+        assertFalse(json.contains("settings"));
+    }
+
+    @Test
+    @DisplayName("Reject malformed input")
+    public void rejectMalformedInput() {
+        assertThrows(SerializationException.class, () -> codec.decode(PointRecord.class, "{\"x\":1"));
+        assertThrows(SerializationException.class, () -> codec.decode(PointRecord.class, "{\"x\" 1}"));
+        assertThrows(SerializationException.class, () -> codec.decode(PointRecord.class, "{\"x\":1} {}"));
+        assertThrows(SerializationException.class, () -> codec.decode(PointRecord.class, "{\"label\":\"open}"));
+    }
+
+    private static <T> Serializer<T> asIs(Function<Object, T> parser) {
+        return new Serializer<T>() {
+            @Override
+            public Object serialize(T object) {
+                return object;
+            }
+
+            @Override
+            public T deserialize(Object serialized) {
+                return parser.apply(serialized);
+            }
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.BinaryCodec;
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.JsonCodec;
+import com.sammwy.classserializer.Lazy;
+import com.sammwy.classserializer.Serializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.customs.CustomData;
+import com.sammwy.classserializer.tests.entity.LazyUser;
+import com.sammwy.classserializer.tests.entity.TestPreferences;
+import com.sammwy.classserializer.tests.entity.TestSettings;
+
+@Nested
+@DisplayName("Lazy fields")
+public class LazyTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Decode lazy fields on first use")
+    public void decodeOnFirstUse() {
+        assertDecodedOnFirstUse();
+    }
+
+    @Test
+    @DisplayName("Decode lazy fields on first use in Deflate Mode")
+    public void decodeOnFirstUseDeflated() {
+        serializer.withDeflate(".");
+        assertDecodedOnFirstUse();
+    }
+
+    @Test
+    @DisplayName("Serialize lazy fields that were never decoded")
+    public void serializeUndecoded() {
+        LazyUser source = new LazyUser();
+        source.settings.get().preferences.theme = "light";
+        Map<String, Object> map = serializer.serialize(source);
+
+        LazyUser user = serializer.deserialize(LazyUser.class, map);
+
+        assertEquals(map, serializer.serialize(user));
+        assertFalse(user.settings.isDecoded());
+
+        JsonCodec codec = new JsonCodec(serializer);
+        LazyUser decoded = codec.decode(LazyUser.class, codec.encode(user));
+        assertEquals("light", decoded.settings.get().preferences.theme);
+        BinaryCodec binary = new BinaryCodec(serializer);
+        assertEquals(map, serializer.serialize(binary.decode(LazyUser.class, binary.encode(user))));
+
+        user.scores = Lazy.of(null);
+        assertFalse(serializer.serialize(user).containsKey("scores"));
+    }
+
+    @Test
+    @DisplayName("Decode a lazy field once across threads")
+    public void decodeOnce() throws Exception {
+        AtomicInteger decodes = new AtomicInteger();
+        serializer.addSerializer(CustomData.class, new Serializer<CustomData>() {
+            @Override
+            public Object serialize(CustomData object) {
+                return object.getCode();
+            }
+
+            @Override
+            public CustomData deserialize(Object serialized) {
+                decodes.incrementAndGet();
+                return new CustomData((String) serialized, 0);
+            }
+        });
+        @SuppressWarnings("unchecked")
+        Lazy<CustomData> lazy = (Lazy<CustomData>) serializer.deserializeValue("ADMIN", Lazy.class, CustomData.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CustomData>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return lazy.get();
+                }));
+            }
+            start.countDown();
+
+            for (Future<CustomData> result : results) {
+                assertSame(lazy.get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, decodes.get());
+        assertEquals("ADMIN", lazy.get().getCode());
+    }
+
+    private void assertDecodedOnFirstUse() {
+        LazyUser source = new LazyUser();
+        source.settings.get().fontSize = 20f;
+        source.profiles.get().get("work").theme = "light";
+
+        LazyUser user = serializer.deserialize(LazyUser.class, serializer.serialize(source));
+
+        assertEquals("Alice", user.name);
+        assertFalse(user.settings.isDecoded());
+        assertFalse(user.scores.isDecoded());
+        assertFalse(user.profiles.isDecoded());
+
+        TestSettings settings = user.settings.get();
+        assertTrue(user.settings.isDecoded());
+        assertSame(settings, user.settings.get());
+        assertEquals(20f, settings.fontSize);
+        assertEquals(List.of(10, 20), user.scores.get());
+        TestPreferences work = user.profiles.get().get("work");
+        assertEquals("light", work.theme);
+    }
+}
@@ -1,8 +1,13 @@
 package com.sammwy.classserializer.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.DisplayName;
@@ -36,4 +41,102 @@ public class MapDeflateTest {
         assertEquals("light", deflated.get("settings.preferences.theme"));
         assertEquals(false, deflated.get("settings.preferences.notifications"));
     }
+
+    @Test
+    @DisplayName("mapInflate must split keys like String.split")
+    public void mapInflateSplitsLikeStringSplit() {
+        Map<String, Object> flatMap = new HashMap<>();
+        flatMap.put("a::b::c", 1);
+        flatMap.put("::lead", 2);
+        flatMap.put("trail::::", 3);
+        flatMap.put("in::::ner", 4);
+
+        Map<String, Object> inflated = MapDeflate.inflate(flatMap, "::");
+
+        assertEquals(1, get(inflated, "a", "b", "c"));
+        assertEquals(2, get(inflated, "", "lead"));
+        assertEquals(3, inflated.get("trail"));
+        assertEquals(4, get(inflated, "in", "", "ner"));
+    }
+
+    @Test
+    @DisplayName("mapInflate must replace values that are in the way of a path")
+    public void mapInflateReplacesValuesInTheWay() {
+        Map<String, Object> flatMap = new LinkedHashMap<>();
+        flatMap.put("settings", "plain");
+        flatMap.put("settings.theme", "dark");
+
+        Map<String, Object> inflated = MapDeflate.inflate(flatMap);
+
+        assertEquals("dark", get(inflated, "settings", "theme"));
+        assertEquals(Collections.singletonMap("settings.theme", "dark"), MapDeflate.deflate(inflated));
+    }
+
+    @Test
+    @DisplayName("flatView must look up and iterate flattened keys")
+    public void flatViewReadsFlattenedKeys() {
+        Map<String, Object> prefsMap = new HashMap<>();
+        prefsMap.put("theme", "light");
+        Map<String, Object> nestedMap = new HashMap<>();
+        nestedMap.put("name", "Test");
+        nestedMap.put("settings", Collections.singletonMap("preferences", prefsMap));
+        nestedMap.put("dotted.key", 1);
+
+        Map<String, Object> view = MapDeflate.flatView(nestedMap);
+
+        assertEquals("light", view.get("settings.preferences.theme"));
+        assertEquals(1, view.get("dotted.key"));
+        assertNull(view.get("settings.preferences"));
+        assertEquals(MapDeflate.deflate(nestedMap), new HashMap<>(view));
+
+        prefsMap.put("theme", "dark");
+        assertEquals("dark", view.get("settings.preferences.theme"));
+        assertThrows(UnsupportedOperationException.class, () -> view.put("name", "Other"));
+    }
+
+    @Test
+    @DisplayName("nestedView must look up and iterate nested keys")
+    public void nestedViewReadsNestedKeys() {
+        Map<String, Object> flatMap = new HashMap<>();
+        flatMap.put("name", "Test");
+        flatMap.put("settings.darkMode", false);
+        flatMap.put("settings.preferences.theme", "light");
+
+        Map<String, Object> view = MapDeflate.nestedView(flatMap);
+
+        assertEquals("Test", view.get("name"));
+        assertEquals("light", get(view, "settings", "preferences", "theme"));
+        assertEquals(2, view.size());
+        assertEquals(MapDeflate.inflate(flatMap), MapDeflate.inflate(MapDeflate.deflate(view)));
+    }
+
+    @Test
+    @DisplayName("nestedView must resolve keys that are values and parents like inflate")
+    public void nestedViewResolvesConflictsLikeInflate() {
+        Map<String, Object> valueLast = new LinkedHashMap<>();
+        valueLast.put("a.b", 1);
+        valueLast.put("a", 2);
+        Map<String, Object> parentLast = new LinkedHashMap<>();
+        parentLast.put("a.b", 1);
+        parentLast.put("a", 2);
+        parentLast.put("a.c", 3);
+
+        for (Map<String, Object> flatMap : List.of(valueLast, parentLast)) {
+            Map<String, Object> view = MapDeflate.nestedView(flatMap);
+            Map<String, Object> inflated = MapDeflate.inflate(flatMap);
+
+            assertEquals(inflated.get("a"), view.get("a"));
+            assertEquals(inflated, new HashMap<>(view));
+            assertEquals(inflated.get("a"), view.entrySet().iterator().next().getValue());
+        }
+        assertEquals(Map.of("c", 3), MapDeflate.nestedView(parentLast).get("a"));
+    }
+
+    private static Object get(Map<String, Object> map, String... path) {
+        Object current = map;
+        for (String key : path) {
+            current = ((Map<?, ?>) current).get(key);
+        }
+        return current;
+    }
 }
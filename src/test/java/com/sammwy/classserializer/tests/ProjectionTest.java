@@ -0,0 +1,118 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.Projection;
+import com.sammwy.classserializer.Serializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.customs.CustomData;
+import com.sammwy.classserializer.tests.customs.CustomDataSerializer;
+import com.sammwy.classserializer.tests.entity.PointRecord;
+import com.sammwy.classserializer.tests.entity.TestUser;
+import com.sammwy.classserializer.tests.entity.UserWithCustomData;
+
+@Nested
+@DisplayName("Projections")
+public class ProjectionTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldFilter(field -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Deserialize only the projected paths")
+    public void deserializeProjectedPaths() {
+        assertProjected();
+    }
+
+    @Test
+    @DisplayName("Deserialize only the projected paths in Deflate Mode")
+    public void deserializeProjectedPathsDeflated() {
+        serializer.withDeflate(".");
+        assertProjected();
+    }
+
+    @Test
+    @DisplayName("Skip custom serializers of other fields")
+    public void skipOtherSerializers() {
+        Map<String, Object> map = serializer.addSerializer(CustomData.class, new CustomDataSerializer())
+                .serialize(new UserWithCustomData());
+        serializer.addSerializer(CustomData.class, new Serializer<CustomData>() {
+            @Override
+            public Object serialize(CustomData object) {
+                throw new AssertionError("Not projected");
+            }
+
+            @Override
+            public CustomData deserialize(Object serialized) {
+                throw new AssertionError("Not projected");
+            }
+        });
+
+        UserWithCustomData user = serializer.projection(UserWithCustomData.class, "name").deserialize(map);
+
+        assertEquals("Alice", user.name);
+    }
+
+    @Test
+    @DisplayName("Project records and reject unknown paths")
+    public void projectRecords() {
+        Map<String, Object> map = serializer.serialize(new PointRecord(3, 4, "point"));
+
+        assertEquals(new PointRecord(0, 4, "point"),
+                serializer.projection(PointRecord.class, "y", "label").deserialize(map));
+        assertThrows(IllegalArgumentException.class, () -> serializer.projection(TestUser.class, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> serializer.projection(TestUser.class, "name.length"));
+        assertThrows(IllegalArgumentException.class, () -> serializer.projection(TestUser.class, "settings..theme"));
+    }
+
+    @Test
+    @DisplayName("Reject projections of names given by a field predicate")
+    public void rejectFieldPredicate() {
+        serializer.fieldPredicate((field, obj) -> obj == null ? null : field.getName());
+
+        assertThrows(IllegalStateException.class, () -> serializer.projection(TestUser.class, "name"));
+    }
+
+    private void assertProjected() {
+        TestUser source = new TestUser();
+        source.name = "Jane";
+        source.age = 99;
+        source.settings.darkMode = false;
+        source.settings.preferences.theme = "light";
+        source.tags.add("admin");
+        Map<String, Object> map = serializer.serialize(source);
+
+        Projection<TestUser> projection = serializer.projection(TestUser.class, "name", "settings.preferences.theme");
+        TestUser user = projection.deserialize(map);
+        TestUser defaults = new TestUser();
+
+        assertEquals("Jane", user.name);
+        assertEquals("light", user.settings.preferences.theme);
+        assertEquals(defaults.age, user.age);
+        assertEquals(defaults.tags, user.tags);
+        assertEquals(defaults.settings.darkMode, user.settings.darkMode);
+        assertEquals(defaults.settings.preferences.notifications, user.settings.preferences.notifications);
+        assertEquals("Jane", projection.deserialize(map).name);
+    }
+}
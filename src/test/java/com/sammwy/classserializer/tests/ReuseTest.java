@@ -0,0 +1,146 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.SerializationException;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.PointRecord;
+import com.sammwy.classserializer.tests.entity.TestPreferences;
+import com.sammwy.classserializer.tests.entity.TestSettings;
+import com.sammwy.classserializer.tests.entity.TestUser;
+
+@Nested
+@DisplayName("Serialize and Deserialize Into")
+public class ReuseTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Deserialize into existing objects")
+    public void deserializeIntoExisting() {
+        assertUpdatedInPlace();
+    }
+
+    @Test
+    @DisplayName("Deserialize into existing objects in Deflate Mode")
+    public void deserializeIntoExistingDeflated() {
+        serializer.withDeflate(".");
+        assertUpdatedInPlace();
+    }
+
+    @Test
+    @DisplayName("Reject objects that can't be updated")
+    public void rejectImmutableObjects() {
+        Map<String, Object> map = new HashMap<>();
+
+        assertThrows(SerializationException.class,
+                () -> serializer.deserializeInto(new PointRecord(1, 2, "point"), map));
+        assertThrows(IllegalArgumentException.class, () -> serializer.deserializeInto(null, map));
+    }
+
+    @Test
+    @DisplayName("Serialize into existing maps")
+    @SuppressWarnings("unchecked")
+    public void serializeIntoExisting() {
+        TestUser user = new TestUser();
+        Map<String, Object> target = new HashMap<>();
+        target.put("stale", true);
+
+        serializer.serializeInto(user, target);
+        Map<String, Object> settings = (Map<String, Object>) target.get("settings");
+        List<Object> tags = (List<Object>) target.get("tags");
+
+        assertEquals(serializer.serialize(user), target);
+
+        user.name = null;
+        user.age = 31;
+        user.settings.preferences.theme = "light";
+        user.tags.remove(0);
+        assertSame(target, serializer.serializeInto(user, target));
+
+        assertEquals(serializer.serialize(user), target);
+        assertFalse(target.containsKey("name"));
+        assertSame(settings, target.get("settings"));
+        assertSame(tags, target.get("tags"));
+    }
+
+    @Test
+    @DisplayName("Replace nested maps and lists that can't be modified")
+    public void replaceUnmodifiableContainers() {
+        TestUser user = new TestUser();
+        Map<String, Object> target = new HashMap<>();
+        target.put("settings", Map.of("stale", true));
+        target.put("tags", List.of("stale"));
+
+        serializer.serializeInto(user, target);
+
+        assertEquals(serializer.serialize(user), target);
+        assertFalse(((Map<?, ?>) target.get("settings")).containsKey("stale"));
+    }
+
+    @Test
+    @DisplayName("Remove stale entries of reused nested maps")
+    @SuppressWarnings("unchecked")
+    public void removeStaleNestedEntries() {
+        TestUser user = new TestUser();
+        Map<String, Object> target = serializer.serializeInto(user, new HashMap<>());
+        Map<String, Object> settings = (Map<String, Object>) target.get("settings");
+        settings.put("stale", true);
+        ((Map<String, Object>) settings.get("preferences")).put("stale", true);
+
+        for (int i = 0; i < 3; i++) {
+            serializer.serializeInto(user, target);
+        }
+
+        assertSame(settings, target.get("settings"));
+        assertEquals(serializer.serialize(user), target);
+    }
+
+    private void assertUpdatedInPlace() {
+        TestUser source = new TestUser();
+        source.age = 42;
+        source.settings.darkMode = false;
+        source.settings.preferences.theme = "light";
+        Map<String, Object> map = serializer.serialize(source);
+        map.remove("name");
+
+        TestUser user = new TestUser();
+        user.name = "Kept";
+        TestSettings settings = user.settings;
+        TestPreferences preferences = user.settings.preferences;
+
+        assertSame(user, serializer.deserializeInto(user, map));
+        assertEquals("Kept", user.name);
+        assertEquals(42, user.age);
+        assertSame(settings, user.settings);
+        assertSame(preferences, user.settings.preferences);
+        assertFalse(user.settings.darkMode);
+        assertEquals("light", user.settings.preferences.theme);
+    }
+}
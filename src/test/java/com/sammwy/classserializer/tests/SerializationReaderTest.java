@@ -0,0 +1,179 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.MapReader;
+import com.sammwy.classserializer.SerializationReader;
+import com.sammwy.classserializer.SerializationReader.Token;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.PointRecord;
+import com.sammwy.classserializer.tests.entity.TestUser;
+
+@Nested
+@DisplayName("Serialization Reader")
+public class SerializationReaderTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Read maps token by token")
+    public void readMapsTokenByToken() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("tags", Arrays.asList("a", 1));
+
+        MapReader reader = new MapReader(map);
+
+        assertEquals(Token.BEGIN_OBJECT, reader.peek());
+        reader.beginObject();
+        assertEquals("tags", reader.nextName());
+        reader.beginArray();
+        assertEquals("a", reader.nextString());
+        assertEquals(1L, reader.nextLong());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.endObject();
+        assertEquals(Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    @DisplayName("Deserialize objects field by field")
+    public void deserializeFieldByField() {
+        TestUser user = new TestUser();
+        user.name = "Jane";
+        user.tags = new ArrayList<>(Arrays.asList("musician"));
+
+        Map<String, Object> serialized = serializer.serialize(user);
+        serialized.put("unknown", new HashMap<>(serialized));
+
+        RecordingReader reader = new RecordingReader(new MapReader(serialized));
+        TestUser deserialized = serializer.deserialize(TestUser.class, reader);
+
+        assertEquals(user, deserialized);
+        assertEquals(Arrays.asList("unknown"), reader.skipped);
+    }
+
+    @Test
+    @DisplayName("Deserialize records from a reader")
+    public void deserializeRecords() {
+        Map<String, Object> serialized = serializer.serialize(new PointRecord(3, 4, "origin"));
+        serialized.put("x", "5");
+
+        PointRecord point = serializer.deserialize(PointRecord.class,
+                new RecordingReader(new MapReader(serialized)));
+
+        assertEquals(new PointRecord(5, 4, "origin"), point);
+    }
+
+    private static class RecordingReader implements SerializationReader {
+        private final SerializationReader reader;
+        private final List<String> skipped = new ArrayList<>();
+        private String name;
+
+        private RecordingReader(SerializationReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Token peek() {
+            return reader.peek();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return reader.hasNext();
+        }
+
+        @Override
+        public void beginObject() {
+            reader.beginObject();
+        }
+
+        @Override
+        public void endObject() {
+            reader.endObject();
+        }
+
+        @Override
+        public void beginArray() {
+            reader.beginArray();
+        }
+
+        @Override
+        public void endArray() {
+            reader.endArray();
+        }
+
+        @Override
+        public String nextName() {
+            name = reader.nextName();
+            return name;
+        }
+
+        @Override
+        public void nextNull() {
+            reader.nextNull();
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return reader.nextBoolean();
+        }
+
+        @Override
+        public int nextInt() {
+            return reader.nextInt();
+        }
+
+        @Override
+        public long nextLong() {
+            return reader.nextLong();
+        }
+
+        @Override
+        public double nextDouble() {
+            return reader.nextDouble();
+        }
+
+        @Override
+        public String nextString() {
+            return reader.nextString();
+        }
+
+        @Override
+        public Object nextValue() {
+            return reader.nextValue();
+        }
+
+        @Override
+        public void skipValue() {
+            skipped.add(name);
+            reader.skipValue();
+        }
+    }
+}
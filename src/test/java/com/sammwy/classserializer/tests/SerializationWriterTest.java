@@ -0,0 +1,142 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.SerializationWriter;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.TestSettings;
+import com.sammwy.classserializer.tests.entity.TestUser;
+
+@Nested
+@DisplayName("Serialization Writer")
+public class SerializationWriterTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Emit typed events for object fields")
+    public void emitTypedEvents() {
+        RecordingWriter writer = new RecordingWriter();
+
+        serializer.serialize(new TestSettings(), writer);
+
+        assertEquals(Arrays.asList(
+                "beginObject",
+                "name:darkMode", "boolean:true",
+                "name:fontSize", "float:14.5",
+                "name:preferences", "beginObject",
+                "name:theme", "string:default",
+                "name:notifications", "boolean:true",
+                "end",
+                "end"), writer.events);
+    }
+
+    @Test
+    @DisplayName("Emit flattened names in deflate mode")
+    public void emitFlattenedNames() {
+        RecordingWriter writer = new RecordingWriter();
+        TestUser user = new TestUser();
+        user.tags = new ArrayList<>(Collections.singletonList("developer"));
+
+        serializer.withDeflate(".").serialize(user, writer);
+
+        assertEquals(1, Collections.frequency(writer.events, "beginObject"));
+        assertTrue(writer.events.contains("name:settings.preferences.theme"));
+        assertTrue(writer.events.contains("name:metadata.created"));
+        assertFalse(writer.events.contains("name:settings"));
+
+        int tags = writer.events.indexOf("name:tags");
+        assertEquals(Arrays.asList("beginArray", "string:developer", "end"),
+                writer.events.subList(tags + 1, tags + 4));
+    }
+
+    private static class RecordingWriter implements SerializationWriter {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void beginObject() {
+            events.add("beginObject");
+        }
+
+        @Override
+        public void beginArray() {
+            events.add("beginArray");
+        }
+
+        @Override
+        public void end() {
+            events.add("end");
+        }
+
+        @Override
+        public void name(String name) {
+            events.add("name:" + name);
+        }
+
+        @Override
+        public void writeNull() {
+            events.add("null");
+        }
+
+        @Override
+        public void writeBoolean(boolean value) {
+            events.add("boolean:" + value);
+        }
+
+        @Override
+        public void writeInt(int value) {
+            events.add("int:" + value);
+        }
+
+        @Override
+        public void writeLong(long value) {
+            events.add("long:" + value);
+        }
+
+        @Override
+        public void writeFloat(float value) {
+            events.add("float:" + value);
+        }
+
+        @Override
+        public void writeDouble(double value) {
+            events.add("double:" + value);
+        }
+
+        @Override
+        public void writeString(String value) {
+            events.add("string:" + value);
+        }
+
+        @Override
+        public void writeValue(Object value) {
+            events.add("value:" + value);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.sammwy.classserializer.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
@@ -17,6 +18,7 @@ import com.sammwy.classserializer.ClassSerializer;
 import com.sammwy.classserializer.tests.annotations.Embedded;
 import com.sammwy.classserializer.tests.annotations.Prop;
 import com.sammwy.classserializer.tests.entity.TestUser;
+import com.sammwy.classserializer.tests.entity.WithMaps;
 
 @Nested
 @DisplayName("Serialize with Deflate and Inflate")
@@ -73,6 +75,71 @@ public class SerializeWithDeflateTest {
         assertFalse(serialized.containsKey("settings"));
     }
 
+    @Test
+    @DisplayName("Reuse flattened keys between objects")
+    public void reuseFlattenedKeys() {
+        serializer.withDeflate(".");
+        Map<String, Object> first = serializer.serialize(new TestUser());
+        Map<String, Object> second = serializer.serialize(new TestUser());
+
+        assertEquals(first, second);
+        assertSame(keyOf(first, "settings.preferences.theme"), keyOf(second, "settings.preferences.theme"));
+    }
+
+    @Test
+    @DisplayName("Reuse computed field names between objects")
+    public void reuseComputedNames() {
+        serializer.fieldPredicate((field, obj) -> field.isAnnotationPresent(Prop.class)
+                ? new StringBuilder("prop_").append(field.getName()).toString()
+                : null);
+        Map<String, Object> first = serializer.serialize(new TestUser());
+        Map<String, Object> second = serializer.serialize(new TestUser());
+
+        assertEquals("John Doe", first.get("prop_name"));
+        assertSame(keyOf(first, "prop_name"), keyOf(second, "prop_name"));
+    }
+
+    @Test
+    @DisplayName("Keep the flattened keys of every separator apart")
+    public void keepKeysOfEverySeparatorApart() {
+        ClassSerializer dotted = new ClassSerializer().withDeflate(".");
+        ClassSerializer underscored = new ClassSerializer().withDeflate("_");
+        TestUser user = new TestUser();
+
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> first = dotted.serialize(user);
+            Map<String, Object> second = underscored.serialize(user);
+
+            assertEquals(user.settings.preferences.theme, first.get("settings.preferences.theme"));
+            assertEquals(user.settings.preferences.theme, second.get("settings_preferences_theme"));
+            assertEquals(user.settings.preferences.theme,
+                    underscored.deserialize(TestUser.class, second).settings.preferences.theme);
+        }
+
+        underscored.withDeflate("/");
+        assertEquals(user.settings.preferences.theme,
+                underscored.serialize(user).get("settings/preferences/theme"));
+    }
+
+    @Test
+    @DisplayName("Flatten the entries of maps under their own keys")
+    public void flattenMapEntries() {
+        serializer.withDeflate(".");
+        for (int i = 0; i < 3; i++) {
+            WithMaps maps = new WithMaps();
+            maps.strings.put("key" + i, null);
+            maps.objects.get("dark").theme = "dark" + i;
+
+            Map<String, Object> map = serializer.serialize(maps);
+
+            assertEquals("value-a", map.get("strings.a"));
+            assertTrue(map.containsKey("strings.key" + i));
+            assertFalse(map.containsKey("strings.key" + (i - 1)));
+            assertEquals("dark" + i, map.get("objects.dark.theme"));
+            assertEquals("dark" + i, serializer.deserialize(WithMaps.class, map).objects.get("dark").theme);
+        }
+    }
+
     @Test
     @DisplayName("Deserialize from Deflate Mode")
     public void deserializeFromDeflateMode() {
@@ -101,6 +168,31 @@ public class SerializeWithDeflateTest {
     }
 
     @Test
+    @DisplayName("Deserialize flat maps like their inflated form")
+    public void deserializeFlatLikeInflated() {
+        TestUser user = new TestUser();
+        user.settings.preferences.theme = "light";
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("level", 3);
+        user.metadata.put("profile", profile);
+
+        serializer.withDeflate(".");
+        Map<String, Object> flat = serializer.serialize(user);
+        flat.put("unknown.key", "skipped");
+
+        assertEquals(user, serializer.deserialize(TestUser.class, flat));
+
+        // Nested objects without any key keep their defaults
+        Map<String, Object> partial = new HashMap<>();
+        partial.put("settings.preferences.theme", "dark");
+        TestUser deserialized = serializer.deserialize(TestUser.class, partial);
+
+        assertEquals("dark", deserialized.settings.preferences.theme);
+        assertEquals(new TestUser().settings.darkMode, deserialized.settings.darkMode);
+        assertEquals(new TestUser().metadata, deserialized.metadata);
+    }
+
+        @Test
     @DisplayName("Custom Separator In Deflate Mode")
     public void customSeparatorInDeflateMode() {
         TestUser user = new TestUser();
@@ -120,4 +212,13 @@ public class SerializeWithDeflateTest {
         assertTrue(deserialized.settings.darkMode);
         assertEquals("default", deserialized.settings.preferences.theme);
     }
+
+    private static String keyOf(Map<String, Object> map, String key) {
+        for (String candidate : map.keySet()) {
+            if (candidate.equals(key)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
 }
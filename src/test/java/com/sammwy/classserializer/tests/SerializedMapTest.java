@@ -0,0 +1,136 @@
+package com.sammwy.classserializer.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.sammwy.classserializer.ClassSerializer;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.entity.TestUser;
+
+@Nested
+@DisplayName("Serialized Maps")
+public class SerializedMapTest {
+    private ClassSerializer serializer;
+
+    @BeforeEach
+    public void setUp() {
+        serializer = new ClassSerializer()
+                .fieldPredicate((field, obj) -> {
+                    if (field.isAnnotationPresent(Prop.class)) {
+                        return field.getName();
+                    } else if (field.isAnnotationPresent(Embedded.class)) {
+                        return field.getName();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Behave like hash maps")
+    public void behaveLikeHashMaps() {
+        Map<String, Object> serialized = serializer.serialize(new TestUser());
+        Map<String, Object> copy = new HashMap<>(serialized);
+
+        assertEquals(copy, serialized);
+        assertEquals(serialized, copy);
+        assertEquals(copy.hashCode(), serialized.hashCode());
+        assertEquals(copy.size(), serialized.size());
+        assertTrue(serialized.get("settings") instanceof Map);
+
+        assertEquals("John Doe", serialized.put("name", "Jane"));
+        assertEquals("Jane", serialized.remove("name"));
+        assertFalse(serialized.containsKey("name"));
+        assertNull(serialized.get("name"));
+        assertEquals(copy.size() - 1, serialized.size());
+
+        // Keys outside the schema of the class are kept too
+        serialized.put("extra", 1);
+        serialized.put(null, 2);
+        assertEquals(1, serialized.get("extra"));
+        assertEquals(2, serialized.get(null));
+        assertEquals(copy.size() + 1, serialized.size());
+    }
+
+    @Test
+    @DisplayName("Remove entries while iterating")
+    public void removeWhileIterating() {
+        Map<String, Object> serialized = serializer.serialize(new TestUser());
+
+        Iterator<Map.Entry<String, Object>> iterator = serialized.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Object> entry = iterator.next();
+            if (entry.getKey().equals("age")) {
+                entry.setValue(31);
+            } else {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(1, serialized.size());
+        assertEquals(31, serialized.get("age"));
+    }
+
+    @Test
+    @DisplayName("Update entries after keys outside the schema are added")
+    public void updateEntriesAfterSpill() {
+        Map<String, Object> serialized = serializer.serialize(new TestUser());
+
+        Map.Entry<String, Object> entry = serialized.entrySet().iterator().next();
+        String key = entry.getKey();
+        Object value = entry.getValue();
+        serialized.put("extra", 1);
+
+        assertEquals(value, entry.getValue());
+        assertEquals(value, entry.setValue("changed"));
+        assertEquals("changed", serialized.get(key));
+        assertEquals(1, serialized.get("extra"));
+    }
+
+    @Test
+    @DisplayName("Share keys between maps of a class")
+    public void shareKeys() {
+        Map<String, Object> first = serializer.serialize(new TestUser());
+        Map<String, Object> second = serializer.serialize(new TestUser());
+
+        Iterator<String> firstKeys = first.keySet().iterator();
+        Iterator<String> secondKeys = second.keySet().iterator();
+        while (firstKeys.hasNext()) {
+            assertSame(firstKeys.next(), secondKeys.next());
+        }
+        assertFalse(secondKeys.hasNext());
+    }
+
+    @Test
+    @DisplayName("Use Java serialization as a hash map")
+    @SuppressWarnings("unchecked")
+    public void javaSerialization() throws Exception {
+        Map<String, Object> serialized = serializer.serialize(new TestUser());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(serialized);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Map<String, Object> read = (Map<String, Object>) in.readObject();
+            assertTrue(read instanceof HashMap);
+            assertEquals(serialized, read);
+        }
+    }
+}
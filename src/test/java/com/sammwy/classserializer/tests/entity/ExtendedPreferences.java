@@ -0,0 +1,8 @@
+package com.sammwy.classserializer.tests.entity;
+
+import com.sammwy.classserializer.tests.annotations.Prop;
+
+public class ExtendedPreferences extends TestPreferences {
+    @Prop
+    public String language = "en";
+}
@@ -0,0 +1,30 @@
+package com.sammwy.classserializer.tests.entity;
+
+import java.beans.ConstructorProperties;
+
+import com.sammwy.classserializer.tests.annotations.Prop;
+
+public class ImmutablePoint {
+    public static int created = 0;
+
+    @Prop
+    private final int x;
+
+    @Prop
+    private final int y;
+
+    @ConstructorProperties({ "x", "y" })
+    public ImmutablePoint(int x, int y) {
+        this.x = x;
+        this.y = y;
+        created++;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sammwy.classserializer.tests.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sammwy.classserializer.Lazy;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.annotations.Serializable;
+
+@Serializable
+public class LazyUser {
+    @Prop
+    public String name = "Alice";
+
+    @Prop
+    public Lazy<TestSettings> settings = Lazy.of(new TestSettings());
+
+    @Prop
+    public Lazy<List<Integer>> scores = Lazy.of(new ArrayList<>(List.of(10, 20)));
+
+    @Prop
+    public Lazy<Map<String, TestPreferences>> profiles = Lazy.of(new HashMap<>(Map.of("work", new TestPreferences())));
+}
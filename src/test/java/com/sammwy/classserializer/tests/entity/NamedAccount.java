@@ -0,0 +1,24 @@
+package com.sammwy.classserializer.tests.entity;
+
+import com.sammwy.classserializer.Ignore;
+import com.sammwy.classserializer.SerialName;
+import com.sammwy.classserializer.tests.annotations.Embedded;
+import com.sammwy.classserializer.tests.annotations.Prop;
+import com.sammwy.classserializer.tests.annotations.Serializable;
+
+@Serializable
+public class NamedAccount {
+    @Prop
+    @SerialName("user_name")
+    public String name = "alice";
+
+    @Prop
+    @Ignore
+    public String password = "secret";
+
+    @Embedded
+    @SerialName("prefs")
+    public TestPreferences preferences = new TestPreferences();
+
+    public int visits = 3;
+}
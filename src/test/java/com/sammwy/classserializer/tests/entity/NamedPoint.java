@@ -0,0 +1,7 @@
+package com.sammwy.classserializer.tests.entity;
+
+import com.sammwy.classserializer.Ignore;
+import com.sammwy.classserializer.SerialName;
+
+public record NamedPoint(@SerialName("px") int x, @SerialName("py") int y, @Ignore String label) {
+}
@@ -0,0 +1,6 @@
+package com.sammwy.classserializer.tests.entity;
+
+import com.sammwy.classserializer.tests.annotations.Prop;
+
+public record PointRecord(@Prop int x, @Prop int y, @Prop String label) {
+}
@@ -0,0 +1,23 @@
+package com.sammwy.classserializer.tests.entity;
+
+import com.sammwy.classserializer.tests.annotations.Prop;
+
+public class PrivateFields {
+    @Prop
+    private String secret = "hidden";
+
+    @Prop
+    private final int code;
+
+    public PrivateFields() {
+        this.code = 7;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
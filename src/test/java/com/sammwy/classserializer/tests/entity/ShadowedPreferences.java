@@ -0,0 +1,12 @@
+package com.sammwy.classserializer.tests.entity;
+
+import com.sammwy.classserializer.tests.annotations.Prop;
+
+public class ShadowedPreferences extends TestPreferences {
+    @Prop
+    public String theme = "shadowed";
+
+    public String inheritedTheme() {
+        return super.theme;
+    }
+}
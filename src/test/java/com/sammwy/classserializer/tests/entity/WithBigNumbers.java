@@ -0,0 +1,13 @@
+package com.sammwy.classserializer.tests.entity;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.sammwy.classserializer.tests.annotations.Prop;
+
+public class WithBigNumbers {
+    @Prop
+    public BigDecimal amount = new BigDecimal("12345678901234567890.123456789");
+    @Prop
+    public BigInteger count = new BigInteger("123456789012345678901234567890");
+}
@@ -0,0 +1,14 @@
+package com.sammwy.classserializer.tests.entity;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sammwy.classserializer.tests.annotations.Prop;
+
+public class WithSets {
+    @Prop
+    public String name = "x";
+    @Prop
+    public Set<String> tags = new LinkedHashSet<>(List.of("a", "b"));
+}